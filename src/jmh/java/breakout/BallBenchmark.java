@@ -0,0 +1,80 @@
+package breakout;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks for moving balls through a level: the swept wall, block and paddle collisions of one
+ * simulation step, and the paddle's discrete collision check.
+ *
+ * @author Owen Jennings
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class BallBenchmark {
+
+  @Param({"12", "48", "96", "168"})
+  public int blockCount;
+
+  @Param({"1", "16", "128"})
+  public int ballCount;
+
+  private LevelModel level;
+  private PaddleModel paddle;
+  private BallModel[] balls;
+  private BallModel[] ballsOnPaddle;
+
+  @Setup
+  public void setUp() throws Exception {
+    GameSimulation simulation = new GameSimulation(BenchmarkLevels.BENCHMARK_SEED);
+    level = simulation.getLevel();
+    BenchmarkLevels.startLevel(level, blockCount, false);
+    paddle = simulation.getPaddle();
+    SplittableRandom random = new SplittableRandom(BenchmarkLevels.BENCHMARK_SEED);
+    balls = BenchmarkLevels.createBalls(ballCount, random);
+    ballsOnPaddle = new BallModel[ballCount];
+    for (int i = 0; i < ballCount; i++) {
+      // every other ball touches the paddle
+      double x = paddle.getX() + (i % 2 == 0 ? paddle.getWidth() * i / ballCount : -50);
+      ballsOnPaddle[i] = new BallModel(x, paddle.getY(), GameConfig.BALL_RADIUS,
+          GameConfig.BALL_SPEED, 0, 1, random);
+    }
+  }
+
+  /**
+   * One simulation step for every ball. Balls that reach the floor are bounced back up instead of
+   * being removed, so the number of balls stays the same for the whole measurement.
+   */
+  @Benchmark
+  public void bounceAndHandleCollisions() {
+    for (BallModel ball : balls) {
+      ball.bounceAndHandleCollisions(GameConfig.SECOND_DELAY, level, paddle);
+      if (ball.isIntersectingFloor()) {
+        ball.updateDirectionY(-Math.abs(ball.getDirectionY()));
+      }
+    }
+  }
+
+  @Benchmark
+  public void paddleHandleBallCollision() {
+    for (BallModel ball : ballsOnPaddle) {
+      paddle.handleBallCollision(ball);
+    }
+  }
+
+}
@@ -0,0 +1,74 @@
+package breakout;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks for stepping every ball in a BallSystem at once, below and above the number of balls
+ * that are moved in parallel.
+ *
+ * @author Owen Jennings
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class BallSystemBenchmark {
+
+  @Param({"48", "168"})
+  public int blockCount;
+
+  @Param({"128", "1024", "16384"})
+  public int ballCount;
+
+  private LevelModel level;
+  private PaddleModel paddle;
+  private BallSystem ballSystem;
+  private BallModel[] startingBalls;
+
+  @Setup
+  public void setUp() throws Exception {
+    GameSimulation simulation = new GameSimulation(BenchmarkLevels.BENCHMARK_SEED);
+    level = simulation.getLevel();
+    BenchmarkLevels.startLevel(level, blockCount, false);
+    paddle = simulation.getPaddle();
+    startingBalls = BenchmarkLevels.createBalls(ballCount,
+        new SplittableRandom(BenchmarkLevels.BENCHMARK_SEED));
+    ballSystem = new BallSystem(ballCount);
+    addBalls(ballCount);
+  }
+
+  /**
+   * One simulation step for every ball. Balls that reach the floor are replaced by new ones, so the
+   * number of balls stays the same for the whole measurement.
+   */
+  @Benchmark
+  public int step() {
+    ballSystem.savePreviousPositions();
+    int removed = ballSystem.step(GameConfig.SECOND_DELAY, level, paddle, null);
+    addBalls(removed);
+    return removed;
+  }
+
+  private void addBalls(int count) {
+    for (int i = 0; i < count; i++) {
+      BallModel ball = startingBalls[ballSystem.size() % ballCount];
+      ballSystem.add(ball.getX(), ball.getY(), ball.getRadius(), ball.getSpeed(),
+          ball.getDirectionX(), ball.getDirectionY(), i);
+    }
+  }
+
+}
@@ -0,0 +1,90 @@
+package breakout;
+
+import static breakout.GameConfig.BLOCK_SIZE;
+import static breakout.GameConfig.HEIGHT;
+import static breakout.GameConfig.WIDTH;
+
+import java.util.List;
+import java.util.random.RandomGenerator;
+
+/**
+ * Builds the levels and balls used by the benchmarks, so that every benchmark run starts from the
+ * same layout for a given block and ball count. Randomness is seeded with BENCHMARK_SEED, and levels
+ * are started without power ups, so no power up effect can change the work being measured.
+ *
+ * @author Owen Jennings
+ */
+public final class BenchmarkLevels {
+
+  public static final int COLUMNS = WIDTH / BLOCK_SIZE;
+  public static final int ROWS = HEIGHT / BLOCK_SIZE - LevelModel.BOTTOM_OFFSET;
+  public static final int MAX_BLOCKS = COLUMNS * ROWS;
+  // high enough that no block is destroyed while a benchmark is measured
+  public static final int BLOCK_HEALTH = 1_000_000_000;
+  // the seed of every simulation and ball created by the benchmarks
+  public static final long BENCHMARK_SEED = 20_250_101L;
+
+  private BenchmarkLevels() {
+  }
+
+  /**
+   * Create the text of a level file with blockCount default blocks, filled in row by row from the
+   * top left of the level. Like any level, empty cells may be given random power ups when the level
+   * is loaded; use startLevel to load it without them.
+   *
+   * @param blockCount: the number of default blocks, at most MAX_BLOCKS
+   * @param hasGravity: true if the level's blocks drop one row after each life
+   * @return the level, in the format described in levels/FORMAT.txt
+   */
+  public static String createLevelText(int blockCount, boolean hasGravity) {
+    StringBuilder levelText = new StringBuilder();
+    levelText.append(1).append('\n').append(hasGravity).append('\n');
+    for (int row = 0; row < ROWS; row++) {
+      for (int column = 0; column < COLUMNS; column++) {
+        int health = (row * COLUMNS + column < blockCount) ? BLOCK_HEALTH : 0;
+        levelText.append(health).append(column == COLUMNS - 1 ? '\n' : ' ');
+      }
+    }
+    return levelText.toString();
+  }
+
+  /**
+   * Start a level with blockCount default blocks, then remove the power ups given to its empty
+   * cells, so that balls pass through the empty cells for the whole measurement
+   *
+   * @param level:      the level to start
+   * @param blockCount: the number of default blocks, at most MAX_BLOCKS
+   * @param hasGravity: true if the level's blocks drop one row after each life
+   * @throws Exception: any exceptions thrown while loading the level
+   */
+  public static void startLevel(LevelModel level, int blockCount, boolean hasGravity)
+      throws Exception {
+    level.startLevel(createLevelText(blockCount, hasGravity));
+    for (BlockModel block : List.copyOf(level.getBlocks())) {
+      if (block.getBlockType().isPowerUp()) {
+        level.removeBlock(block);
+      }
+    }
+  }
+
+  /**
+   * Create balls spread evenly over the game area, each moving in a different direction
+   *
+   * @param ballCount: the number of balls to create
+   * @param random:    the random generator the balls' own randomness is seeded from
+   * @return the balls
+   */
+  public static BallModel[] createBalls(int ballCount, RandomGenerator random) {
+    BallModel[] balls = new BallModel[ballCount];
+    for (int i = 0; i < ballCount; i++) {
+      double angle = Math.PI / 8 + (i * 0.618 % 1) * Math.PI * 3 / 4;
+      balls[i] = new BallModel(
+          GameConfig.BALL_RADIUS + (i * 37 % (WIDTH - 2 * GameConfig.BALL_RADIUS)),
+          GameConfig.BALL_RADIUS + (i * 53 % (HEIGHT - 2 * GameConfig.BALL_RADIUS)),
+          GameConfig.BALL_RADIUS, GameConfig.BALL_SPEED, Math.cos(angle), -Math.sin(angle),
+          random);
+    }
+    return balls;
+  }
+
+}
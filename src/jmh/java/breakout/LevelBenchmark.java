@@ -0,0 +1,79 @@
+package breakout;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks for the level's block rules: checking for completion, the block destroyer power up,
+ * checking if a gravity level can drop by one row, and loading a level from the level pack.
+ * <p>
+ * Dropping a row is not benchmarked on its own: each drop changes the level, and resetting it
+ * before every drop would cost far more than the drop, which JMH cannot separate at this scale.
+ *
+ * @author Owen Jennings
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class LevelBenchmark {
+
+  @Param({"12", "48", "96", "168"})
+  public int blockCount;
+
+  private LevelPack levelPack;
+  private LevelModel level;
+  private LevelModel gravityLevel;
+
+  @Setup
+  public void setUp() throws Exception {
+    // levels are loaded from the compiled level pack when the game runs, not from their text
+    TreeMap<Integer, LevelData> levels = new TreeMap<>();
+    levels.put(1, LevelData.parse(BenchmarkLevels.createLevelText(blockCount, false)));
+    ByteArrayOutputStream pack = new ByteArrayOutputStream();
+    LevelPack.write(levels, pack);
+    levelPack = LevelPack.fromBytes(ByteBuffer.wrap(pack.toByteArray()));
+    // the level's power ups are placed from the seed, so every call to createLevel is the same
+    level = new GameSimulation(BenchmarkLevels.BENCHMARK_SEED).getLevel();
+    level.startLevel(levelPack.getLevel(1));
+    gravityLevel = new GameSimulation(BenchmarkLevels.BENCHMARK_SEED).getLevel();
+    BenchmarkLevels.startLevel(gravityLevel, blockCount, true);
+  }
+
+  @Benchmark
+  public boolean isComplete() {
+    return level.isComplete();
+  }
+
+  @Benchmark
+  public void hitAllDefaultBlocks() {
+    level.hitAllDefaultBlocks();
+  }
+
+  @Benchmark
+  public boolean canDropOneLevel() {
+    return gravityLevel.canDropOneLevel();
+  }
+
+  @Benchmark
+  public LevelModel createLevel() throws Exception {
+    level.startLevel(levelPack.getLevel(1));
+    return level;
+  }
+
+}
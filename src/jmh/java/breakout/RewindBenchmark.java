@@ -0,0 +1,72 @@
+package breakout;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks for the rewind snapshots: capturing the simulation's state into a rewind buffer,
+ * which happens during play, and restoring it, which happens when the player rewinds.
+ *
+ * @author Owen Jennings
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class RewindBenchmark {
+
+  @Param({"12", "48", "96", "168"})
+  public int blockCount;
+
+  @Param({"1", "16", "128"})
+  public int ballCount;
+
+  private GameSimulation simulation;
+  private RewindBuffer rewindBuffer;
+  private ByteBuffer snapshot;
+  private long tick = 0;
+
+  @Setup
+  public void setUp() throws Exception {
+    simulation = new GameSimulation(BenchmarkLevels.BENCHMARK_SEED);
+    BenchmarkLevels.startLevel(simulation.getLevel(), blockCount, false);
+    for (int i = 1; i < ballCount; i++) {
+      simulation.increaseGameBallCount();
+    }
+    simulation.shoot(Math.PI / 3);
+    for (int i = 0; i < 10; i++) {
+      simulation.step(GameConfig.SECOND_DELAY, 0);  // launch a few of the balls
+    }
+    rewindBuffer = new RewindBuffer(GameSession.REWIND_SNAPSHOTS,
+        GameSession.REWIND_SNAPSHOT_SIZE);
+    snapshot = ByteBuffer.allocate(simulation.getSnapshotSize());
+    simulation.writeSnapshot(snapshot);
+  }
+
+  @Benchmark
+  public ByteBuffer captureSnapshot() {
+    ByteBuffer buffer = rewindBuffer.startSnapshot(tick++, simulation.getSnapshotSize());
+    simulation.writeSnapshot(buffer);
+    return buffer;
+  }
+
+  @Benchmark
+  public void restoreSnapshot() {
+    simulation.readSnapshot(snapshot.flip());
+    snapshot.position(snapshot.limit());
+  }
+
+}
@@ -0,0 +1,185 @@
+package breakout;
+
+import static breakout.GameConfig.HEIGHT;
+import static breakout.GameConfig.WIDTH;
+
+/**
+ * Traces the path a ball shot from the shooter will take, through its first bounces off the walls
+ * and the level's blocks, so that the shooter can preview it. Instead of stepping a ball through
+ * the game one frame at a time, each straight part of the path is ray cast through the level's grid
+ * with a DDA (grid stepping) walk: the cells the ball's center passes through are visited in order,
+ * and only the blocks in and around each visited cell are swept against, until the first hit is
+ * found. A full trace visits a few dozen cells, so it can be redone on every key press.
+ * <p>
+ * The trace does not include the entropy that walls add to a real ball's bounces, and power up
+ * blocks are passed through, like a real ball does. The points are stored in arrays that are
+ * reused between traces. Does not depend on JavaFX.
+ *
+ * @author Owen Jennings
+ */
+public class AimTracer {
+
+  public static final int DEFAULT_BOUNCES = 6;
+  // longer than any straight path through the game area
+  private static final double MAX_SEGMENT_LENGTH = Math.hypot(WIDTH, HEIGHT);
+  private final SweptCollision collision = new SweptCollision();
+  private final double[] pointX;
+  private final double[] pointY;
+  private int pointCount = 0;
+
+  /**
+   * Create a tracer that follows a path through DEFAULT_BOUNCES bounces
+   */
+  public AimTracer() {
+    this(DEFAULT_BOUNCES);
+  }
+
+  /**
+   * Create a tracer
+   *
+   * @param maxBounces: the number of bounces to follow the path through
+   */
+  public AimTracer(int maxBounces) {
+    pointX = new double[maxBounces + 2];
+    pointY = new double[maxBounces + 2];
+  }
+
+  /**
+   * Trace the path of a ball from a point, replacing the previous trace. The path ends after the
+   * maximum number of bounces, or where the ball reaches endY on its way down.
+   *
+   * @param level:  the level whose blocks the ball bounces off. Its blocks must not be bigger than
+   *                a grid cell, and the ball's radius must not be bigger than a block
+   * @param x:      the ball's starting center x
+   * @param y:      the ball's starting center y
+   * @param angle:  the direction the ball moves in, in radians, where PI / 2 is straight up
+   * @param radius: the ball's radius
+   * @param endY:   the height at which the path ends, such as the top of the paddle
+   * @return the number of points in the path, including its start
+   */
+  public int trace(LevelModel level, double x, double y, double angle, double radius,
+      double endY) {
+    double directionX = Math.cos(angle);
+    double directionY = -Math.sin(angle);
+    BlockModel lastBlock = null;
+    pointCount = 0;
+    addPoint(x, y);
+    while (pointCount < pointX.length) {
+      double dx = directionX * MAX_SEGMENT_LENGTH;
+      double dy = directionY * MAX_SEGMENT_LENGTH;
+      collision.reset();
+      collision.sweepWalls(x, y, dx, dy, radius, WIDTH);
+      BlockModel hitBlock = castRay(level, x, y, dx, dy, radius, lastBlock);
+      double endTime = (dy > 0) ? Math.max(0, (endY - radius - y) / dy) : Double.POSITIVE_INFINITY;
+      if (!collision.hasHit() || endTime <= collision.getTime()) {
+        double time = Math.min(1, endTime);
+        addPoint(x + dx * time, y + dy * time);
+        break;
+      }
+      x += dx * collision.getTime();
+      y += dy * collision.getTime();
+      addPoint(x, y);
+      if (collision.isHorizontalBounce()) {
+        directionX *= -1;
+      }
+      if (collision.isVerticalBounce()) {
+        directionY *= -1;
+      }
+      lastBlock = hitBlock;
+    }
+    return pointCount;
+  }
+
+  /**
+   * Get the number of points in the last trace
+   *
+   * @return the point count
+   */
+  public int getPointCount() {
+    return pointCount;
+  }
+
+  /**
+   * Get the x coordinates of the last trace's points. Only the first getPointCount() entries are
+   * part of the trace, and the array is reused by the next trace.
+   *
+   * @return the points' x coordinates
+   */
+  public double[] getPointX() {
+    return pointX;
+  }
+
+  /**
+   * Get the y coordinates of the last trace's points. Only the first getPointCount() entries are
+   * part of the trace, and the array is reused by the next trace.
+   *
+   * @return the points' y coordinates
+   */
+  public double[] getPointY() {
+    return pointY;
+  }
+
+  // Walk the cells the ray from (x, y) passes through, sweeping against the blocks around each one,
+  // until the earliest hit recorded is before the ray leaves the current cell
+  private BlockModel castRay(LevelModel level, double x, double y, double dx, double dy,
+      double radius, BlockModel ignoredBlock) {
+    double cellSize = level.getBlockSize();
+    int column = (int) Math.floor(x / cellSize);
+    int row = (int) Math.floor(y / cellSize);
+    int stepColumn = (dx > 0) ? 1 : -1;
+    int stepRow = (dy > 0) ? 1 : -1;
+    // the time the ray crosses into the next column or row, and the time it takes to cross a cell
+    double nextColumnTime = getFirstCrossingTime(x, dx, column, cellSize);
+    double nextRowTime = getFirstCrossingTime(y, dy, row, cellSize);
+    double columnTime = (dx == 0) ? Double.POSITIVE_INFINITY : cellSize / Math.abs(dx);
+    double rowTime = (dy == 0) ? Double.POSITIVE_INFINITY : cellSize / Math.abs(dy);
+    BlockModel hitBlock = null;
+    while (true) {
+      hitBlock = sweepCellsAround(level, row, column, x, y, dx, dy, radius, ignoredBlock,
+          hitBlock);
+      double cellExitTime = Math.min(nextColumnTime, nextRowTime);
+      if (collision.getTime() <= cellExitTime || cellExitTime > 1) {
+        return hitBlock;
+      }
+      if (nextColumnTime < nextRowTime) {
+        column += stepColumn;
+        nextColumnTime += columnTime;
+      } else {
+        row += stepRow;
+        nextRowTime += rowTime;
+      }
+    }
+  }
+
+  private BlockModel sweepCellsAround(LevelModel level, int row, int column, double x, double y,
+      double dx, double dy, double radius, BlockModel ignoredBlock, BlockModel hitBlock) {
+    // a ball whose center is in this cell can touch the blocks in the cells next to it
+    for (int blockRow = row - 1; blockRow <= row + 1; blockRow++) {
+      for (int blockColumn = column - 1; blockColumn <= column + 1; blockColumn++) {
+        BlockModel block = level.getBlockAt(blockRow, blockColumn);
+        if (block != null && block != ignoredBlock && !block.getBlockType().isPowerUp()
+            && collision.sweepBox(x, y, dx, dy, radius, block.getX(), block.getY(),
+            block.getX() + block.getSize(), block.getY() + block.getSize())) {
+          hitBlock = block;
+        }
+      }
+    }
+    return hitBlock;
+  }
+
+  private static double getFirstCrossingTime(double start, double distance, int cell,
+      double cellSize) {
+    if (distance == 0) {
+      return Double.POSITIVE_INFINITY;
+    }
+    double boundary = (distance > 0) ? (cell + 1) * cellSize : cell * cellSize;
+    return (boundary - start) / distance;
+  }
+
+  private void addPoint(double x, double y) {
+    pointX[pointCount] = x;
+    pointY[pointCount] = y;
+    pointCount++;
+  }
+
+}
@@ -0,0 +1,318 @@
+package breakout;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A bot that plays a GameSession on its own, for attract mode demos and regression play-throughs.
+ * It starts a game whenever none is being played, steers the paddle towards the lowest falling
+ * ball, and aims the shooter with a Monte Carlo search: every angle the shooter's aim can be moved
+ * to is played forward for one life in headless copies of the current game, several times each,
+ * and the angle with the most blocks destroyed on average (then the most points) is chosen.
+ * <p>
+ * The search runs on background threads, on simulations restored from a snapshot of the live game,
+ * so it never touches the live game or any JavaFX node. It stops when its time budget runs out and
+ * uses the rollouts that finished; the game keeps stepping while it runs. The bot plays only by
+ * pressing keys and giving input to the session, so a game it plays can be recorded and replayed
+ * like any other. Every angle is tried with the same random seeds in each round of rollouts, so
+ * angles are compared on the same luck. Call step() on the thread that steps the session.
+ *
+ * @author Owen Jennings
+ */
+public class AutoAimBot {
+
+  public static final double DEFAULT_SEARCH_TIME = 0.5; // seconds the shooter waits at most
+  public static final int DEFAULT_SAMPLES_PER_ANGLE = 8;
+  public static final int MAX_ROLLOUT_STEPS = GameConfig.FRAMES_PER_SECOND * 90;
+  public static final int BLOCK_VALUE = 1000; // points a destroyed block is worth in a comparison
+  public static final int SEARCH_THREAD_COUNT = Math.max(1,
+      Runtime.getRuntime().availableProcessors() - 1); // leave a core for the game thread
+  private static final int DEADLINE_CHECK_STEPS = 256;
+  private static final ExecutorService SEARCH_THREADS = Executors.newFixedThreadPool(
+      SEARCH_THREAD_COUNT, runnable -> {
+        Thread thread = new Thread(runnable, "breakout-bot-search");
+        thread.setDaemon(true);  // never keep the program running after the game closes
+        return thread;
+      });
+  private final GameSession session;
+  private final long SEARCH_NANOSECONDS;
+  private final int SAMPLES_PER_ANGLE;
+  private Search search;
+  private int aimMoves = 0; // aim key presses left before shooting, negative for RIGHT
+  private boolean isAimChosen = false;
+  private int lastRolloutCount = 0;
+
+  /**
+   * Create a bot with a DEFAULT_SEARCH_TIME budget and DEFAULT_SAMPLES_PER_ANGLE rollouts per
+   * angle
+   *
+   * @param session: the session the bot plays
+   */
+  public AutoAimBot(GameSession session) {
+    this(session, DEFAULT_SEARCH_TIME, DEFAULT_SAMPLES_PER_ANGLE);
+  }
+
+  /**
+   * Create a bot
+   *
+   * @param session:         the session the bot plays
+   * @param searchTime:      the most seconds of wall clock time a search for an angle may take
+   * @param samplesPerAngle: the number of rollouts each angle gets if there is time for them all
+   */
+  public AutoAimBot(GameSession session, double searchTime, int samplesPerAngle) {
+    this.session = session;
+    SEARCH_NANOSECONDS = (long) (searchTime * GameLoop.NANOSECONDS_PER_SECOND);
+    SAMPLES_PER_ANGLE = samplesPerAngle;
+  }
+
+  /**
+   * Press the keys the bot wants handled in the session's next step, and get the input to give it.
+   * Starts a search when the shooter is enabled, moves the aim one step per call once an angle is
+   * chosen, then shoots.
+   *
+   * @return the input flags for the session's next step
+   */
+  public int step() {
+    if (!session.isPlaying()) {
+      stopAiming();
+      session.pressKey(GameKey.SPACE);
+      return 0;
+    }
+    if (!session.isShooterEnabled()) {
+      stopAiming();
+      return BatchGame.getTrackingInput(session.getSimulation());
+    }
+    if (!isAimChosen) {
+      chooseAim();
+    }
+    if (isAimChosen) {
+      pressAimKey();
+    }
+    return 0;
+  }
+
+  /**
+   * Check if a search for the shooter's angle is running
+   *
+   * @return true if a search is running
+   */
+  public boolean isSearching() {
+    return search != null;
+  }
+
+  /**
+   * Wait for the running search to finish, if there is one. Headless play-throughs call this so
+   * that the game is not stepped while the shooter waits.
+   */
+  public void awaitSearch() {
+    if (search != null) {
+      search.result.join();
+    }
+  }
+
+  /**
+   * Get the number of rollouts the last finished search played
+   *
+   * @return the rollout count
+   */
+  public int getLastRolloutCount() {
+    return lastRolloutCount;
+  }
+
+  /**
+   * Stop any search that is running and forget the chosen aim, such as when the player takes over
+   */
+  public void stop() {
+    stopAiming();
+  }
+
+  private void chooseAim() {
+    if (search == null) {
+      search = new Search(session, SAMPLES_PER_ANGLE, System.nanoTime() + SEARCH_NANOSECONDS);
+      search.start();
+    } else if (search.result.isDone()) {
+      aimMoves = search.result.join();
+      lastRolloutCount = search.finishedRollouts.get();
+      isAimChosen = true;
+      search = null;
+    }
+  }
+
+  private void pressAimKey() {
+    if (aimMoves > 0) {
+      session.pressKey(GameKey.LEFT);
+      aimMoves--;
+    } else if (aimMoves < 0) {
+      session.pressKey(GameKey.RIGHT);
+      aimMoves++;
+    } else {
+      session.pressKey(GameKey.SPACE);
+      isAimChosen = false;
+    }
+  }
+
+  private void stopAiming() {
+    if (search != null) {
+      search.isCancelled.set(true);
+      search = null;
+    }
+    isAimChosen = false;
+    aimMoves = 0;
+  }
+
+  // Every number of aim key presses that reaches a different angle, fewest presses first, where
+  // positive numbers are LEFT presses and negative numbers are RIGHT presses
+  private static int[] getReachableMoves(double angle) {
+    int leftMoves = countMovesToLimit(angle, 1);
+    int rightMoves = countMovesToLimit(angle, -1);
+    int[] moves = new int[1 + leftMoves + rightMoves];
+    int count = 0;
+    moves[count++] = 0;
+    for (int presses = 1; presses <= Math.max(leftMoves, rightMoves); presses++) {
+      if (presses <= leftMoves) {
+        moves[count++] = presses;
+      }
+      if (presses <= rightMoves) {
+        moves[count++] = -presses;
+      }
+    }
+    return moves;
+  }
+
+  private static int countMovesToLimit(double angle, int direction) {
+    int presses = 0;
+    double movedAngle = moveAim(angle, direction);
+    while (movedAngle != angle) {
+      presses++;
+      angle = movedAngle;
+      movedAngle = moveAim(angle, direction);
+    }
+    return presses;
+  }
+
+  // Moves the aim like the session does, one key press at a time, so the angles match exactly
+  private static double moveAim(double angle, int moves) {
+    for (int i = 0; i < Math.abs(moves); i++) {
+      angle = Math.clamp(angle + Math.signum(moves) * GameSession.SHOOTER_MOVEMENT_INTERVAL,
+          GameSimulation.MIN_LAUNCH_ANGLE, GameSimulation.MAX_LAUNCH_ANGLE);
+    }
+    return angle;
+  }
+
+  /**
+   * One search for the best shooter angle. Rollouts are numbered round by round (every angle's
+   * first rollout, then every angle's second, and so on), and each search thread takes the next
+   * rollout number until they run out or the deadline passes.
+   */
+  private static class Search {
+
+    private final ByteBuffer snapshot;
+    private final long seed;
+    private final int[] candidateMoves;
+    private final double[] candidateAngles;
+    private final int rolloutCount;
+    private final long deadline;
+    private final double[] blocksDestroyed;
+    private final double[] pointsScored;
+    private final boolean[] isFinished;
+    private final AtomicInteger nextRollout = new AtomicInteger();
+    private final AtomicInteger finishedRollouts = new AtomicInteger();
+    private final AtomicBoolean isCancelled = new AtomicBoolean();
+    private CompletableFuture<Integer> result;
+
+    private Search(GameSession session, int samplesPerAngle, long deadline) {
+      GameSimulation simulation = session.getSimulation();
+      snapshot = ByteBuffer.allocate(simulation.getSnapshotSize());
+      simulation.writeSnapshot(snapshot);
+      snapshot.flip();
+      seed = GameRandom.getSeedHash(simulation.getRandom().getSeed() * 31 + session.getTick());
+      candidateMoves = getReachableMoves(session.getShooterAngle());
+      candidateAngles = new double[candidateMoves.length];
+      for (int i = 0; i < candidateMoves.length; i++) {
+        candidateAngles[i] = moveAim(session.getShooterAngle(), candidateMoves[i]);
+      }
+      rolloutCount = candidateMoves.length * samplesPerAngle;
+      this.deadline = deadline;
+      blocksDestroyed = new double[rolloutCount];
+      pointsScored = new double[rolloutCount];
+      isFinished = new boolean[rolloutCount];
+    }
+
+    private void start() {
+      CompletableFuture<?>[] workers = new CompletableFuture<?>[SEARCH_THREAD_COUNT];
+      for (int i = 0; i < workers.length; i++) {
+        workers[i] = CompletableFuture.runAsync(this::playRollouts, SEARCH_THREADS);
+      }
+      result = CompletableFuture.allOf(workers).thenApply(done -> getBestMoves());
+    }
+
+    private void playRollouts() {
+      int rollout = nextRollout.getAndIncrement();
+      while (rollout < rolloutCount && !isCancelled.get() && System.nanoTime() < deadline) {
+        int candidate = rollout % candidateMoves.length;
+        int sample = rollout / candidateMoves.length;
+        if (playRollout(rollout, candidateAngles[candidate], GameRandom.getSeedHash(seed + sample))) {
+          isFinished[rollout] = true;
+          finishedRollouts.incrementAndGet();
+        }
+        rollout = nextRollout.getAndIncrement();
+      }
+    }
+
+    // Play one life from the snapshot, shooting at the angle, and record what it destroyed
+    private boolean playRollout(int rollout, double angle, long rolloutSeed) {
+      GameSimulation simulation = new GameSimulation(rolloutSeed);
+      simulation.setPreparesNextLevel(false);
+      simulation.readSnapshot(snapshot.duplicate());
+      LevelModel level = simulation.getLevel();
+      int startingBlocks = level.getDefaultBlockCount();
+      int startingScore = simulation.getScoreManager().getScore();
+      simulation.shoot(angle);
+      for (int step = 1; step <= MAX_ROLLOUT_STEPS; step++) {
+        simulation.step(GameConfig.SECOND_DELAY, BatchGame.getTrackingInput(simulation));
+        if (simulation.getBallsInPlay() == 0 || level.isComplete()) {
+          break;
+        }
+        if (step % DEADLINE_CHECK_STEPS == 0
+            && (isCancelled.get() || System.nanoTime() >= deadline)) {
+          return false;
+        }
+      }
+      blocksDestroyed[rollout] = startingBlocks - level.getDefaultBlockCount();
+      pointsScored[rollout] = simulation.getScoreManager().getScore() - startingScore;
+      return true;
+    }
+
+    // Runs after every search thread is done, so all the results are visible
+    private int getBestMoves() {
+      int bestCandidate = 0;
+      double bestValue = Double.NEGATIVE_INFINITY;
+      for (int candidate = 0; candidate < candidateMoves.length; candidate++) {
+        double value = getAverageValue(candidate);
+        if (value > bestValue) {
+          bestValue = value;
+          bestCandidate = candidate;
+        }
+      }
+      return candidateMoves[bestCandidate];
+    }
+
+    private double getAverageValue(int candidate) {
+      double total = 0;
+      int samples = 0;
+      for (int rollout = candidate; rollout < rolloutCount; rollout += candidateMoves.length) {
+        if (isFinished[rollout]) {
+          total += blocksDestroyed[rollout] * BLOCK_VALUE + pointsScored[rollout];
+          samples++;
+        }
+      }
+      return (samples == 0) ? Double.NEGATIVE_INFINITY : total / samples;
+    }
+
+  }
+
+}
@@ -0,0 +1,251 @@
+package breakout;
+
+import java.util.SplittableRandom;
+import java.util.random.RandomGenerator;
+
+/**
+ * A handle to a single game ball. The ball's data lives in a BallSystem's arrays with the other
+ * balls in play, and this reads and writes its entry there, so that many balls can be stepped
+ * together while the rest of the game still works with one ball at a time. A ball that is created
+ * on its own gets its own single-ball system. A ball that is removed from a system keeps the state
+ * it had when it was removed in its own fields, since removed balls are only read, and is only
+ * given a system again if it is moved. Does not depend on JavaFX, so that balls can be simulated
+ * without a scene; the Ball class is the view that draws one of these.
+ *
+ * @author Owen Jennings
+ */
+public class BallModel {
+
+  public static final double BALL_COLLISION_ENTROPY_STRENGTH = 0.01;
+  public static final double BALL_SPEED_UP_CONSTANT = 0.1;
+  public static final double BALL_MAX_SPEED = GameConfig.BALL_SPEED * 4;
+  public static final int MAX_COLLISIONS_PER_STEP = 4; // most bounces to resolve in a single step
+  private BallSystem system; // null once the ball has been removed from its system
+  private int index;
+  // the state of a removed ball
+  private double x;
+  private double y;
+  private double radius;
+  private double speed;
+  private double directionX;
+  private double directionY;
+  private long entropyState;
+
+  /**
+   * Create the data for a game ball.
+   *
+   * @param x:          The ball's initial x coordinate.
+   * @param y:          The ball's initial y coordinate.
+   * @param radius:     The ball's radius
+   * @param speed:      The ball's initial speed
+   * @param directionX: The ball's initial X direction
+   * @param directionY: The ball's initial Y direction
+   */
+  public BallModel(double x, double y, double radius, double speed, double directionX,
+      double directionY) {
+    this(x, y, radius, speed, directionX, directionY, new SplittableRandom());
+  }
+
+  /**
+   * Create the data for a game ball whose bounce entropy is seeded from a random stream, so that
+   * its movement can be reproduced.
+   *
+   * @param x:          The ball's initial x coordinate.
+   * @param y:          The ball's initial y coordinate.
+   * @param radius:     The ball's radius
+   * @param speed:      The ball's initial speed
+   * @param directionX: The ball's initial X direction
+   * @param directionY: The ball's initial Y direction
+   * @param random:     The random stream to seed the ball's entropy from
+   */
+  public BallModel(double x, double y, double radius, double speed, double directionX,
+      double directionY, RandomGenerator random) {
+    system = new BallSystem(1);
+    index = system.store(this, x, y, radius, speed, directionX, directionY, random.nextLong());
+  }
+
+  // A handle to a ball that the system is storing
+  BallModel(BallSystem system, int index) {
+    this.system = system;
+    this.index = index;
+  }
+
+  /**
+   * Get the x coordinate of the ball's center
+   *
+   * @return center x coordinate
+   */
+  public double getX() {
+    return (system != null) ? system.getX(index) : x;
+  }
+
+  /**
+   * Get the y coordinate of the ball's center
+   *
+   * @return center y coordinate
+   */
+  public double getY() {
+    return (system != null) ? system.getY(index) : y;
+  }
+
+  /**
+   * Get the x coordinate of the ball's center, interpolated between the previous step and the
+   * current one
+   *
+   * @param alpha: how far between the previous step (0) and the current step (1) to interpolate
+   * @return interpolated center x coordinate
+   */
+  public double getX(double alpha) {
+    return (system != null) ? system.getX(index, alpha) : x;
+  }
+
+  /**
+   * Get the y coordinate of the ball's center, interpolated between the previous step and the
+   * current one
+   *
+   * @param alpha: how far between the previous step (0) and the current step (1) to interpolate
+   * @return interpolated center y coordinate
+   */
+  public double getY(double alpha) {
+    return (system != null) ? system.getY(index, alpha) : y;
+  }
+
+  /**
+   * Remember the ball's current position as its previous position, so that it can be interpolated
+   * between steps. This is called by the simulation at the start of every step.
+   */
+  public void savePreviousPosition() {
+    if (system != null) {
+      system.savePreviousPosition(index);
+    }
+  }
+
+  /**
+   * Get the ball's radius
+   *
+   * @return radius
+   */
+  public double getRadius() {
+    return (system != null) ? system.getRadius(index) : radius;
+  }
+
+  /**
+   * Get the ball's current speed
+   *
+   * @return speed
+   */
+  public double getSpeed() {
+    return (system != null) ? system.getSpeed(index) : speed;
+  }
+
+  /**
+   * Get current X direction
+   *
+   * @return X direction
+   */
+  public double getDirectionX() {
+    return (system != null) ? system.getDirectionX(index) : directionX;
+  }
+
+  /**
+   * Get current Y direction
+   *
+   * @return Y direction
+   */
+  public double getDirectionY() {
+    return (system != null) ? system.getDirectionY(index) : directionY;
+  }
+
+  /**
+   * Set new ball X direction
+   *
+   * @param directionX: new x direction
+   */
+  public void updateDirectionX(double directionX) {
+    if (system != null) {
+      system.setDirectionX(index, directionX);
+    } else {
+      this.directionX = directionX;
+    }
+  }
+
+  /**
+   * Set new ball Y direction
+   *
+   * @param directionY: new y direction
+   */
+  public void updateDirectionY(double directionY) {
+    if (system != null) {
+      system.setDirectionY(index, directionY);
+    } else {
+      this.directionY = directionY;
+    }
+  }
+
+  /**
+   * Move the ball according to its current direction, speed, and the time that has elapsed. This
+   * also handles the ball bouncing off walls, blocks and the paddle, and damages the blocks it hit.
+   * Collisions are found by sweeping the ball along its path, so the ball bounces at the exact
+   * point it touches something, however fast it is moving. The simulation steps all its balls at
+   * once with BallSystem.step() instead.
+   *
+   * @param elapsedTime: The amount of time that has elapsed since last bounce
+   * @param level:       The level containing the blocks the ball can collide with
+   * @param paddle:      The paddle the ball can bounce off
+   */
+  public void bounceAndHandleCollisions(double elapsedTime, LevelModel level,
+      PaddleModel paddle) {
+    if (system == null) {
+      system = new BallSystem(1);
+      index = system.store(this, x, y, radius, speed, directionX, directionY, entropyState);
+    }
+    system.step(index, elapsedTime, level, paddle);
+  }
+
+  /**
+   * Check if the ball is intersecting the floor/bottom of the game area.
+   *
+   * @return true if the ball is at or below the game area floor, false otherwise
+   */
+  public boolean isIntersectingFloor() {
+    if (system != null) {
+      return system.isIntersectingFloor(index);
+    }
+    return y + radius >= GameConfig.HEIGHT;
+  }
+
+  /**
+   * Check if the ball's bounding box intersects (or touches) the provided rectangle
+   *
+   * @param minX: the rectangle's left edge
+   * @param minY: the rectangle's top edge
+   * @param maxX: the rectangle's right edge
+   * @param maxY: the rectangle's bottom edge
+   * @return true if the ball's bounds and the rectangle overlap
+   */
+  public boolean isIntersecting(double minX, double minY, double maxX, double maxY) {
+    if (system != null) {
+      return system.isIntersecting(index, minX, minY, maxX, maxY);
+    }
+    return x + radius >= minX && x - radius <= maxX && y + radius >= minY && y - radius <= maxY;
+  }
+
+  // Called by the system when it moves this ball's entry
+  void setIndex(int index) {
+    this.index = index;
+  }
+
+  // Called by the system before it removes this ball: copy the ball's state out of its arrays
+  void detach(int index) {
+    x = system.getX(index);
+    y = system.getY(index);
+    radius = system.getRadius(index);
+    speed = system.getSpeed(index);
+    directionX = system.getDirectionX(index);
+    directionY = system.getDirectionY(index);
+    entropyState = system.getEntropyState(index);
+    system = null;
+    this.index = 0;
+  }
+
+}
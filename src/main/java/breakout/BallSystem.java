@@ -0,0 +1,499 @@
+package breakout;
+
+import static breakout.BallModel.BALL_COLLISION_ENTROPY_STRENGTH;
+import static breakout.BallModel.BALL_MAX_SPEED;
+import static breakout.BallModel.BALL_SPEED_UP_CONSTANT;
+import static breakout.BallModel.MAX_COLLISIONS_PER_STEP;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * The state of every ball in play, stored as a structure of arrays: one primitive array for each
+ * of the balls' x positions, y positions, directions, speeds and so on, indexed by the ball's
+ * position in the system. Each BallModel is a small handle to one index, so the rest of the game
+ * can still work with single balls, while stepping all the balls only walks through the arrays.
+ * <p>
+ * A step is split into phases so that it can be spread over all the CPU cores when there are many
+ * balls:
+ * <ol>
+ *   <li>Every ball is moved and swept against the walls, the blocks and the paddle. A ball only
+ *   writes its own entries and only reads the level and paddle, so balls are moved in parallel
+ *   (in chunks of BALLS_PER_TASK) once there are PARALLEL_THRESHOLD or more of them. The blocks a
+ *   ball hits are recorded instead of being damaged, and each ball adds entropy to its bounces from
+ *   its own random stream.</li>
+ *   <li>The recorded hits are applied to the blocks on the calling thread, in ball order and then
+ *   in the order each ball made them. Blocks are solid for the whole of the first phase, so two
+ *   balls that hit the same block in one step both bounce off it, and the block takes its damage in
+ *   the same order every run; a hit on a block that an earlier hit already destroyed is
+ *   dropped.</li>
+ *   <li>Balls that reached the floor are removed, keeping the order of the rest.</li>
+ * </ol>
+ * The result of a step does not depend on the number of threads, so a game plays out the same on
+ * every machine. Does not depend on JavaFX.
+ *
+ * @author Owen Jennings
+ */
+public class BallSystem {
+
+  public static final int PARALLEL_THRESHOLD = 1024; // fewer balls are stepped on the calling thread
+  public static final int BALLS_PER_TASK = 256; // move this many balls on a thread before splitting
+  public static final int DEFAULT_CAPACITY = 16;
+  private final ArrayList<BallModel> handles = new ArrayList<>();
+  private final List<BallModel> handlesView = Collections.unmodifiableList(handles);
+  private final ArrayList<BallModel> removedBalls = new ArrayList<>();
+  private final SweptCollision collision = new SweptCollision(); // for the calling thread
+  private final List<BlockModel> nearbyBlocks = new ArrayList<>(); // for the calling thread
+  private double[] x;
+  private double[] y;
+  private double[] previousX;
+  private double[] previousY;
+  private double[] directionX;
+  private double[] directionY;
+  private double[] speed;
+  private double[] radius;
+  private long[] entropyState; // each ball's SplitMix64 random stream
+  private boolean[] isOnFloor;
+  private BlockModel[] hits; // MAX_COLLISIONS_PER_STEP entries for each ball
+  private int[] hitCounts;
+  private int size = 0;
+
+  /**
+   * Create an empty ball system with room for DEFAULT_CAPACITY balls
+   */
+  public BallSystem() {
+    this(DEFAULT_CAPACITY);
+  }
+
+  /**
+   * Create an empty ball system. The arrays grow as balls are added.
+   *
+   * @param capacity: the number of balls to make room for up front
+   */
+  public BallSystem(int capacity) {
+    allocate(Math.max(1, capacity));
+  }
+
+  /**
+   * Add a ball to the end of the system
+   *
+   * @param x:           The ball's initial x coordinate.
+   * @param y:           The ball's initial y coordinate.
+   * @param radius:      The ball's radius
+   * @param speed:       The ball's initial speed
+   * @param directionX:  The ball's initial X direction
+   * @param directionY:  The ball's initial Y direction
+   * @param entropySeed: The seed of the random stream the ball takes its bounce entropy from
+   * @return the new ball's handle
+   */
+  public BallModel add(double x, double y, double radius, double speed, double directionX,
+      double directionY, long entropySeed) {
+    BallModel ball = new BallModel(this, size);
+    store(ball, x, y, radius, speed, directionX, directionY, entropySeed);
+    return ball;
+  }
+
+  /**
+   * Get the number of balls in the system
+   *
+   * @return the ball count
+   */
+  public int size() {
+    return size;
+  }
+
+  /**
+   * Get a handle to every ball, in the order they were added. The list cannot be changed, and it
+   * reflects the balls that are added and removed later.
+   *
+   * @return the balls' handles
+   */
+  public List<BallModel> getBalls() {
+    return handlesView;
+  }
+
+  /**
+   * Remove every ball. Their handles keep the state they had when they were removed.
+   *
+   * @param listener: told about each ball after it is removed, or null
+   */
+  public void clear(SimulationListener listener) {
+    for (int i = 0; i < size; i++) {
+      BallModel ball = handles.get(i);
+      ball.detach(i);
+      if (listener != null) {
+        listener.onBallRemoved(ball);
+      }
+    }
+    handles.clear();
+    Arrays.fill(hits, 0, size * MAX_COLLISIONS_PER_STEP, null);
+    size = 0;
+  }
+
+  /**
+   * Remember every ball's current position as its previous position, so that it can be
+   * interpolated between steps
+   */
+  public void savePreviousPositions() {
+    System.arraycopy(x, 0, previousX, 0, size);
+    System.arraycopy(y, 0, previousY, 0, size);
+  }
+
+  /**
+   * Move every ball, bounce it off the walls, blocks and paddle, damage the blocks that were hit,
+   * and remove the balls that reached the floor
+   *
+   * @param elapsedTime: The amount of time that has elapsed since the last step
+   * @param level:       The level containing the blocks the balls can collide with
+   * @param paddle:      The paddle the balls can bounce off
+   * @param listener:    told about each ball that is removed, or null
+   * @return the number of balls that reached the floor and were removed
+   */
+  public int step(double elapsedTime, LevelModel level, PaddleModel paddle,
+      SimulationListener listener) {
+    if (size >= PARALLEL_THRESHOLD) {
+      ForkJoinPool.commonPool().invoke(new MoveTask(0, size, elapsedTime, level, paddle));
+    } else {
+      moveBalls(0, size, elapsedTime, level, paddle, collision, nearbyBlocks);
+    }
+    for (int i = 0; i < size; i++) {
+      applyHits(i, level);
+    }
+    return removeBallsOnFloor(listener);
+  }
+
+  /**
+   * Move one ball, bounce it off the walls, blocks and paddle, and damage the blocks it hit straight
+   * away. Must be called on the thread that owns the level.
+   *
+   * @param index:       The ball to move
+   * @param elapsedTime: The amount of time that has elapsed since last bounce
+   * @param level:       The level containing the blocks the ball can collide with
+   * @param paddle:      The paddle the ball can bounce off
+   */
+  public void step(int index, double elapsedTime, LevelModel level, PaddleModel paddle) {
+    moveBall(index, elapsedTime, level, paddle, collision, nearbyBlocks);
+    applyHits(index, level);
+  }
+
+  // Stores a ball's state at the end of the arrays and returns its index
+  int store(BallModel ball, double x, double y, double radius, double speed, double directionX,
+      double directionY, long entropySeed) {
+    if (size == this.x.length) {
+      grow();
+    }
+    int index = size++;
+    handles.add(ball);
+    this.x[index] = x;
+    this.y[index] = y;
+    previousX[index] = x;
+    previousY[index] = y;
+    this.radius[index] = radius;
+    this.speed[index] = speed;
+    this.directionX[index] = directionX;
+    this.directionY[index] = directionY;
+    entropyState[index] = entropySeed;
+    isOnFloor[index] = false;
+    hitCounts[index] = 0;
+    return index;
+  }
+
+  double getX(int index) {
+    return x[index];
+  }
+
+  double getY(int index) {
+    return y[index];
+  }
+
+  double getX(int index, double alpha) {
+    return previousX[index] + (x[index] - previousX[index]) * alpha;
+  }
+
+  double getY(int index, double alpha) {
+    return previousY[index] + (y[index] - previousY[index]) * alpha;
+  }
+
+  void savePreviousPosition(int index) {
+    previousX[index] = x[index];
+    previousY[index] = y[index];
+  }
+
+  double getRadius(int index) {
+    return radius[index];
+  }
+
+  double getSpeed(int index) {
+    return speed[index];
+  }
+
+  double getDirectionX(int index) {
+    return directionX[index];
+  }
+
+  double getDirectionY(int index) {
+    return directionY[index];
+  }
+
+  void setDirectionX(int index, double value) {
+    directionX[index] = value;
+  }
+
+  void setDirectionY(int index, double value) {
+    directionY[index] = value;
+  }
+
+  long getEntropyState(int index) {
+    return entropyState[index];
+  }
+
+  boolean isIntersectingFloor(int index) {
+    return y[index] + radius[index] >= GameConfig.HEIGHT;
+  }
+
+  boolean isIntersecting(int index, double minX, double minY, double maxX, double maxY) {
+    return x[index] + radius[index] >= minX && x[index] - radius[index] <= maxX
+        && y[index] + radius[index] >= minY && y[index] - radius[index] <= maxY;
+  }
+
+  // Phase one for a range of balls: only writes the balls' own entries
+  private void moveBalls(int from, int to, double elapsedTime, LevelModel level,
+      PaddleModel paddle, SweptCollision collision, List<BlockModel> nearbyBlocks) {
+    for (int i = from; i < to; i++) {
+      moveBall(i, elapsedTime, level, paddle, collision, nearbyBlocks);
+      // the paddle may have moved into the ball since last step
+      if (isIntersecting(i, paddle.getX(), paddle.getY(), paddle.getX() + paddle.getWidth(),
+          paddle.getY() + paddle.getHeight())) {
+        bounceOffPaddle(i, paddle);
+      }
+      isOnFloor[i] = isIntersectingFloor(i);
+    }
+  }
+
+  private void moveBall(int i, double elapsedTime, LevelModel level, PaddleModel paddle,
+      SweptCollision collision, List<BlockModel> nearbyBlocks) {
+    hitCounts[i] = 0;
+    double timeLeft = elapsedTime;
+    for (int bounce = 0; bounce < MAX_COLLISIONS_PER_STEP && timeLeft > 0; bounce++) {
+      double dx = directionX[i] * speed[i] * timeLeft;
+      double dy = directionY[i] * speed[i] * timeLeft;
+      collision.reset();
+      collision.sweepWalls(x[i], y[i], dx, dy, radius[i], GameConfig.WIDTH);
+      BlockModel hitBlock = sweepBlocks(i, level, dx, dy, collision, nearbyBlocks);
+      boolean hitPaddle = collision.sweepBox(x[i], y[i], dx, dy, radius[i], paddle.getX(),
+          paddle.getY(), paddle.getX() + paddle.getWidth(), paddle.getY() + paddle.getHeight());
+      if (!collision.hasHit()) {
+        x[i] += dx;
+        y[i] += dy;
+        break;
+      }
+      x[i] += dx * collision.getTime();
+      y[i] += dy * collision.getTime();
+      timeLeft *= 1 - collision.getTime();
+      if (hitPaddle) {
+        bounceOffPaddle(i, paddle);
+      } else if (hitBlock != null) {
+        hits[i * MAX_COLLISIONS_PER_STEP + hitCounts[i]++] = hitBlock;
+        bounceOnBlockHit(i, hitBlock, collision);
+      } else {
+        bounceOffWall(i, collision);
+      }
+    }
+    // Increase speed as time elapses to make game move quicker
+    speed[i] = Math.min(BALL_MAX_SPEED, speed[i] + BALL_SPEED_UP_CONSTANT);
+  }
+
+  private BlockModel sweepBlocks(int i, LevelModel level, double dx, double dy,
+      SweptCollision collision, List<BlockModel> nearbyBlocks) {
+    // only the blocks in the grid cells around the ball's path can be hit during this movement
+    BlockModel hitBlock = null;
+    double r = radius[i];
+    level.getBlocksNear(Math.min(x[i], x[i] + dx) - r, Math.min(y[i], y[i] + dy) - r,
+        Math.max(x[i], x[i] + dx) + r, Math.max(y[i], y[i] + dy) + r, nearbyBlocks);
+    for (BlockModel block : nearbyBlocks) {
+      // blocks stay in the level until the hits are applied, so don't hit one twice in a step
+      if (!hasHit(i, block) && collision.sweepBox(x[i], y[i], dx, dy, r, block.getX(),
+          block.getY(), block.getX() + block.getSize(), block.getY() + block.getSize())) {
+        hitBlock = block;
+      }
+    }
+    return hitBlock;
+  }
+
+  private boolean hasHit(int i, BlockModel block) {
+    for (int hit = 0; hit < hitCounts[i]; hit++) {
+      if (hits[i * MAX_COLLISIONS_PER_STEP + hit] == block) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private void bounceOffPaddle(int i, PaddleModel paddle) {
+    directionX[i] = paddle.getBounceDirectionX(x[i], directionX[i]);
+    // Prevent visual glitch by always sending in negative Y direction
+    directionY[i] = Math.abs(directionY[i]) * -1;
+  }
+
+  private void bounceOffWall(int i, SweptCollision collision) {
+    if (collision.isHorizontalBounce()) {
+      directionX[i] *= -1;
+    } else {
+      directionY[i] *= -1;
+    }
+    addEntropy(i);
+  }
+
+  private void bounceOnBlockHit(int i, BlockModel block, SweptCollision collision) {
+    // only update ball direction if a default block is hit and not any powerups
+    if (!block.getBlockType().isPowerUp() && collision.isHorizontalBounce()) {
+      directionX[i] *= -1;
+    }
+    if (!block.getBlockType().isPowerUp() && collision.isVerticalBounce()) {
+      directionY[i] *= -1;
+    }
+  }
+
+  /**
+   * Add entropy to the balls Y direction whenever called, to make ball have more interesting
+   * movement.
+   */
+  private void addEntropy(int i) {
+    // I asked ChatGPT for assistance in writing this code, which adds entropy to the balls movement, whenever called
+    double randomDeltaY =
+        nextEntropy(i) * BALL_COLLISION_ENTROPY_STRENGTH; // only add entropy to Y value
+    directionY[i] += randomDeltaY;
+  }
+
+  // The next double in [0, 1) from the ball's own SplitMix64 stream
+  private double nextEntropy(int i) {
+    entropyState[i] += 0x9E3779B97F4A7C15L;
+    return (GameRandom.getSeedHash(entropyState[i]) >>> 11) * 0x1.0p-53;
+  }
+
+  // Phase two for one ball: runs on the level's thread
+  private void applyHits(int i, LevelModel level) {
+    for (int hit = 0; hit < hitCounts[i]; hit++) {
+      BlockModel block = hits[i * MAX_COLLISIONS_PER_STEP + hit];
+      hits[i * MAX_COLLISIONS_PER_STEP + hit] = null;
+      if (block.getHealth() > 0) {  // an earlier hit may have destroyed it already
+        level.hitBlock(block);
+      }
+    }
+    hitCounts[i] = 0;
+  }
+
+  // Phase three: remove the balls on the floor, keeping the order of the rest
+  private int removeBallsOnFloor(SimulationListener listener) {
+    int kept = 0;
+    for (int i = 0; i < size; i++) {
+      BallModel ball = handles.get(i);
+      if (isOnFloor[i]) {
+        ball.detach(i);
+        removedBalls.add(ball);
+        continue;
+      }
+      if (kept != i) {
+        moveEntry(i, kept);
+        handles.set(kept, ball);
+        ball.setIndex(kept);
+      }
+      kept++;
+    }
+    int removed = size - kept;
+    if (removed == 0) {
+      return 0;
+    }
+    handles.subList(kept, size).clear();
+    size = kept;
+    // tell the listener in order, once the system is consistent again
+    if (listener != null) {
+      for (BallModel ball : removedBalls) {
+        listener.onBallRemoved(ball);
+      }
+    }
+    removedBalls.clear();
+    return removed;
+  }
+
+  private void moveEntry(int from, int to) {
+    x[to] = x[from];
+    y[to] = y[from];
+    previousX[to] = previousX[from];
+    previousY[to] = previousY[from];
+    directionX[to] = directionX[from];
+    directionY[to] = directionY[from];
+    speed[to] = speed[from];
+    radius[to] = radius[from];
+    entropyState[to] = entropyState[from];
+    isOnFloor[to] = false;
+  }
+
+  private void allocate(int capacity) {
+    x = new double[capacity];
+    y = new double[capacity];
+    previousX = new double[capacity];
+    previousY = new double[capacity];
+    directionX = new double[capacity];
+    directionY = new double[capacity];
+    speed = new double[capacity];
+    radius = new double[capacity];
+    entropyState = new long[capacity];
+    isOnFloor = new boolean[capacity];
+    hits = new BlockModel[capacity * MAX_COLLISIONS_PER_STEP];
+    hitCounts = new int[capacity];
+  }
+
+  private void grow() {
+    int capacity = x.length * 2;
+    x = Arrays.copyOf(x, capacity);
+    y = Arrays.copyOf(y, capacity);
+    previousX = Arrays.copyOf(previousX, capacity);
+    previousY = Arrays.copyOf(previousY, capacity);
+    directionX = Arrays.copyOf(directionX, capacity);
+    directionY = Arrays.copyOf(directionY, capacity);
+    speed = Arrays.copyOf(speed, capacity);
+    radius = Arrays.copyOf(radius, capacity);
+    entropyState = Arrays.copyOf(entropyState, capacity);
+    isOnFloor = Arrays.copyOf(isOnFloor, capacity);
+    hits = Arrays.copyOf(hits, capacity * MAX_COLLISIONS_PER_STEP);
+    hitCounts = Arrays.copyOf(hitCounts, capacity);
+  }
+
+  /**
+   * Moves the balls in [from, to), splitting the range in half until it is small enough to move on
+   * one thread
+   */
+  private class MoveTask extends RecursiveAction {
+
+    private final int from;
+    private final int to;
+    private final double elapsedTime;
+    private final LevelModel level;
+    private final PaddleModel paddle;
+
+    private MoveTask(int from, int to, double elapsedTime, LevelModel level, PaddleModel paddle) {
+      this.from = from;
+      this.to = to;
+      this.elapsedTime = elapsedTime;
+      this.level = level;
+      this.paddle = paddle;
+    }
+
+    @Override
+    protected void compute() {
+      if (to - from <= BALLS_PER_TASK) {
+        moveBalls(from, to, elapsedTime, level, paddle, new SweptCollision(), new ArrayList<>());
+        return;
+      }
+      int middle = (from + to) >>> 1;
+      invokeAll(new MoveTask(from, middle, elapsedTime, level, paddle),
+          new MoveTask(middle, to, elapsedTime, level, paddle));
+    }
+  }
+
+}
@@ -0,0 +1,193 @@
+package breakout;
+
+import java.util.SplittableRandom;
+
+/**
+ * Plays one complete game of a level in a headless GameSimulation, without a window or a player.
+ * The shooter is aimed by an AimPolicy and the paddle is moved by a PaddlePolicy, and the game
+ * follows the same flow as the GameManager: a life is started whenever the player is ready to
+ * shoot, gravity levels drop one row before every life after the first, and the game ends when the
+ * level is cleared, the player runs out of lives or balls, or the blocks reach the bottom.
+ *
+ * @author Owen Jennings
+ */
+public class BatchGame {
+
+  /**
+   * How the shooter is aimed at the start of each life
+   */
+  public enum AimPolicy {
+    CENTER, // always straight up
+    SWEEP, // move across the shooter's range from right to left, one step each life
+    RANDOM // a random angle in the shooter's range
+  }
+
+  /**
+   * How the paddle is moved while balls are in play
+   */
+  public enum PaddlePolicy {
+    NONE, // never move the paddle
+    TRACK // move towards the lowest ball that is falling
+  }
+
+  /**
+   * How a game ended
+   */
+  public enum Outcome {
+    CLEARED, OUT_OF_LIVES_OR_BALLS, BLOCKS_REACHED_BOTTOM
+  }
+
+  public static final int MAX_STEPS_PER_LIFE = GameConfig.FRAMES_PER_SECOND * 60 * 5;
+  public static final int SWEEP_STEPS = 9;
+  public static final double PADDLE_TRACKING_DEAD_ZONE = 20;
+  private final GameSimulation simulation;
+  private final AimPolicy aimPolicy;
+  private final PaddlePolicy paddlePolicy;
+  private final SplittableRandom random;
+  private long steps = 0;
+  private int shotsUsed = 0;
+  private int timedOutLives = 0;
+
+  /**
+   * Create a game that has not been played yet
+   *
+   * @param aimPolicy:    how the shooter is aimed
+   * @param paddlePolicy: how the paddle is moved
+   * @param seed:         the seed for the random aim policy and the game's own randomness
+   */
+  public BatchGame(AimPolicy aimPolicy, PaddlePolicy paddlePolicy, long seed) {
+    this.aimPolicy = aimPolicy;
+    this.paddlePolicy = paddlePolicy;
+    this.random = new SplittableRandom(seed);
+    this.simulation = new GameSimulation(seed);
+    simulation.setPreparesNextLevel(false); // only one level is played
+  }
+
+  /**
+   * Play the level until the game ends. A life that lasts longer than MAX_STEPS_PER_LIFE (a ball
+   * stuck bouncing between blocks, for example) has its balls cleared, like the S cheat key. Levels
+   * after the level files are generated from the game's seed, like in endless mode.
+   *
+   * @param levelNumber: the level to play
+   * @return how the game ended
+   * @throws Exception: any exceptions thrown while opening or loading the level's text file
+   */
+  public Outcome play(int levelNumber) throws Exception {
+    if (!simulation.getLevelSource().hasLevel(levelNumber)) {
+      simulation.setLevelSource(new EndlessLevels(simulation.getLevelSource(),
+          simulation.getRandom().getEndlessSeed()));
+    }
+    simulation.startLevel(levelNumber);
+    boolean isFirstRound = true;
+    int lifeSteps = 0;
+    while (true) {
+      if (simulation.getLevel().isComplete()) {
+        simulation.getScoreManager().incrementScore(GameConfig.LEVEL_COMPLETE_SCORE);
+        return Outcome.CLEARED;
+      }
+      if (simulation.isOutOfLivesOrBalls()) {
+        return Outcome.OUT_OF_LIVES_OR_BALLS;
+      }
+      if (simulation.isReadyToShoot()) {
+        if (!isFirstRound && !simulation.attemptLevelDrop()) {
+          return Outcome.BLOCKS_REACHED_BOTTOM;
+        }
+        isFirstRound = false;
+        simulation.shoot(getAimAngle());  // launches balls on the simulation's own timer
+        shotsUsed++;
+        lifeSteps = 0;
+      }
+      if (lifeSteps >= MAX_STEPS_PER_LIFE) {
+        simulation.removeAllBallsFromPlay();
+        timedOutLives++;
+        continue;
+      }
+      simulation.step(GameConfig.SECOND_DELAY, getPaddleInput());
+      steps++;
+      lifeSteps++;
+    }
+  }
+
+  /**
+   * Get the simulation the game was played in
+   *
+   * @return the game's simulation
+   */
+  public GameSimulation getSimulation() {
+    return simulation;
+  }
+
+  /**
+   * Get the number of simulation steps the game took
+   *
+   * @return the number of steps
+   */
+  public long getSteps() {
+    return steps;
+  }
+
+  /**
+   * Get the number of lives the player started by using the shooter
+   *
+   * @return the number of shots
+   */
+  public int getShotsUsed() {
+    return shotsUsed;
+  }
+
+  /**
+   * Get the number of lives that were cut short after MAX_STEPS_PER_LIFE
+   *
+   * @return the number of timed out lives
+   */
+  public int getTimedOutLives() {
+    return timedOutLives;
+  }
+
+  /**
+   * Get the input that moves the paddle towards the lowest ball that is falling, which is how the
+   * TRACK paddle policy plays
+   *
+   * @param simulation: the simulation whose paddle is moved
+   * @return the input flags for the next step
+   */
+  public static int getTrackingInput(GameSimulation simulation) {
+    BallModel lowestFallingBall = null;
+    for (BallModel ball : simulation.getBalls()) {
+      if (ball.getDirectionY() > 0 && (lowestFallingBall == null
+          || ball.getY() > lowestFallingBall.getY())) {
+        lowestFallingBall = ball;
+      }
+    }
+    if (lowestFallingBall == null) {
+      return 0;
+    }
+    PaddleModel paddle = simulation.getPaddle();
+    double paddleCenter = paddle.getX() + paddle.getWidth() / 2;
+    if (lowestFallingBall.getX() < paddleCenter - PADDLE_TRACKING_DEAD_ZONE) {
+      return GameSimulation.MOVE_LEFT;
+    }
+    if (lowestFallingBall.getX() > paddleCenter + PADDLE_TRACKING_DEAD_ZONE) {
+      return GameSimulation.MOVE_RIGHT;
+    }
+    return 0;
+  }
+
+  private double getAimAngle() {
+    double range = GameSimulation.MAX_LAUNCH_ANGLE - GameSimulation.MIN_LAUNCH_ANGLE;
+    return switch (aimPolicy) {
+      case CENTER -> Math.PI / 2;
+      case SWEEP -> GameSimulation.MIN_LAUNCH_ANGLE
+          + range * (shotsUsed % SWEEP_STEPS) / (SWEEP_STEPS - 1);
+      case RANDOM -> GameSimulation.MIN_LAUNCH_ANGLE + range * random.nextDouble();
+    };
+  }
+
+  private int getPaddleInput() {
+    if (paddlePolicy == PaddlePolicy.NONE) {
+      return 0;
+    }
+    return getTrackingInput(simulation);
+  }
+
+}
@@ -0,0 +1,155 @@
+package breakout;
+
+/**
+ * The combined results of a batch of simulated games. Results from games played on different
+ * threads are collected separately and then merged.
+ *
+ * @author Owen Jennings
+ */
+public class BatchResult {
+
+  private int games = 0;
+  private int cleared = 0;
+  private int outOfLivesOrBalls = 0;
+  private int blocksReachedBottom = 0;
+  private long totalShots = 0;
+  private long totalScore = 0;
+  private long totalSteps = 0;
+  private long timedOutLives = 0;
+  private int minScore = Integer.MAX_VALUE;
+  private int maxScore = Integer.MIN_VALUE;
+
+  /**
+   * Add the result of a finished game
+   *
+   * @param game:    the game that was played
+   * @param outcome: how the game ended
+   */
+  public void add(BatchGame game, BatchGame.Outcome outcome) {
+    games++;
+    switch (outcome) {
+      case CLEARED -> cleared++;
+      case OUT_OF_LIVES_OR_BALLS -> outOfLivesOrBalls++;
+      case BLOCKS_REACHED_BOTTOM -> blocksReachedBottom++;
+    }
+    int score = game.getSimulation().getScoreManager().getScore();
+    totalShots += game.getShotsUsed();
+    totalScore += score;
+    totalSteps += game.getSteps();
+    timedOutLives += game.getTimedOutLives();
+    minScore = Math.min(minScore, score);
+    maxScore = Math.max(maxScore, score);
+  }
+
+  /**
+   * Add all the games of another result to this one
+   *
+   * @param other: the result to merge into this one
+   * @return this result
+   */
+  public BatchResult merge(BatchResult other) {
+    games += other.games;
+    cleared += other.cleared;
+    outOfLivesOrBalls += other.outOfLivesOrBalls;
+    blocksReachedBottom += other.blocksReachedBottom;
+    totalShots += other.totalShots;
+    totalScore += other.totalScore;
+    totalSteps += other.totalSteps;
+    timedOutLives += other.timedOutLives;
+    minScore = Math.min(minScore, other.minScore);
+    maxScore = Math.max(maxScore, other.maxScore);
+    return this;
+  }
+
+  /**
+   * Get the number of games played
+   *
+   * @return the game count
+   */
+  public int getGames() {
+    return games;
+  }
+
+  /**
+   * Get the fraction of games where the level was cleared
+   *
+   * @return the clear rate, between 0 and 1
+   */
+  public double getClearRate() {
+    return rate(cleared);
+  }
+
+  /**
+   * Get the fraction of games that were lost by running out of lives or balls
+   *
+   * @return the loss rate, between 0 and 1
+   */
+  public double getOutOfLivesOrBallsRate() {
+    return rate(outOfLivesOrBalls);
+  }
+
+  /**
+   * Get the fraction of games that were lost because the blocks dropped to the bottom of the level
+   *
+   * @return the drop loss rate, between 0 and 1
+   */
+  public double getDropLossRate() {
+    return rate(blocksReachedBottom);
+  }
+
+  /**
+   * Get the average number of shots (lives started) per game
+   *
+   * @return the average shots used
+   */
+  public double getAverageShots() {
+    return average(totalShots);
+  }
+
+  /**
+   * Get the average final score per game
+   *
+   * @return the average score
+   */
+  public double getAverageScore() {
+    return average(totalScore);
+  }
+
+  /**
+   * Get the average game length, in seconds of game time
+   *
+   * @return the average game time
+   */
+  public double getAverageGameSeconds() {
+    return average(totalSteps) * GameConfig.SECOND_DELAY;
+  }
+
+  /**
+   * Get a report of the results that can be printed
+   *
+   * @return a multi-line summary of the results
+   */
+  public String getReport() {
+    return String.format("""
+            Games played:           %d
+            Clear rate:             %.1f%%
+            Out of lives/balls:     %.1f%%
+            Drop loss rate:         %.1f%%
+            Average shots used:     %.2f
+            Average final score:    %.1f (min %d, max %d)
+            Average game time:      %.1f s
+            Timed out lives:        %d""",
+        games, getClearRate() * 100, getOutOfLivesOrBallsRate() * 100, getDropLossRate() * 100,
+        getAverageShots(), getAverageScore(), games > 0 ? minScore : 0, games > 0 ? maxScore : 0,
+        getAverageGameSeconds(), timedOutLives);
+  }
+
+  private double rate(int count) {
+    return games == 0 ? 0 : (double) count / games;
+  }
+
+  private double average(long total) {
+    return games == 0 ? 0 : (double) total / games;
+  }
+
+}
@@ -0,0 +1,131 @@
+package breakout;
+
+import java.util.Locale;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * A command line tool for balancing levels. Simulates many complete games of one level with scripted
+ * shooter aims and paddle movement, spread over all the CPU cores with a fork-join pool, and prints
+ * the clear rate, shots used, final score and the rate of games lost to dropping blocks. Games are
+ * played in headless GameSimulations, so no window is created. Levels after the level files are
+ * generated from each game's seed, as in endless mode, so their results cover many layouts.
+ * <p>
+ * Usage: BatchSimulator [--level N] [--games N] [--aim center|sweep|random]
+ * [--paddle none|track] [--seed N] [--threads N]
+ *
+ * @author Owen Jennings
+ */
+public class BatchSimulator {
+
+  public static final int GAMES_PER_TASK = 8; // play this many games on a thread before splitting
+  private final int levelNumber;
+  private final BatchGame.AimPolicy aimPolicy;
+  private final BatchGame.PaddlePolicy paddlePolicy;
+  private final long seed;
+
+  /**
+   * Create a batch simulator for a level
+   *
+   * @param levelNumber:  the level to play
+   * @param aimPolicy:    how the shooter is aimed in every game
+   * @param paddlePolicy: how the paddle is moved in every game
+   * @param seed:         the seed for the games. Game i uses seed + i, so a batch can be repeated
+   *                      and plays out exactly the same
+   */
+  public BatchSimulator(int levelNumber, BatchGame.AimPolicy aimPolicy,
+      BatchGame.PaddlePolicy paddlePolicy, long seed) {
+    this.levelNumber = levelNumber;
+    this.aimPolicy = aimPolicy;
+    this.paddlePolicy = paddlePolicy;
+    this.seed = seed;
+  }
+
+  /**
+   * Play a batch of games
+   *
+   * @param games: the number of games to play
+   * @param pool:  the pool to play the games on
+   * @return the combined results of all the games
+   */
+  public BatchResult run(int games, ForkJoinPool pool) {
+    return pool.invoke(new GamesTask(0, games));
+  }
+
+  /**
+   * Parse the command line options, play the batch and print the results
+   */
+  public static void main(String[] args) {
+    int levelNumber = 1;
+    int games = 1000;
+    BatchGame.AimPolicy aimPolicy = BatchGame.AimPolicy.RANDOM;
+    BatchGame.PaddlePolicy paddlePolicy = BatchGame.PaddlePolicy.TRACK;
+    long seed = 0;
+    int threads = Runtime.getRuntime().availableProcessors();
+    for (int i = 0; i + 1 < args.length; i += 2) {
+      String value = args[i + 1];
+      switch (args[i]) {
+        case "--level" -> levelNumber = Integer.parseInt(value);
+        case "--games" -> games = Integer.parseInt(value);
+        case "--aim" -> aimPolicy = BatchGame.AimPolicy.valueOf(value.toUpperCase(Locale.ROOT));
+        case "--paddle" ->
+            paddlePolicy = BatchGame.PaddlePolicy.valueOf(value.toUpperCase(Locale.ROOT));
+        case "--seed" -> seed = Long.parseLong(value);
+        case "--threads" -> threads = Integer.parseInt(value);
+        default -> throw new IllegalArgumentException("Unknown option: " + args[i]);
+      }
+    }
+    BatchSimulator simulator = new BatchSimulator(levelNumber, aimPolicy, paddlePolicy, seed);
+    long startTime = System.nanoTime();
+    BatchResult result;
+    try (ForkJoinPool pool = new ForkJoinPool(threads)) {
+      result = simulator.run(games, pool);
+    }
+    double seconds = (System.nanoTime() - startTime) / GameLoop.NANOSECONDS_PER_SECOND;
+    System.out.printf("Level %d, aim: %s, paddle: %s, %d threads%n", levelNumber, aimPolicy,
+        paddlePolicy, threads);
+    System.out.println(result.getReport());
+    System.out.printf("Simulated in %.2f s (%.0f games/s)%n", seconds, games / seconds);
+  }
+
+  private BatchResult playGames(int fromGame, int toGame) {
+    BatchResult result = new BatchResult();
+    for (int i = fromGame; i < toGame; i++) {
+      BatchGame game = new BatchGame(aimPolicy, paddlePolicy, seed + i);
+      try {
+        result.add(game, game.play(levelNumber));
+      } catch (Exception e) {
+        throw new RuntimeException(e);
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Plays the games in [fromGame, toGame), splitting the range in half until it is small enough to
+   * play on one thread
+   */
+  private class GamesTask extends RecursiveTask<BatchResult> {
+
+    private final int fromGame;
+    private final int toGame;
+
+    private GamesTask(int fromGame, int toGame) {
+      this.fromGame = fromGame;
+      this.toGame = toGame;
+    }
+
+    @Override
+    protected BatchResult compute() {
+      if (toGame - fromGame <= GAMES_PER_TASK) {
+        return playGames(fromGame, toGame);
+      }
+      int middle = (fromGame + toGame) >>> 1;
+      GamesTask left = new GamesTask(fromGame, middle);
+      left.fork();
+      BatchResult right = new GamesTask(middle, toGame).compute();
+      return left.join().merge(right);
+    }
+  }
+
+}
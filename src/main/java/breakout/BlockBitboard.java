@@ -0,0 +1,169 @@
+package breakout;
+
+import java.util.Arrays;
+
+/**
+ * The occupied cells of a level's block grid, stored as one bit per cell in a few longs. Cell
+ * (row, column) is bit row * columns + column, so moving every block down one row is a single
+ * shift, and questions like "is any block in these rows" are a mask test instead of a loop over
+ * blocks. Equal bitboards have equal hash codes, so a bitboard can be used as a compact key for a
+ * level's layout.
+ *
+ * @author Owen Jennings
+ */
+public class BlockBitboard {
+
+  private final int ROWS;
+  private final int COLUMNS;
+  private final long[] words;
+
+  /**
+   * Create an empty bitboard
+   *
+   * @param rows:    the number of rows in the grid
+   * @param columns: the number of columns in the grid. Must be less than 64, so that a row shift
+   *                 never moves a bit past the next word
+   */
+  public BlockBitboard(int rows, int columns) {
+    ROWS = rows;
+    COLUMNS = columns;
+    words = new long[(rows * columns + Long.SIZE - 1) / Long.SIZE];
+  }
+
+  /**
+   * Create a bitboard with every cell in the provided rows set
+   *
+   * @param rows:    the number of rows in the grid
+   * @param columns: the number of columns in the grid
+   * @param fromRow: the first row to fill
+   * @param toRow:   the last row to fill (inclusive)
+   * @return the filled bitboard
+   */
+  public static BlockBitboard ofRows(int rows, int columns, int fromRow, int toRow) {
+    BlockBitboard bitboard = new BlockBitboard(rows, columns);
+    for (int row = Math.max(0, fromRow); row <= Math.min(rows - 1, toRow); row++) {
+      for (int column = 0; column < columns; column++) {
+        bitboard.set(row, column);
+      }
+    }
+    return bitboard;
+  }
+
+  /**
+   * Mark a cell as occupied
+   *
+   * @param row:    the cell's row
+   * @param column: the cell's column
+   */
+  public void set(int row, int column) {
+    int bit = row * COLUMNS + column;
+    words[bit / Long.SIZE] |= 1L << bit;
+  }
+
+  /**
+   * Mark a cell as empty
+   *
+   * @param row:    the cell's row
+   * @param column: the cell's column
+   */
+  public void clear(int row, int column) {
+    int bit = row * COLUMNS + column;
+    words[bit / Long.SIZE] &= ~(1L << bit);
+  }
+
+  /**
+   * Check if a cell is occupied
+   *
+   * @param row:    the cell's row
+   * @param column: the cell's column
+   * @return true if the cell is set
+   */
+  public boolean get(int row, int column) {
+    int bit = row * COLUMNS + column;
+    return (words[bit / Long.SIZE] & (1L << bit)) != 0;
+  }
+
+  /**
+   * Mark every cell as empty
+   */
+  public void clearAll() {
+    Arrays.fill(words, 0);
+  }
+
+  /**
+   * Check if no cells are occupied
+   *
+   * @return true if the bitboard is empty
+   */
+  public boolean isEmpty() {
+    for (long word : words) {
+      if (word != 0) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Get the number of occupied cells
+   *
+   * @return the number of set cells
+   */
+  public int count() {
+    int count = 0;
+    for (long word : words) {
+      count += Long.bitCount(word);
+    }
+    return count;
+  }
+
+  /**
+   * Check if any cell is occupied in both this and another bitboard of the same size
+   *
+   * @param mask: the other bitboard
+   * @return true if the bitboards share an occupied cell
+   */
+  public boolean intersects(BlockBitboard mask) {
+    for (int i = 0; i < words.length; i++) {
+      if ((words[i] & mask.words[i]) != 0) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Move every occupied cell down one row. Cells in the last row are dropped.
+   */
+  public void shiftDownOneRow() {
+    for (int i = words.length - 1; i > 0; i--) {
+      words[i] = (words[i] << COLUMNS) | (words[i - 1] >>> (Long.SIZE - COLUMNS));
+    }
+    words[0] <<= COLUMNS;
+    int unusedBits = words.length * Long.SIZE - ROWS * COLUMNS;
+    words[words.length - 1] &= -1L >>> unusedBits;  // drop the cells shifted past the last row
+  }
+
+  /**
+   * Create a copy of this bitboard
+   *
+   * @return a new bitboard with the same occupied cells
+   */
+  public BlockBitboard copy() {
+    BlockBitboard copy = new BlockBitboard(ROWS, COLUMNS);
+    System.arraycopy(words, 0, copy.words, 0, words.length);
+    return copy;
+  }
+
+  @Override
+  public boolean equals(Object other) {
+    return other instanceof BlockBitboard bitboard && ROWS == bitboard.ROWS
+        && COLUMNS == bitboard.COLUMNS && Arrays.equals(words, bitboard.words);
+  }
+
+  @Override
+  public int hashCode() {
+    return Arrays.hashCode(words);
+  }
+
+}
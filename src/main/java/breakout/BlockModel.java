@@ -0,0 +1,110 @@
+package breakout;
+
+/**
+ * The plain data for a single block: its position, size, type and health. Does not depend on
+ * JavaFX, so that levels can be simulated without a scene; the Block class is the view that draws
+ * one of these.
+ *
+ * @author Owen Jennings
+ */
+public class BlockModel {
+
+  private final BlockType BLOCK_TYPE;
+  private final int INITIAL_HEALTH;
+  private final double SIZE;
+  private final double x;
+  private double y;
+  private int health;
+
+  /**
+   * Create the data for a new block
+   *
+   * @param x:      The blocks x coordinate location
+   * @param y:      The blocks y coordinate location
+   * @param type:   The block type. For example: a normal block would have type BlockType.DEFAULT
+   * @param size:   The size (width and height) of a block. All blocks are represented as size X
+   *                size.
+   * @param health: The blocks health or number of hit-points
+   */
+  public BlockModel(double x, double y, BlockType type, double size, int health) {
+    this.x = x;
+    this.y = y;
+    BLOCK_TYPE = type;
+    SIZE = size;
+    INITIAL_HEALTH = health;
+    this.health = health;
+  }
+
+  /**
+   * Get the current block type
+   *
+   * @return The block type (i.e. DEFAULT, MYSTERY, ADD_BALL)
+   */
+  public BlockType getBlockType() {
+    return BLOCK_TYPE;
+  }
+
+  /**
+   * Get the current block health
+   *
+   * @return returns the number of hits remaining for a given block
+   */
+  public int getHealth() {
+    return health;
+  }
+
+  /**
+   * Change the current block's health
+   *
+   * @param health: The new health of the block
+   */
+  public void setHealth(int health) {
+    this.health = health;
+  }
+
+  /**
+   * Get the health the block was created with
+   *
+   * @return the block's starting number of hit-points
+   */
+  public int getInitialHealth() {
+    return INITIAL_HEALTH;
+  }
+
+  /**
+   * Get the x coordinate of the block's left edge
+   *
+   * @return the block's x coordinate
+   */
+  public double getX() {
+    return x;
+  }
+
+  /**
+   * Get the y coordinate of the block's top edge
+   *
+   * @return the block's y coordinate
+   */
+  public double getY() {
+    return y;
+  }
+
+  /**
+   * Get the size (width and height) of the block
+   *
+   * @return the block's size
+   */
+  public double getSize() {
+    return SIZE;
+  }
+
+  /**
+   * Move the block down by the provided amount
+   *
+   * @param amount: the distance to move the block down
+   */
+  public void moveDown(double amount) {
+    y += amount;
+  }
+
+}
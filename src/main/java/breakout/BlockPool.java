@@ -0,0 +1,105 @@
+package breakout;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * A pool of Block nodes that are reused between levels. Starting a level, switching levels with the
+ * number keys, or restarting the game would otherwise throw away every block node and build new
+ * ones. Instead, blocks that leave the screen are returned to the pool and reset to draw the next
+ * level's blocks. The pool holds at most a fixed number of idle blocks, so blocks released beyond
+ * that are left for the garbage collector.
+ *
+ * @author Owen Jennings
+ */
+public class BlockPool {
+
+  // Enough for a level with a block in every cell
+  public static final int DEFAULT_CAPACITY = LevelData.ROWS * LevelData.COLUMNS;
+  private final int CAPACITY;
+  private final Deque<Block> idleBlocks = new ArrayDeque<>();
+  private long hits = 0;
+  private long misses = 0;
+
+  /**
+   * Create an empty block pool that holds up to DEFAULT_CAPACITY idle blocks
+   */
+  public BlockPool() {
+    this(DEFAULT_CAPACITY);
+  }
+
+  /**
+   * Create an empty block pool
+   *
+   * @param capacity: The largest number of idle blocks the pool keeps for reuse
+   */
+  public BlockPool(int capacity) {
+    CAPACITY = capacity;
+  }
+
+  /**
+   * Get a block that draws the provided block data, reusing an idle block if there is one
+   *
+   * @param model: The block data to draw
+   * @return a block node for the block data
+   */
+  public Block acquire(BlockModel model) {
+    Block block = idleBlocks.pollFirst();
+    if (block == null) {
+      misses++;
+      return new Block(model);
+    }
+    hits++;
+    block.reset(model);
+    return block;
+  }
+
+  /**
+   * Return a block that is no longer displayed to the pool. The block must already have been
+   * removed from its parent.
+   *
+   * @param block: The block to return
+   */
+  public void release(Block block) {
+    if (idleBlocks.size() < CAPACITY) {
+      idleBlocks.addFirst(block);
+    }
+  }
+
+  /**
+   * Get the number of idle blocks waiting to be reused
+   *
+   * @return the number of idle blocks
+   */
+  public int getIdleCount() {
+    return idleBlocks.size();
+  }
+
+  /**
+   * Get the largest number of idle blocks the pool keeps
+   *
+   * @return the pool's capacity
+   */
+  public int getCapacity() {
+    return CAPACITY;
+  }
+
+  /**
+   * Get the number of blocks that were reused instead of created
+   *
+   * @return the number of pool hits
+   */
+  public long getHits() {
+    return hits;
+  }
+
+  /**
+   * Get the number of blocks that had to be created because the pool was empty
+   *
+   * @return the number of pool misses
+   */
+  public long getMisses() {
+    return misses;
+  }
+
+}
@@ -0,0 +1,68 @@
+package breakout;
+
+/**
+ * The kinds of block that can be placed in a level. Default blocks are the level's numbered blocks,
+ * which must all be destroyed to complete it. Every other kind is a power up (or a mystery block,
+ * which gives a random power up) that is placed randomly in a level's empty cells.
+ *
+ * @author Owen Jennings
+ */
+public enum BlockType {
+  DEFAULT("", ""),
+  ADD_BALL("+1 Ball!", "plus.png"),
+  SUBTRACT_BALL("-1 Ball!", "minus.png"),
+  SCORE_MULTIPLIER("x2 Score!", "star.png"),
+  BLOCK_DESTROYER("Boom!", "tnt.png"),
+  MYSTERY("", "mystery.png");
+
+  // The power ups that a mystery block can give, and that can be placed in a level's empty cells
+  public static final BlockType[] POWER_UPS = {ADD_BALL, SUBTRACT_BALL, SCORE_MULTIPLIER,
+      BLOCK_DESTROYER};
+
+  private final String displayText;
+  private final String imageFile;
+
+  BlockType(String displayText, String imageFile) {
+    this.displayText = displayText;
+    this.imageFile = imageFile;
+  }
+
+  /**
+   * Check if this is a power up (or mystery) block, rather than a default block
+   *
+   * @return true for every kind except DEFAULT
+   */
+  public boolean isPowerUp() {
+    return this != DEFAULT;
+  }
+
+  /**
+   * Get the points given for hitting a block of this kind
+   *
+   * @return the score for one hit, before the score multiplier
+   */
+  public int getScore() {
+    return isPowerUp() ? GameConfig.POWERUP_SCORE : GameConfig.BLOCK_SCORE;
+  }
+
+  /**
+   * Get the text displayed when a mystery block gives this power up
+   *
+   * @return the display text, or an empty string if this is not one of the POWER_UPS
+   */
+  public String getDisplayText() {
+    return displayText;
+  }
+
+  /**
+   * Get the name of the image file, in the images resource directory, that a block of this kind is
+   * drawn with
+   *
+   * @return the image file name, or an empty string for default blocks, which are not drawn with an
+   * image
+   */
+  public String getImageFile() {
+    return imageFile;
+  }
+
+}
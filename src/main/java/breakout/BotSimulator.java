@@ -0,0 +1,85 @@
+package breakout;
+
+import java.nio.file.Path;
+
+/**
+ * A command line tool that lets the AutoAimBot play complete games headless, as a regression
+ * play-through. The game is not stepped while the bot searches for its next shot, so a search
+ * always gets its whole time budget. Prints the level reached, the score, the number of shots and
+ * how many rollouts the searches played. A game can be recorded and checked later with the
+ * ReplaySimulator.
+ * <p>
+ * Usage: BotSimulator [--games N] [--seed N] [--search-time SECONDS] [--samples N]
+ * [--max-minutes N] [--record FILE]
+ *
+ * @author Owen Jennings
+ */
+public class BotSimulator {
+
+  /**
+   * Parse the command line options, play the games and print the results
+   */
+  public static void main(String[] args) throws Exception {
+    int games = 1;
+    long seed = GameRandom.createSeed();
+    double searchTime = AutoAimBot.DEFAULT_SEARCH_TIME;
+    int samples = AutoAimBot.DEFAULT_SAMPLES_PER_ANGLE;
+    double maxMinutes = 30;
+    Path recordPath = null;
+    for (int i = 0; i + 1 < args.length; i += 2) {
+      String value = args[i + 1];
+      switch (args[i]) {
+        case "--games" -> games = Integer.parseInt(value);
+        case "--seed" -> seed = Long.parseLong(value);
+        case "--search-time" -> searchTime = Double.parseDouble(value);
+        case "--samples" -> samples = Integer.parseInt(value);
+        case "--max-minutes" -> maxMinutes = Double.parseDouble(value);
+        case "--record" -> recordPath = Path.of(value);
+        default -> throw new IllegalArgumentException("Unknown option: " + args[i]);
+      }
+    }
+    System.out.printf("Bot search: %.2f s and %d rollouts per angle on %d threads%n", searchTime,
+        samples, AutoAimBot.SEARCH_THREAD_COUNT);
+    long maxSteps = (long) (maxMinutes * 60 * GameConfig.FRAMES_PER_SECOND);
+    for (int i = 0; i < games; i++) {
+      // only the first game is recorded, so every game can be given the same file
+      Path gameRecordPath = (i == 0) ? recordPath : null;
+      playGame(seed + i, searchTime, samples, maxSteps, gameRecordPath);
+    }
+  }
+
+  private static void playGame(long seed, double searchTime, int samples, long maxSteps,
+      Path recordPath) throws Exception {
+    GameSession session = new GameSession(seed);
+    AutoAimBot bot = new AutoAimBot(session, searchTime, samples);
+    InputRecorder recorder = null;
+    if (recordPath != null) {
+      recorder = new InputRecorder(recordPath, seed);
+      session.setRecorder(recorder);
+    }
+    long startTime = System.nanoTime();
+    int shots = 0;
+    long rollouts = 0;
+    boolean hasStarted = false;
+    while (session.getTick() < maxSteps && !(hasStarted && !session.isPlaying())) {
+      int input = bot.step();
+      if (bot.isSearching()) {
+        bot.awaitSearch();
+        input = bot.step();
+        shots++;
+        rollouts += bot.getLastRolloutCount();
+      }
+      session.step(input);
+      hasStarted |= session.isPlaying();
+    }
+    if (recorder != null) {
+      recorder.finish(session.getTick());
+    }
+    ScoreManager scoreManager = session.getSimulation().getScoreManager();
+    double seconds = (System.nanoTime() - startTime) / GameLoop.NANOSECONDS_PER_SECOND;
+    System.out.printf("Seed %d: level %d, score %d, %d shots, %d steps, %d rollouts in %.2f s%n",
+        seed, session.getCurrentLevelNumber(), scoreManager.getScore(), shots, session.getTick(),
+        rollouts, seconds);
+  }
+
+}
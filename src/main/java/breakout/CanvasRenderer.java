@@ -0,0 +1,198 @@
+package breakout;
+
+import static breakout.GameConfig.HEIGHT;
+import static breakout.GameConfig.WIDTH;
+import static breakout.GameSimulation.LAUNCH_X;
+import static breakout.GameSimulation.LAUNCH_Y;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import javafx.geometry.Rectangle2D;
+import javafx.geometry.VPos;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.text.Font;
+import javafx.scene.text.TextAlignment;
+
+/**
+ * Renders the game into a single Canvas, drawing the level, balls, paddle and shooter straight from
+ * the simulation's state in one pass per frame. Unlike the NodeRenderer, no nodes are created per
+ * block or ball, so the scene graph only has one node to sync and lay out each pulse. This is much
+ * cheaper on machines that use the software rendering pipeline.
+ *
+ * @author Owen Jennings
+ */
+public class CanvasRenderer implements GameRenderer {
+
+  private static final Font boldFont = GameAssets.getInstance().getFont(GameAssets.BOLD_FONT);
+  public static final double BLOCK_BORDER_WIDTH = 2;
+  private final GameManager gameManager;
+  private final GameSimulation simulation;
+  private final Shooter shooter;
+  private final Canvas canvas = new Canvas(WIDTH, HEIGHT);
+  private final GraphicsContext graphics = canvas.getGraphicsContext2D();
+  private final Font healthFont = Font.font(boldFont.getFamily(), GameConfig.BLOCK_SIZE / 6.0);
+  private final Font mysteryFont = Font.font(boldFont.getFamily(), GameConfig.BLOCK_SIZE / 10.0);
+  private final List<MysteryText> mysteryTexts = new ArrayList<>();
+
+  /**
+   * Create a canvas renderer. The canvas is not added to the screen until showGameElements() is
+   * called.
+   *
+   * @param gameManager: the game manager, whose root the canvas is added to
+   * @param shooter:     the shooter, whose aim is drawn while it is enabled
+   */
+  public CanvasRenderer(GameManager gameManager, Shooter shooter) {
+    this.gameManager = gameManager;
+    this.simulation = gameManager.getSimulation();
+    this.shooter = shooter;
+    graphics.setTextAlign(TextAlignment.CENTER);
+    graphics.setTextBaseline(VPos.CENTER);
+  }
+
+  @Override
+  public void showGameElements() {
+    gameManager.addChildToGameRoot(canvas);
+    render(1);
+  }
+
+  @Override
+  public void hideGameElements() {
+    gameManager.removeChildFromGameRoot(canvas);
+    mysteryTexts.clear();
+  }
+
+  @Override
+  public void render(double alpha) {
+    graphics.clearRect(0, 0, WIDTH, HEIGHT);
+    drawBlocks();
+    drawMysteryTexts();
+    drawShooter();
+    drawBalls(alpha);
+    drawPaddle(alpha);
+  }
+
+  // Also called when a rewind snapshot is restored, whose timer wheel tick can be earlier than the
+  // texts' remove ticks, so the texts are cleared as the node renderer's level view does
+  @Override
+  public void onLevelStarted() {
+    mysteryTexts.clear();
+  }
+
+  @Override
+  public void onMysteryBlockRevealed(BlockModel block, BlockType powerUp) {
+    mysteryTexts.add(new MysteryText(powerUp.getDisplayText(),
+        block.getX() + block.getSize() / 2, block.getY() + block.getSize() / 2,
+        simulation.getTimers().getTick() + Level.MYSTERY_TEXT_TICKS));
+  }
+
+  private void drawBlocks() {
+    graphics.setFont(healthFont);
+    for (BlockModel block : simulation.getLevel().getBlocks()) {
+      if (block.getBlockType().isPowerUp()) {
+        drawSpecialBlock(block);
+      } else {
+        drawDefaultBlock(block);
+      }
+    }
+  }
+
+  private void drawDefaultBlock(BlockModel block) {
+    double size = block.getSize();
+    graphics.setFill(GameConfig.BLOCK_COLOR);
+    graphics.fillRect(block.getX(), block.getY(), size, size);
+    // stroke inside the block's bounds, the same as StrokeType.INSIDE on the block's rectangle
+    graphics.setStroke(GameConfig.BLOCK_BORDER_COLOR);
+    graphics.setLineWidth(BLOCK_BORDER_WIDTH);
+    graphics.strokeRect(block.getX() + BLOCK_BORDER_WIDTH / 2, block.getY() + BLOCK_BORDER_WIDTH / 2,
+        size - BLOCK_BORDER_WIDTH, size - BLOCK_BORDER_WIDTH);
+    graphics.setFill(HealthLabelCache.getHealthColor(block.getHealth(), block.getInitialHealth()));
+    graphics.fillText(GameHud.formatNumber(block.getHealth()), block.getX() + size / 2,
+        block.getY() + size / 2);
+  }
+
+  private void drawSpecialBlock(BlockModel block) {
+    GameAssets assets = GameAssets.getInstance();
+    Rectangle2D icon = assets.getBlockIconViewport(block.getBlockType());
+    double imageSize = block.getSize() - Block.BLOCK_IMAGE_OFFSET;
+    graphics.drawImage(assets.getBlockIconAtlas(),
+        icon.getMinX(), icon.getMinY(), icon.getWidth(), icon.getHeight(),
+        block.getX() + Block.BLOCK_IMAGE_OFFSET / 2, block.getY() + Block.BLOCK_IMAGE_OFFSET / 2,
+        imageSize, imageSize);
+  }
+
+  private void drawMysteryTexts() {
+    if (mysteryTexts.isEmpty()) {
+      return;
+    }
+    long now = simulation.getTimers().getTick();  // game time, so texts pause with the game
+    graphics.setFont(mysteryFont);
+    graphics.setFill(GameConfig.MYSTERY_BLOCK_DISPLAY_TEXT_COLOR);
+    Iterator<MysteryText> iterator = mysteryTexts.iterator();
+    while (iterator.hasNext()) {
+      MysteryText mysteryText = iterator.next();
+      if (now >= mysteryText.removeAtTick) {
+        iterator.remove();
+      } else {
+        graphics.fillText(mysteryText.text, mysteryText.x, mysteryText.y);
+      }
+    }
+  }
+
+  private void drawShooter() {
+    if (!shooter.isEnabled()) {
+      return;
+    }
+    graphics.setStroke(GameConfig.BALL_COLOR);
+    graphics.setLineWidth(1);
+    graphics.strokeLine(LAUNCH_X, LAUNCH_Y,
+        LAUNCH_X + shooter.getLength() * Math.cos(shooter.getAngle()),
+        LAUNCH_Y - shooter.getLength() * Math.sin(shooter.getAngle()));
+    if (shooter.isPreviewShown()) {
+      AimTracer aimTracer = shooter.getAimTracer();
+      graphics.setLineDashes(4, 6);
+      graphics.strokePolyline(aimTracer.getPointX(), aimTracer.getPointY(),
+          aimTracer.getPointCount());
+      graphics.setLineDashes(null);
+    }
+    graphics.setFill(GameConfig.BALL_COLOR);
+    graphics.fillOval(LAUNCH_X - GameConfig.BALL_RADIUS, LAUNCH_Y - GameConfig.BALL_RADIUS,
+        GameConfig.BALL_RADIUS * 2, GameConfig.BALL_RADIUS * 2);
+  }
+
+  private void drawBalls(double alpha) {
+    graphics.setFill(GameConfig.BALL_COLOR);
+    for (BallModel ball : simulation.getBalls()) {
+      double radius = ball.getRadius();
+      graphics.fillOval(ball.getX(alpha) - radius, ball.getY(alpha) - radius, radius * 2,
+          radius * 2);
+    }
+  }
+
+  private void drawPaddle(double alpha) {
+    PaddleModel paddle = simulation.getPaddle();
+    graphics.setFill(GameConfig.PADDLE_COLOR);
+    graphics.fillRoundRect(paddle.getX(alpha), paddle.getY(), paddle.getWidth(alpha),
+        paddle.getHeight(), paddle.getHeight(), paddle.getHeight());
+  }
+
+  /**
+   * The display text for a mystery block's power up, which is drawn until its time runs out
+   */
+  private static class MysteryText {
+
+    private final String text;
+    private final double x;
+    private final double y;
+    private final long removeAtTick;
+
+    private MysteryText(String text, double x, double y, long removeAtTick) {
+      this.text = text;
+      this.x = x;
+      this.y = y;
+      this.removeAtTick = removeAtTick;
+    }
+  }
+
+}
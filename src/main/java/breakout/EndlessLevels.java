@@ -0,0 +1,88 @@
+package breakout;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * The levels of an endless game: the levels in the level files, followed by generated levels that
+ * never run out. Generated levels are made by the LevelGenerator on background threads and kept in
+ * a bounded prefetch queue: whenever a level is asked for, the queue is topped up with the
+ * PREFETCH_LEVELS levels after it, so the next level is always ready by the time the current one
+ * is cleared, and only the current level and the PREFETCH_LEVELS after it are held at once.
+ *
+ * @author Owen Jennings
+ */
+public class EndlessLevels implements LevelSource {
+
+  public static final int PREFETCH_LEVELS = 3;
+  private final LevelSource fileLevels;
+  private final long SEED;
+  private final ArrayDeque<CompletableFuture<LevelData>> prefetchQueue = new ArrayDeque<>();
+  private int firstQueuedLevel = 0; // the level number at the head of the prefetch queue
+
+  /**
+   * Create the levels for an endless game
+   *
+   * @param fileLevels: the source of the levels before the generated ones
+   * @param seed:       the seed the generated levels are made from
+   */
+  public EndlessLevels(LevelSource fileLevels, long seed) {
+    this.fileLevels = fileLevels;
+    SEED = seed;
+  }
+
+  /**
+   * Check if there is a level with a number. An endless game has every level from 1 on.
+   *
+   * @param levelNumber: the level to check
+   * @return true if the level number is at least 1
+   */
+  @Override
+  public boolean hasLevel(int levelNumber) {
+    return levelNumber >= 1;
+  }
+
+  /**
+   * Get a level. Levels after the level files are taken from the prefetch queue, and the levels
+   * after it are queued to be generated in the background.
+   *
+   * @param levelNumber: the level to get
+   * @return a future that completes with the level's data
+   */
+  @Override
+  public synchronized CompletableFuture<LevelData> getLevelAsync(int levelNumber) {
+    if (fileLevels.hasLevel(levelNumber)) {
+      return fileLevels.getLevelAsync(levelNumber);
+    }
+    if (levelNumber < firstQueuedLevel
+        || levelNumber >= firstQueuedLevel + prefetchQueue.size()) {
+      prefetchQueue.clear();  // skipped ahead or back, so start the queue again from this level
+      firstQueuedLevel = levelNumber;
+    }
+    while (firstQueuedLevel < levelNumber) {
+      prefetchQueue.poll();
+      firstQueuedLevel++;
+    }
+    while (prefetchQueue.size() <= PREFETCH_LEVELS) {
+      prefetchQueue.add(generateAsync(firstQueuedLevel + prefetchQueue.size()));
+    }
+    return prefetchQueue.peek();
+  }
+
+  /**
+   * Get the position of a level among the generated levels
+   *
+   * @param levelNumber: the level
+   * @return 1 for the first generated level, and so on
+   */
+  public int getDepth(int levelNumber) {
+    return levelNumber - GameConfig.NUM_LEVELS;
+  }
+
+  private CompletableFuture<LevelData> generateAsync(int levelNumber) {
+    int depth = getDepth(levelNumber);
+    return CompletableFuture.supplyAsync(() -> LevelGenerator.generate(SEED, depth),
+        LevelCache.BACKGROUND_THREADS);
+  }
+
+}
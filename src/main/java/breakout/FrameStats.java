@@ -0,0 +1,142 @@
+package breakout;
+
+import java.util.Arrays;
+
+/**
+ * Timings of the most recent frames of the game loop: how long each frame's steps and rendering
+ * took (the frame time), the real time between frames (the frame interval), and how many fixed
+ * steps each frame ran or dropped, so a frame that had to catch up can be seen. Samples are kept in
+ * fixed rings of SAMPLES frames, so recording a frame allocates nothing; percentiles are worked out
+ * on request by sorting a copy of the ring. Does not depend on JavaFX.
+ *
+ * @author Owen Jennings
+ */
+public class FrameStats {
+
+  public static final int SAMPLES = 240; // a few seconds of frames at common refresh rates
+  private final long[] frameTimes = new long[SAMPLES];
+  private final long[] frameIntervals = new long[SAMPLES];
+  private final long[] sortedFrameTimes = new long[SAMPLES];
+  private final long[] sortedFrameIntervals = new long[SAMPLES];
+  private final int[] stepCounts = new int[SAMPLES];
+  private int next = 0;
+  private int count = 0;
+  private int sortedCount = 0;
+  private long totalFrames = 0;
+  private long totalSteps = 0;
+  private long droppedSteps = 0;
+  private int lastStepCount = 0;
+
+  /**
+   * Record a frame
+   *
+   * @param frameTime:     how long the frame's steps and rendering took, in nanoseconds
+   * @param frameInterval: the real time since the previous frame, in nanoseconds
+   * @param steps:         the number of fixed steps the frame ran
+   * @param dropped:       the number of steps the frame dropped because it was too far behind
+   */
+  public void recordFrame(long frameTime, long frameInterval, int steps, long dropped) {
+    frameTimes[next] = frameTime;
+    frameIntervals[next] = frameInterval;
+    stepCounts[next] = steps;
+    lastStepCount = steps;
+    totalSteps += steps;
+    droppedSteps += dropped;
+    next = (next + 1) % SAMPLES;
+    count = Math.min(count + 1, SAMPLES);
+    totalFrames++;
+  }
+
+  /**
+   * Sort the recorded frames, so that the percentile getters describe the frames recorded so far.
+   * Call this once before reading a set of percentiles.
+   */
+  public void updatePercentiles() {
+    System.arraycopy(frameTimes, 0, sortedFrameTimes, 0, count);
+    System.arraycopy(frameIntervals, 0, sortedFrameIntervals, 0, count);
+    Arrays.sort(sortedFrameTimes, 0, count);
+    Arrays.sort(sortedFrameIntervals, 0, count);
+    sortedCount = count;
+  }
+
+  /**
+   * Get a percentile of the frame times, as of the last updatePercentiles()
+   *
+   * @param percentile: the percentile to get, from 0 to 100
+   * @return the frame time in nanoseconds, or 0 if no frames have been recorded
+   */
+  public long getFrameTimePercentile(double percentile) {
+    return getPercentile(sortedFrameTimes, percentile);
+  }
+
+  /**
+   * Get a percentile of the frame intervals, as of the last updatePercentiles()
+   *
+   * @param percentile: the percentile to get, from 0 to 100
+   * @return the frame interval in nanoseconds, or 0 if no frames have been recorded
+   */
+  public long getFrameIntervalPercentile(double percentile) {
+    return getPercentile(sortedFrameIntervals, percentile);
+  }
+
+  /**
+   * Get the number of frames recorded since the game started
+   *
+   * @return the total frame count
+   */
+  public long getTotalFrames() {
+    return totalFrames;
+  }
+
+  /**
+   * Get the number of fixed steps run in the last frame
+   *
+   * @return the last frame's step count (0 on high refresh rate displays, more than 1 when catching
+   * up)
+   */
+  public int getLastStepCount() {
+    return lastStepCount;
+  }
+
+  /**
+   * Get the most fixed steps run in one of the recent frames
+   *
+   * @return the largest step count among the last SAMPLES frames
+   */
+  public int getMaxStepCount() {
+    int maxSteps = 0;
+    for (int i = 0; i < count; i++) {
+      maxSteps = Math.max(maxSteps, stepCounts[i]);
+    }
+    return maxSteps;
+  }
+
+  /**
+   * Get the number of fixed steps run since the game started
+   *
+   * @return the total step count
+   */
+  public long getTotalSteps() {
+    return totalSteps;
+  }
+
+  /**
+   * Get the number of steps dropped since the game started, because a frame was more than
+   * GameLoop.MAX_CATCH_UP_STEPS steps behind
+   *
+   * @return the total dropped step count
+   */
+  public long getDroppedSteps() {
+    return droppedSteps;
+  }
+
+  // The nearest-rank percentile of the sorted samples
+  private long getPercentile(long[] sortedSamples, double percentile) {
+    if (sortedCount == 0) {
+      return 0;
+    }
+    int rank = (int) Math.ceil(percentile / 100 * sortedCount);
+    return sortedSamples[Math.clamp(rank - 1, 0, sortedCount - 1)];
+  }
+
+}
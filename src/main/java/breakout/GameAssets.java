@@ -0,0 +1,165 @@
+package breakout;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import javafx.geometry.Rectangle2D;
+import javafx.scene.image.Image;
+import javafx.scene.image.WritableImage;
+import javafx.scene.text.Font;
+
+/**
+ * The game's images and fonts. Every asset is loaded the first time it is used and then shared by
+ * the whole program, so no image or font file is ever read twice. The power up and mystery block
+ * images are scaled to the size they are drawn at while they are loaded, and packed side by side
+ * into a single atlas image; a block draws its part of the atlas using its viewport. Each load is
+ * timed and its size recorded, which can be printed with getLoadReport().
+ *
+ * @author Owen Jennings
+ */
+public class GameAssets {
+
+  public static final String IMAGE_PATH = "/images/";
+  public static final String FONT_PATH = "/fonts/";
+  public static final String BOLD_FONT = "Bold.ttf";
+  public static final String REGULAR_FONT = "Regular.ttf";
+  public static final double DEFAULT_FONT_SIZE = 12;
+  // The size block images are drawn at, which is the size they are scaled to in the atlas
+  public static final int BLOCK_ICON_SIZE =
+      (int) (GameConfig.BLOCK_SIZE - Block.BLOCK_IMAGE_OFFSET);
+  private static GameAssets instance;
+  private final Map<String, Font> fonts = new HashMap<>();
+  private final Map<BlockType, Rectangle2D> blockIconViewports = new EnumMap<>(BlockType.class);
+  private final List<String> loadReport = new ArrayList<>();
+  private WritableImage blockIconAtlas;
+  private long totalLoadNanos = 0;
+  private long totalBytes = 0;
+
+  private GameAssets() {
+  }
+
+  /**
+   * Get the game's assets, which are shared by the whole program
+   *
+   * @return the game's assets
+   */
+  public static synchronized GameAssets getInstance() {
+    if (instance == null) {
+      instance = new GameAssets();
+    }
+    return instance;
+  }
+
+  /**
+   * Get a font from the game's font folder, loading it the first time it is used
+   *
+   * @param fontFile: The font's file name (i.e. BOLD_FONT)
+   * @return the font, at DEFAULT_FONT_SIZE. Use its family or name to create other sizes of it
+   */
+  public synchronized Font getFont(String fontFile) {
+    Font font = fonts.get(fontFile);
+    if (font == null) {
+      long start = System.nanoTime();
+      byte[] fontBytes = readResource(FONT_PATH + fontFile);
+      font = Font.loadFont(new ByteArrayInputStream(fontBytes), DEFAULT_FONT_SIZE);
+      recordLoad(fontFile, System.nanoTime() - start, fontBytes.length);
+      fonts.put(fontFile, font);
+    }
+    return font;
+  }
+
+  /**
+   * Get the atlas image that holds the image of every power up and mystery block
+   *
+   * @return the block image atlas
+   */
+  public synchronized Image getBlockIconAtlas() {
+    if (blockIconAtlas == null) {
+      loadBlockIconAtlas();
+    }
+    return blockIconAtlas;
+  }
+
+  /**
+   * Get the part of the block image atlas that holds a block type's image
+   *
+   * @param blockType: The block type (i.e. MYSTERY, ADD_BALL)
+   * @return the block's image's bounds in the atlas, or null if the block type has no image
+   */
+  public synchronized Rectangle2D getBlockIconViewport(BlockType blockType) {
+    if (blockIconAtlas == null) {
+      loadBlockIconAtlas();
+    }
+    return blockIconViewports.get(blockType);
+  }
+
+  /**
+   * Get a description of every asset loaded so far, with how long it took to load and how much
+   * memory it uses
+   *
+   * @return the load report, one line per asset followed by a total
+   */
+  public synchronized String getLoadReport() {
+    StringBuilder report = new StringBuilder();
+    for (String line : loadReport) {
+      report.append(line).append(System.lineSeparator());
+    }
+    report.append(formatLoad("Total", totalLoadNanos, totalBytes));
+    return report.toString();
+  }
+
+  private void loadBlockIconAtlas() {
+    long start = System.nanoTime();
+    int iconCount = 0;
+    for (BlockType blockType : BlockType.values()) {
+      if (blockType.isPowerUp()) {
+        iconCount++;
+      }
+    }
+    WritableImage atlas = new WritableImage(BLOCK_ICON_SIZE * iconCount, BLOCK_ICON_SIZE);
+    int x = 0;
+    for (BlockType blockType : BlockType.values()) {
+      if (blockType.isPowerUp()) {
+        byte[] imageBytes = readResource(IMAGE_PATH + blockType.getImageFile());
+        // scaled to a square, the same as the ImageView that used to draw the full-size image
+        Image icon = new Image(new ByteArrayInputStream(imageBytes), BLOCK_ICON_SIZE,
+            BLOCK_ICON_SIZE, false, true);
+        atlas.getPixelWriter().setPixels(x, 0, BLOCK_ICON_SIZE, BLOCK_ICON_SIZE,
+            icon.getPixelReader(), 0, 0);
+        blockIconViewports.put(blockType,
+            new Rectangle2D(x, 0, BLOCK_ICON_SIZE, BLOCK_ICON_SIZE));
+        x += BLOCK_ICON_SIZE;
+      }
+    }
+    blockIconAtlas = atlas;
+    recordLoad("Block image atlas (" + iconCount + " images)", System.nanoTime() - start,
+        (long) atlas.getWidth() * (long) atlas.getHeight() * Integer.BYTES);
+  }
+
+  private void recordLoad(String assetName, long loadNanos, long bytes) {
+    totalLoadNanos += loadNanos;
+    totalBytes += bytes;
+    loadReport.add(formatLoad(assetName, loadNanos, bytes));
+  }
+
+  private static String formatLoad(String assetName, long loadNanos, long bytes) {
+    return String.format("%-32s %8.2f ms %8.1f KB", assetName, loadNanos / 1e6, bytes / 1024.0);
+  }
+
+  private static byte[] readResource(String path) {
+    try (InputStream in = GameAssets.class.getResourceAsStream(path)) {
+      if (in == null) {
+        throw new IllegalStateException("Missing game asset: " + path);
+      }
+      return in.readAllBytes();
+    } catch (IOException e) {
+      throw new IllegalStateException("Could not read game asset: " + path, e);
+    }
+  }
+
+}
@@ -30,6 +30,7 @@ public class GameConfig {
   public static final int SCORE_MULTIPLIER_TIMEOUT = 5;
   public static final int BLOCK_SCORE = 10;
   public static final int POWERUP_SCORE = 50;
+  public static final int LEVEL_COMPLETE_SCORE = 1000;
   public static final int BLOCK_SIZE = 50;
   public static final int BALL_RADIUS = 5;
   public static final int BALL_SPEED = 320;
@@ -38,9 +39,32 @@ public class GameConfig {
   public static final int PADDLE_SPEED = 12;
   public static final int SHOOTER_LENGTH = 100;
   public static final double MYSTERY_BLOCK_DISPLAY_TEXT_TIME = 3;
+  // Run with -Dbreakout.renderer=canvas to draw the game onto a single canvas instead of with nodes
+  public static final String RENDERER_PROPERTY = "breakout.renderer";
+  public static final String CANVAS_RENDERER = "canvas";
+  // Run with -Dbreakout.assetReport=true to log how long each image and font took to load on exit
+  public static final String ASSET_REPORT_PROPERTY = "breakout.assetReport";
+  // Run with -Dbreakout.seed=N to play with a fixed seed, and -Dbreakout.record=FILE to record the
+  // game so it can be replayed with the ReplaySimulator
+  public static final String SEED_PROPERTY = "breakout.seed";
+  public static final String RECORD_PROPERTY = "breakout.record";
+  // Run with -Dbreakout.performanceOverlay=true to show the performance overlay (toggled with P)
+  public static final String PERFORMANCE_OVERLAY_PROPERTY = "breakout.performanceOverlay";
+  // Run with -Dbreakout.aimPreview=true to preview the shooter's path (toggled with A)
+  public static final String AIM_PREVIEW_PROPERTY = "breakout.aimPreview";
+  // Run with -Dbreakout.bot=true to let the auto-aim bot play the game (toggled with T)
+  public static final String BOT_PROPERTY = "breakout.bot";
+  // Run with -Dbreakout.levelDirectory=DIR (such as src/main/resources/levels) to reload the level
+  // files in DIR while the game runs, whenever they are saved
+  public static final String LEVEL_DIRECTORY_PROPERTY = "breakout.levelDirectory";
+  // Run with -Dbreakout.scoreDirectory=DIR to keep the score journal in DIR instead of in
+  // SCORE_DIRECTORY_NAME in the user's home directory
+  public static final String SCORE_DIRECTORY_PROPERTY = "breakout.scoreDirectory";
+  public static final String SCORE_DIRECTORY_NAME = ".breakout";
+  public static final int END_SCREEN_RECENT_SCORES = 5;
 
   public static final String gameRulesString = """
-      How to Play: You begin each level with a certain number of balls and lives. To start one of your lives, use the left and right arrow keys to move the ball shooter's aim. When you have your aim in the desired position, press the space bar to start your current life. The shooter will shoot balls until you run out of balls. While your balls are in motion, you can use the arrow keys to move your paddle. The paddle allows you to bounce your balls back into the game area. Everytime a ball hits a block its health will decrease by 1. A mystery block will randomly give you a power up. You can receive power ups through randomly placed mystery or power up blocks.\n 
+      How to Play: Press SPACE to play the levels, or E for endless mode, where new levels keep coming until you lose. You begin each level with a certain number of balls and lives. To start one of your lives, use the left and right arrow keys to move the ball shooter's aim. When you have your aim in the desired position, press the space bar to start your current life. The shooter will shoot balls until you run out of balls. While your balls are in motion, you can use the arrow keys to move your paddle. The paddle allows you to bounce your balls back into the game area. Everytime a ball hits a block its health will decrease by 1. A mystery block will randomly give you a power up. You can receive power ups through randomly placed mystery or power up blocks.\n 
       The power ups have the following effects:
       - Add 1 ball to your next life's shooter.
       - Remove 1 ball from your next life's shooter.
@@ -55,7 +79,9 @@ public class GameConfig {
       - L: Give +1 life, allowing you to use the shooter an additional time.
       - B: Give +1 ball, which can be used if you have a life remaining.
       - V: Take a ball away from your shooter. 
-      - S: Clear all the balls currently in play. If you have a life and balls remaining, you can reshoot with the shooter. This can be useful if the ball gets stuck somewhere in the level.\n
+      - S: Clear all the balls currently in play. If you have a life and balls remaining, you can reshoot with the shooter. This can be useful if the ball gets stuck somewhere in the level.
+      - Z: Rewind the game about three seconds. Press it again to keep going back, up to ten seconds.
+      - A: Show or hide a preview of the path your balls will take from the shooter.\n
       In game, view the level number, your current score, score multiplier, lives, and balls in your shooter on the bottom of the screen.
       P.S: Be Careful! As time progresses in your life, the balls will begin to speed up. Balls will also slightly change their path as they hit walls.""";
 }
\ No newline at end of file
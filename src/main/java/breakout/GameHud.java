@@ -0,0 +1,120 @@
+package breakout;
+
+import static breakout.GameConfig.HEIGHT;
+import static breakout.GameConfig.WIDTH;
+
+import javafx.geometry.Insets;
+import javafx.geometry.Pos;
+import javafx.scene.layout.Region;
+import javafx.scene.layout.StackPane;
+import javafx.scene.text.Font;
+import javafx.scene.text.Text;
+import javafx.scene.text.TextAlignment;
+import javafx.scene.text.TextFlow;
+
+/**
+ * The in-game status text at the bottom of the screen, which shows the level, balls in the shooter,
+ * lives, score multiplier, score and high score. Each value is its own Text node, and a node's text
+ * is only replaced when its value changes, so updating the HUD every frame creates nothing while
+ * the values stay the same. Small numbers are formatted from a table instead of creating a new
+ * string each time.
+ *
+ * @author Owen Jennings
+ */
+public class GameHud extends StackPane {
+
+  public static final int TEXT_SIZE = 16;
+  // Numbers below this are formatted from a table of pre-made strings
+  public static final int CACHED_NUMBERS = 1024;
+  private static final String[] NUMBER_STRINGS = new String[CACHED_NUMBERS];
+  private final Font TEXT_FONT = Font.font(
+      GameAssets.getInstance().getFont(GameAssets.REGULAR_FONT).getName(), TEXT_SIZE);
+  private final TextFlow textFlow = new TextFlow();
+  private final HudField level = new HudField("Level: ");
+  private final HudField ballsInShooter = new HudField(" - Balls in Shooter: ");
+  private final HudField lives = new HudField(" - Lives Remaining: ");
+  private final HudField scoreMultiplier = new HudField("\nScore Multiplier: ");
+  private final HudField score = new HudField(" - Score: ");
+  private final HudField highScore = new HudField(" - High Score: ");
+
+  static {
+    for (int i = 0; i < CACHED_NUMBERS; i++) {
+      NUMBER_STRINGS[i] = String.valueOf(i);
+    }
+  }
+
+  /**
+   * Create the HUD, using the games current width and height. The HUD shows no values until
+   * update() is called.
+   */
+  public GameHud() {
+    this.setPrefSize(WIDTH, HEIGHT);
+    this.setMouseTransparent(true);
+    textFlow.setTextAlignment(TextAlignment.CENTER);
+    // only as tall as its text, so that it sits at the bottom of the screen
+    textFlow.setMaxSize(TextElement.WRAPPING_WIDTH, Region.USE_PREF_SIZE);
+    this.getChildren().add(textFlow);
+    setAlignment(textFlow, Pos.BOTTOM_CENTER);
+    setMargin(textFlow, new Insets(0, 0, TextElement.BOTTOM_MARGIN, 0));
+  }
+
+  /**
+   * Show the current state of the game. Only the values that changed since the last update are
+   * redrawn.
+   *
+   * @param levelNumber: The level being played
+   * @param simulation:  The game's simulation, which holds the balls, lives and score
+   */
+  public void update(int levelNumber, GameSimulation simulation) {
+    ScoreManager scoreManager = simulation.getScoreManager();
+    level.setValue(levelNumber);
+    ballsInShooter.setValue(simulation.getGameBallCount());
+    lives.setValue(simulation.getLivesLeft());
+    scoreMultiplier.setValue(scoreManager.getScoreMultiplier());
+    score.setValue(scoreManager.getScore());
+    highScore.setValue(scoreManager.getHighScore());
+  }
+
+  /**
+   * Get the text for a number, without creating a new string for small numbers
+   *
+   * @param number: The number to format
+   * @return the number as a string
+   */
+  public static String formatNumber(int number) {
+    if (number >= 0 && number < CACHED_NUMBERS) {
+      return NUMBER_STRINGS[number];
+    }
+    return String.valueOf(number);
+  }
+
+  // A label that never changes followed by a value that is redrawn when it changes
+  private class HudField {
+
+    private final Text valueText = new Text();
+    private int value;
+    private boolean hasValue = false;
+
+    private HudField(String label) {
+      Text labelText = new Text(label);
+      styleText(labelText);
+      styleText(valueText);
+      textFlow.getChildren().addAll(labelText, valueText);
+    }
+
+    private void setValue(int newValue) {
+      if (!hasValue || newValue != value) {
+        value = newValue;
+        hasValue = true;
+        valueText.setText(formatNumber(newValue));
+      }
+    }
+
+    private void styleText(Text text) {
+      text.setFont(TEXT_FONT);
+      text.setFill(GameConfig.TEXT_COLOR);
+    }
+
+  }
+
+}
@@ -0,0 +1,58 @@
+package breakout;
+
+/**
+ * The keys that change the game when they are pressed, which are recorded when a game is recorded.
+ * Held keys that move the paddle are sent to the simulation as input bits instead, and keys that
+ * only change how the game is drawn are not game keys. Does not depend on JavaFX, so that recorded
+ * games can be replayed headless.
+ *
+ * @author Owen Jennings
+ */
+public enum GameKey {
+  LEFT, RIGHT, SPACE, R, L, B, V, S,
+  DIGIT0, DIGIT1, DIGIT2, DIGIT3, DIGIT4, DIGIT5, DIGIT6, DIGIT7, DIGIT8, DIGIT9,
+  OTHER, // any other key, which still counts as the player having pressed a key
+  Z, E; // new keys are added at the end, so that older recordings keep their key ordinals
+
+  private static final GameKey[] KEYS = values();
+
+  /**
+   * Get the game key for a key's name
+   *
+   * @param name: the name of the key, such as a JavaFX KeyCode's name()
+   * @return the game key with that name, or OTHER if the key does not change the game
+   */
+  public static GameKey fromName(String name) {
+    for (GameKey key : KEYS) {
+      if (key.name().equals(name)) {
+        return key;
+      }
+    }
+    return OTHER;
+  }
+
+  /**
+   * Get a game key from its position in the enum, as stored in a recording
+   *
+   * @param ordinal: the key's ordinal
+   * @return the key
+   */
+  public static GameKey fromOrdinal(int ordinal) {
+    if (ordinal < 0 || ordinal >= KEYS.length) {
+      throw new IllegalArgumentException("Unknown game key: " + ordinal);
+    }
+    return KEYS[ordinal];
+  }
+
+  /**
+   * Get the level a digit key skips to
+   *
+   * @return the digit's number, or -1 if this is not a digit key
+   */
+  public int getDigit() {
+    if (compareTo(DIGIT0) >= 0 && compareTo(DIGIT9) <= 0) {
+      return ordinal() - DIGIT0.ordinal();
+    }
+    return -1;
+  }
+}
@@ -0,0 +1,130 @@
+package breakout;
+
+import javafx.animation.AnimationTimer;
+
+/**
+ * The game's main loop. Runs on every JavaFX pulse (so it keeps up with 120/144 Hz displays), but
+ * always advances the game in fixed steps of GameConfig.SECOND_DELAY using an accumulator of real
+ * elapsed time. If a pulse is late, the missed steps are caught up on the next frame (up to
+ * MAX_CATCH_UP_STEPS), so the game no longer slows down on a loaded machine. Each frame is drawn
+ * interpolated between the last two steps. Every frame's timing and step counts are recorded in the
+ * game manager's FrameStats, which the performance overlay shows.
+ *
+ * @author Owen Jennings
+ */
+public class GameLoop extends AnimationTimer {
+
+  public static final int MAX_CATCH_UP_STEPS = 5; // most steps to run in one frame before dropping time
+  public static final double NANOSECONDS_PER_SECOND = 1e9;
+  private static final double STEP_TIME = GameConfig.SECOND_DELAY;
+  private final GameManager gameManager;
+  private long lastFrameNanos = -1;
+  private double accumulator = 0;
+  private double lastFrameTime = 0;
+  private int lastStepCount = 0;
+  private long totalSteps = 0;
+  private long totalFrames = 0;
+  private long droppedSteps = 0;
+
+  /**
+   * Create a new game loop. The loop does nothing until start() is called.
+   *
+   * @param gameManager: the game manager to step and render
+   */
+  public GameLoop(GameManager gameManager) {
+    this.gameManager = gameManager;
+  }
+
+  /**
+   * Run as many fixed steps as the elapsed time allows and render the frame. Called by JavaFX on
+   * every pulse.
+   *
+   * @param now: the timestamp of the current frame in nanoseconds
+   */
+  @Override
+  public void handle(long now) {
+    if (lastFrameNanos < 0) { // first frame, nothing has elapsed yet
+      lastFrameNanos = now;
+      return;
+    }
+    long frameStart = System.nanoTime();
+    long droppedBefore = droppedSteps;
+    long frameInterval = now - lastFrameNanos;
+    lastFrameTime = frameInterval / NANOSECONDS_PER_SECOND;
+    lastFrameNanos = now;
+    accumulator += lastFrameTime;
+    try {
+      lastStepCount = runSteps();
+    } catch (Exception ex) {
+      throw new RuntimeException(ex);
+    }
+    totalFrames++;
+    gameManager.render(accumulator / STEP_TIME);
+    gameManager.getFrameStats().recordFrame(System.nanoTime() - frameStart, frameInterval,
+        lastStepCount, droppedSteps - droppedBefore);
+  }
+
+  /**
+   * Get the real time that passed between the last two frames
+   *
+   * @return the last frame time in seconds
+   */
+  public double getLastFrameTime() {
+    return lastFrameTime;
+  }
+
+  /**
+   * Get the number of simulation steps that were run in the last frame
+   *
+   * @return the last frame's step count (0 on high refresh rate displays, more than 1 when catching
+   * up)
+   */
+  public int getLastStepCount() {
+    return lastStepCount;
+  }
+
+  /**
+   * Get the total number of simulation steps run since the loop started
+   *
+   * @return the total step count
+   */
+  public long getTotalSteps() {
+    return totalSteps;
+  }
+
+  /**
+   * Get the total number of frames rendered since the loop started
+   *
+   * @return the total frame count
+   */
+  public long getTotalFrames() {
+    return totalFrames;
+  }
+
+  /**
+   * Get the number of steps that were skipped because a frame needed more than MAX_CATCH_UP_STEPS
+   *
+   * @return the total dropped step count
+   */
+  public long getDroppedSteps() {
+    return droppedSteps;
+  }
+
+  private int runSteps() throws Exception {
+    int steps = 0;
+    while (accumulator >= STEP_TIME && steps < MAX_CATCH_UP_STEPS) {
+      gameManager.step();
+      accumulator -= STEP_TIME;
+      steps++;
+    }
+    if (accumulator >= STEP_TIME) {
+      // Too far behind to catch up (e.g. the window was being dragged), so drop the rest of the
+      // time instead of running more and more steps each frame.
+      droppedSteps += (long) (accumulator / STEP_TIME);
+      accumulator %= STEP_TIME;
+    }
+    totalSteps += steps;
+    return steps;
+  }
+
+}
@@ -1,40 +1,46 @@
 package breakout;
 
-import static breakout.GameConfig.HEIGHT;
-import static breakout.GameConfig.INITIAL_NUM_LIVES;
 import static breakout.GameConfig.gameRulesString;
+import static java.lang.System.Logger.Level.WARNING;
 
-import java.util.ArrayList;
+import java.io.IOException;
+import java.nio.file.Path;
 import java.util.HashSet;
-import java.util.Iterator;
+import java.util.List;
 import javafx.scene.Group;
 import javafx.scene.Node;
 import javafx.scene.Scene;
 import javafx.scene.input.KeyCode;
 
 /**
- * A class to handle all the global game logic and initialization, such as lives, balls in play and
- * different transitions. Additionally, contains content for the starting and ending screens.
+ * A class to handle the game's screens and the player's key input. The game's flow (moving between
+ * levels, the shooter and the cheat keys) lives in a headless GameSession, and the game state itself
+ * (lives, balls in play, blocks, score) lives in its GameSimulation; this class drives the session
+ * with the player's keys and forwards their changes to the active GameRenderer, which draws them.
+ * Additionally, contains content for the starting and ending screens.
  *
  * @author Owen Jennings
  */
-public class GameManager {
+public class GameManager implements SimulationListener, SessionListener {
 
+  private static final System.Logger LOGGER = System.getLogger(GameManager.class.getName());
   private final Group gameRoot;
   private final Scene gameScene;
-  private final ArrayList<Ball> gameBalls = new ArrayList<>();
-  private int gameBallCount = 1;
-  private int ballsInPlay = 0;
-  private Paddle gamePaddle;
+  private final GameSession session = new GameSession(getSeed());
+  private final GameSimulation simulation = session.getSimulation();
+  private InputRecorder recorder;
   private Shooter gameShooter;
-  private Level currentLevel;
-  private int currentLevelNumber;
-  private int livesLeft = GameConfig.INITIAL_NUM_LIVES;
-  private boolean isPlaying = false;
-  private boolean isFirstRound = true;
+  private GameRenderer nodeRenderer;
+  private GameRenderer canvasRenderer;
+  private GameRenderer renderer;
   private final TextElement gameText = new TextElement();
+  private final GameHud gameHud = new GameHud();
+  private final PerformanceOverlay performanceOverlay = new PerformanceOverlay();
+  private final FrameStats frameStats = new FrameStats();
   private final HashSet<KeyCode> activeKeys = new HashSet<>();
-  private ScoreManager scoreManager;
+  private AutoAimBot bot;
+  private LevelWatcher levelWatcher;
+  private ScoreJournal scoreJournal;
 
   /**
    * Create a new Game Manager with the main scene and root objects
@@ -42,89 +48,75 @@ public class GameManager {
    * @param scene: the main scene of the program
    * @param root:  the main root of the program
    */
-  public GameManager(Scene scene, Group root) {
+  public GameManager(Scene scene, Group root) throws IOException {
     this.gameScene = scene;
     this.gameRoot = root;
+    openScoreJournal();
     setupScene();
+    startRecordingIfRequested();
+    startWatchingLevelsIfRequested();
   }
 
   /**
-   * Get the current game's score manager object
+   * Get the headless simulation that holds the game state
    *
-   * @return Current game's score manager object
+   * @return the game's simulation
    */
-  public ScoreManager getScoreManager() {
-    return scoreManager;
+  public GameSimulation getSimulation() {
+    return simulation;
   }
 
   /**
-   * Get the current level manager object
+   * Get the session that runs the game's flow
    *
-   * @return Level object for the current level
+   * @return the game's session
    */
-  public Level getCurrentLevel() {
-    return currentLevel;
+  public GameSession getSession() {
+    return session;
   }
 
   /**
-   * Get the number of balls that the user has
+   * Get the timings of the most recent frames, which the game loop records
    *
-   * @return The game ball count
+   * @return the frame stats shown by the performance overlay
    */
-  public int getGameBallCount() {
-    return gameBallCount;
+  public FrameStats getFrameStats() {
+    return frameStats;
   }
 
   /**
-   * Increase the number of balls a player has by 1. This will not spawn any balls, but will allow
-   * them to have more balls for the next "point"
-   */
-  public void increaseGameBallCount() {
-    gameBallCount++;
-  }
-
-  /**
-   * Decrease the number of balls a player has by 1. This does not de-spawn any balls but removes 1
-   * from a players current ball count
-   */
-  public void decreaseGameBallCount() {
-    if (gameBallCount > 0) {
-      gameBallCount--;
-    }
-  }
-
-  /**
-   * Get the number of balls that are currently in motion
+   * Finish the game's recording, if it is being recorded. Call this when the game closes.
    *
-   * @return The total number of balls in play
+   * @throws IOException: any exceptions thrown while writing the end of the recording
    */
-  public int getBallsInPlay() {
-    return ballsInPlay;
+  public void finishRecording() throws IOException {
+    if (recorder != null) {
+      recorder.finish(session.getTick());
+      session.setRecorder(null);
+      recorder = null;
+    }
   }
 
   /**
-   * Update the number of balls that are current in motion/play
+   * Wait for the finished games to be written to the score journal, then close it. Call this when
+   * the game closes.
    *
-   * @param count the amount of balls to set in play
-   */
-  public void setBallsInPlay(int count) {
-    ballsInPlay = count;
-  }
-
-  /**
-   * Decrement the number of lives remaining by 1.
+   * @throws IOException: any exceptions thrown while closing the journal
    */
-  public void decrementLives() {
-    livesLeft--;
+  public void closeScoreJournal() throws IOException {
+    scoreJournal.close();
   }
 
   /**
-   * Add a ball to the game ball list, which stores all balls currently in motion
+   * Stop watching the level files, if they are being reloaded. Call this when the game closes.
    *
-   * @param ball: the ball object to add
+   * @throws IOException: any exceptions thrown while closing the watcher
    */
-  public void addGameBall(Ball ball) {
-    gameBalls.add(ball);
+  public void closeLevelWatcher() throws IOException {
+    if (levelWatcher != null) {
+      levelWatcher.close();
+      levelWatcher = null;
+    }
   }
 
   /**
@@ -146,233 +138,223 @@ public class GameManager {
   }
 
   /**
-   * Take an animation step in the game. This should be called by the main file's animation
+   * Take a fixed-length simulation step in the game. This should be called by the game loop once
+   * for every GameConfig.SECOND_DELAY of time that has passed.
    *
    * @throws Exception: Any exception that occurs while the animation is running.
    */
   public void step() throws Exception {
-    handleLevelTransitions();
-    handleInGameLogic();
+    StepEvent event = StepEvent.start();
+    if (levelWatcher != null) {
+      levelWatcher.applyReloads(session);
+    }
+    session.step(bot != null ? bot.step() : getPlayerInput());
+    if (session.isPlaying()) {
+      PhaseEvent hudEvent = PhaseEvent.start(PhaseEvent.HUD);
+      gameHud.update(session.getCurrentLevelNumber(), simulation);  // only redraws values that changed
+      hudEvent.end(simulation);
+    }
+    event.end(session);
   }
 
-  private Iterator<Ball> getGameBallIterator() {
-    return gameBalls.iterator();
+  /**
+   * Draw the balls and paddle between the last two simulation steps. This should be called by the
+   * game loop once per rendered frame, after any steps for that frame.
+   *
+   * @param alpha: how far between the previous step (0) and the current step (1) to draw
+   */
+  public void render(double alpha) {
+    if (session.isPlaying()) {
+      PhaseEvent event = PhaseEvent.start(PhaseEvent.RENDER);
+      renderer.render(alpha);
+      event.end(simulation);
+    }
+    performanceOverlay.update(frameStats, session);
   }
 
-  private void setupScene() {
-    showStartScreen();
-    initializeGame();
-    initializeKeyEventHandlers();
+  @Override
+  public void onLevelStarted() {
+    renderer.onLevelStarted();
   }
 
+  @Override
+  public void onBlockAdded(BlockModel block) {
+    renderer.onBlockAdded(block);
+  }
 
-  private void initializeGame() {
-    scoreManager = new ScoreManager();
-    currentLevel = new Level(this, GameConfig.BLOCK_SIZE);
-    initializeGameComponents();
+  @Override
+  public void onBlockHealthChanged(BlockModel block) {
+    renderer.onBlockHealthChanged(block);
   }
 
-  private void initializeGameComponents() {
-    gamePaddle = new Paddle(this, GameConfig.MIDDLE_WIDTH - GameConfig.INITIAL_PADDLE_WIDTH / 2,
-        HEIGHT - GameConfig.BLOCK_SIZE * (Level.BOTTOM_OFFSET - 1),
-        GameConfig.INITIAL_PADDLE_WIDTH, 5,
-        GameConfig.PADDLE_SPEED, GameConfig.PADDLE_COLOR);
-    gameShooter = new Shooter(this, GameConfig.SHOOTER_LENGTH, Math.PI / 2, GameConfig.BALL_COLOR);
-    gameRoot.getChildren().add(gameText);
+  @Override
+  public void onBlockRemoved(BlockModel block) {
+    renderer.onBlockRemoved(block);
   }
 
-  private void initializeKeyEventHandlers() {
-    initializeOnKeyPressedHandler();
-    initializeOnKeyReleasedHandler();
+  @Override
+  public void onBlocksDropped() {
+    renderer.onBlocksDropped();
   }
 
-  private void initializeOnKeyPressedHandler() {
-    gameScene.setOnKeyPressed(e -> {
-      try {
-        activeKeys.add(e.getCode());  // store currently held down keys
-        handleKeyInput(e.getCode());
-      } catch (Exception ex) {
-        throw new RuntimeException(ex);
-      }
-    });
+  @Override
+  public void onMysteryBlockRevealed(BlockModel block, BlockType powerUp) {
+    renderer.onMysteryBlockRevealed(block, powerUp);
   }
 
-  private void initializeOnKeyReleasedHandler() {
-    gameScene.setOnKeyReleased(
-        e -> activeKeys.remove(e.getCode()));  // remove keys as they are released
+  @Override
+  public void onBallAdded(BallModel ball) {
+    renderer.onBallAdded(ball);
   }
 
-  private void startGame() throws Exception {
-    currentLevelNumber = 1;
-    livesLeft = INITIAL_NUM_LIVES;
-    scoreManager.resetScore();
+  @Override
+  public void onBallRemoved(BallModel ball) {
+    renderer.onBallRemoved(ball);
+  }
+
+  @Override
+  public void onGameStarted() {
     gameText.clearText();
-    currentLevel.startLevel(currentLevelNumber);
-    gameBallCount = currentLevel.getStartingBalls();
-    gamePaddle.setX(GameConfig.MIDDLE_WIDTH - GameConfig.INITIAL_PADDLE_WIDTH / 2);
+    gameHud.setVisible(true);
     addGameElementsToRoot();
-    isPlaying = true;
-    isFirstRound = true;
   }
 
-  private void handleLevelTransitions() throws Exception {
-    checkPlayerHasCompletedLevel();
-    checkPlayersOutOfLivesOrBalls();
+  @Override
+  public void onGameEnded(boolean isWinner, String message) {
+    ScoreManager scoreManager = simulation.getScoreManager();
+    // the journal is written on its own thread, so this never waits on the disk
+    scoreJournal.recordGame(scoreManager.getScore(), session.getCurrentLevelNumber() - 1,
+        isWinner, session.isEndless());
+    showEndScreen(isWinner, message +
+        "\nYour final score was: "
+        + scoreManager.getScore() + "\nHigh Score: "
+        + scoreManager.getHighScore() + getRecentScoresText());
   }
 
-  private void checkPlayersOutOfLivesOrBalls() {
-    if (isPlaying && ((ballsInPlay == 0 && livesLeft <= 0) || (ballsInPlay == 0 && gameBallCount
-        <= 0))) {
-      // Player has run out of lives and all balls have fallen OR player has run out of balls
-      endGameAndShowEndScreen(false, "You ran out of lives or balls and lost!");
-    }
+  @Override
+  public void onStartScreenShown() {
+    removeGameElementsFromRoot();
+    showStartScreen();
   }
 
-  private void checkPlayerHasCompletedLevel() throws Exception {
-    if (isPlaying
-        && currentLevel.isComplete()) { // Player has successfully completed the current level
-      currentLevelNumber++;
-      if (currentLevelNumber > 1) {
-        scoreManager.incrementScore(1000);
-      }
-      startNewLevelOrShowWinScreen(currentLevelNumber);
-    }
+  @Override
+  public void onShooterEnabled() {
+    gameShooter.enable();
   }
 
-  private void startNewLevelOrShowWinScreen(int levelNumber) throws Exception {
-    if (!isPlaying) {
-      startGame();
-    }
-    livesLeft = INITIAL_NUM_LIVES;
-    removeAllBallsFromPlay(); // remove all remaining balls from previous level
-    if (levelNumber
-        > GameConfig.NUM_LEVELS) {  // The player has finished the last level, show congratulations/final screen.
-      endGameAndShowEndScreen(true, "You have won the game!");
-    }
-    if (levelNumber <= GameConfig.NUM_LEVELS) {  // Start next level for player
-      currentLevel.startLevel(levelNumber);
-      gameBallCount = currentLevel.getStartingBalls();
-    }
+  @Override
+  public void onShooterDisabled() {
+    gameShooter.disable();
   }
 
-  private void handleInGameLogic() {
-    if (isPlaying) {
-      handleBallInteractions();
-      gamePaddle.moveAndHandleExpandAndCollapse(activeKeys);
-      gameText.setBottomText(
-          "Level: " + currentLevelNumber + " - Balls in Shooter: " + gameBallCount
-              + " - Lives Remaining: "
-              + livesLeft + "\nScore Multiplier: " + scoreManager.getScoreMultiplier()
-              + " - Score: " + scoreManager.getScore() + " - High Score: "
-              + scoreManager.getHighScore(), 16, GameConfig.TEXT_COLOR, false);
-      if (gameBallCount > 0 && ballsInPlay == 0 && !gameShooter.isEnabled()) {
-        gameShooter.enable();
-        attemptLevelDropAndCheckLossCondition();
-      }
-    }
+  @Override
+  public void onShooterAimChanged(double angle) {
+    gameShooter.updateAim();
   }
 
-  private void attemptLevelDropAndCheckLossCondition() {
-    if (!isFirstRound
-        && !currentLevel.checkCanDropOneRowAndAttemptDrop()) {  // end game if the row drops below the game area
-      ballsInPlay = 0;
-      endGameAndShowEndScreen(false, "The blocks reached the bottom of the level!");
-    }
+  private void setupScene() {
+    showStartScreen();
+    initializeGame();
+    initializeKeyEventHandlers();
   }
 
-  private void handleBallInteractions() {
-    Iterator<Ball> ballIterator = getGameBallIterator();
-    while (ballIterator.hasNext()) {
-      Ball ball = ballIterator.next();
-      ball.bounceAndHandleCollisions(GameConfig.SECOND_DELAY);
-      gamePaddle.handleBallCollision(ball);
-      removeBallIfIntersectingFloor(ball, ballIterator);
-    }
+
+  private void initializeGame() {
+    simulation.setListener(this);
+    session.setListener(this);
+    initializeGameComponents();
   }
 
-  private void removeBallIfIntersectingFloor(Ball ball, Iterator<Ball> ballIterator) {
-    // Remove balls that have reached the floor
-    if (ball.isIntersectingFloor()) {
-      ballIterator.remove();
-      removeChildFromGameRoot(ball);
-      setBallsInPlay(getBallsInPlay() - 1);
+  private void initializeGameComponents() {
+    gameShooter = new Shooter(session, GameConfig.SHOOTER_LENGTH, GameConfig.BALL_COLOR);
+    nodeRenderer = new NodeRenderer(this, gameShooter);
+    canvasRenderer = new CanvasRenderer(this, gameShooter);
+    boolean useCanvas = GameConfig.CANVAS_RENDERER.equals(
+        System.getProperty(GameConfig.RENDERER_PROPERTY));
+    renderer = useCanvas ? canvasRenderer : nodeRenderer;
+    gameRoot.getChildren().addAll(gameText, gameHud, performanceOverlay);
+    if (Boolean.getBoolean(GameConfig.PERFORMANCE_OVERLAY_PROPERTY)) {
+      performanceOverlay.toggle();
+    }
+    if (Boolean.getBoolean(GameConfig.AIM_PREVIEW_PROPERTY)) {
+      gameShooter.togglePreview();
+    }
+    if (Boolean.getBoolean(GameConfig.BOT_PROPERTY)) {
+      toggleBot();
     }
   }
 
-
-  // What to do each time a key is pressed
-  private void handleKeyInput(KeyCode code) throws Exception {
-    handleCheatCodes(code);
-    if (!isPlaying && code == KeyCode.SPACE || !isPlaying && code == KeyCode.R) {
-      startGame();
-    } else if (isPlaying && ballsInPlay == 0) {
-      gameShooter.handleShooterActions(code);
-      isFirstRound = false;
-    }
+  private void initializeKeyEventHandlers() {
+    initializeOnKeyPressedHandler();
+    initializeOnKeyReleasedHandler();
   }
 
-  private void handleCheatCodes(KeyCode code) throws Exception {
-    switch (code) {
-      case L -> livesLeft++;
-      case B -> gameBallCount++;
-      case V -> decreaseGameBallCount();
-      case S -> removeAllBallsFromPlay();
-    }
-    handleLevelTransitionCheatCodes(code);
-  }
-
-  private void handleLevelTransitionCheatCodes(KeyCode code) throws Exception {
-    // reset score whenever the cheat code is used to skip to a new level
-    // this prevents level transition cheat code from being used to "farm" high score
-    switch (code) {
-      case DIGIT0 -> {
-        removeGameElementsFromRoot();
-        showStartScreen();
-        isPlaying = false;
-      }
-      case DIGIT1 -> transitionLevelAndResetScore(1);
-      case DIGIT2 -> transitionLevelAndResetScore(2);
-      case DIGIT3 -> transitionLevelAndResetScore(3);
-      case DIGIT4 -> transitionLevelAndResetScore(4);
-      case DIGIT5 -> transitionLevelAndResetScore(5);
-      case DIGIT6 -> transitionLevelAndResetScore(6);
-      case DIGIT7 -> transitionLevelAndResetScore(7);
-      case DIGIT8 -> transitionLevelAndResetScore(8);
-      case DIGIT9 -> transitionLevelAndResetScore(9);
-    }
+  private void initializeOnKeyPressedHandler() {
+    gameScene.setOnKeyPressed(e -> {
+      activeKeys.add(e.getCode());  // store currently held down keys
+      handleKeyInput(e.getCode());
+    });
   }
 
-  private void transitionLevelAndResetScore(int levelNumber) throws Exception {
-    scoreManager.resetScore();
-    currentLevelNumber = levelNumber;
-    startNewLevelOrShowWinScreen(levelNumber);
+  private void initializeOnKeyReleasedHandler() {
+    gameScene.setOnKeyReleased(
+        e -> activeKeys.remove(e.getCode()));  // remove keys as they are released
   }
 
-  private void removeAllBallsFromPlay() {
-    Iterator<Ball> ballIterator = getGameBallIterator();
-    ballsInPlay = 0;
-    while (ballIterator.hasNext()) {
-      removeChildFromGameRoot(ballIterator.next());
-      ballIterator.remove();
+  private int getPlayerInput() {
+    int input = 0;
+    if (activeKeys.contains(KeyCode.LEFT)) {
+      input |= GameSimulation.MOVE_LEFT;
+    }
+    if (activeKeys.contains(KeyCode.RIGHT)) {
+      input |= GameSimulation.MOVE_RIGHT;
     }
+    if (activeKeys.contains(KeyCode.X)) {
+      input |= GameSimulation.EXPAND_PADDLE;
+    }
+    if (activeKeys.contains(KeyCode.C)) {
+      input |= GameSimulation.COLLAPSE_PADDLE;
+    }
+    return input;
   }
 
-  private void endGameAndShowEndScreen(boolean isWinner, String message) {
-    showEndScreen(isWinner, message +
-        "\nYour final score was: "
-        + scoreManager.getScore() + "\nHigh Score: "
-        + scoreManager.getHighScore());
-    isPlaying = false;
+  // What to do each time a key is pressed
+  private void handleKeyInput(KeyCode code) {
+    if (code == KeyCode.G) {
+      switchRenderer();
+    }
+    if (code == KeyCode.P) {
+      performanceOverlay.toggle();
+    }
+    if (code == KeyCode.A) {
+      gameShooter.togglePreview();
+    }
+    if (code == KeyCode.T) {
+      toggleBot();
+    }
+    session.pressKey(GameKey.fromName(code.name()));  // handled at the start of the next step
   }
 
+  // Let the bot play the game (for attract mode demos), or give control back to the player
+  private void toggleBot() {
+    if (bot == null) {
+      bot = new AutoAimBot(session);
+    } else {
+      bot.stop();
+      bot = null;
+    }
+  }
 
   private void showStartScreen() {
+    gameHud.setVisible(false);
     gameText.setTopText("BREAKOUT GAME\nBy: Owen Jennings", 24, GameConfig.TEXT_COLOR, true);
     gameText.setCenterText(gameRulesString, 15, GameConfig.BALL_COLOR, false);
-    gameText.setBottomText("Press SPACE to START", 18, GameConfig.TEXT_COLOR, false);
+    gameText.setBottomText("Press SPACE to START, or E for ENDLESS MODE", 18,
+        GameConfig.TEXT_COLOR, false);
   }
 
   private void showEndScreen(boolean isWinner, String message) {
+    gameHud.setVisible(false);
     if (isWinner) {
       gameText.setTopText("Congrats!\nYou won!", 30, GameConfig.TEXT_COLOR, true);
     } else {
@@ -383,17 +365,68 @@ public class GameManager {
     removeGameElementsFromRoot();
   }
 
+  // Swap between drawing with scene graph nodes and drawing onto a single canvas
+  private void switchRenderer() {
+    GameRenderer nextRenderer = (renderer == nodeRenderer) ? canvasRenderer : nodeRenderer;
+    if (session.isPlaying()) {
+      renderer.hideGameElements();
+      nextRenderer.showGameElements();
+      performanceOverlay.toFront();
+    }
+    renderer = nextRenderer;
+  }
+
   private void addGameElementsToRoot() {
-    addChildToGameRoot(gamePaddle);
-    addChildToGameRoot(gameShooter);
-    addChildToGameRoot(currentLevel);
+    renderer.showGameElements();
+    performanceOverlay.toFront();
   }
 
   private void removeGameElementsFromRoot() {
-    removeAllBallsFromPlay();
-    removeChildFromGameRoot(gamePaddle);
-    removeChildFromGameRoot(gameShooter);
-    removeChildFromGameRoot(currentLevel);
+    renderer.hideGameElements();  // the session has already removed the balls from play
+  }
+
+  // Run with -Dbreakout.seed=N to play a game that can be played again exactly
+  private static long getSeed() {
+    String seed = System.getProperty(GameConfig.SEED_PROPERTY);
+    return (seed == null) ? GameRandom.createSeed() : Long.parseLong(seed);
+  }
+
+  private void startRecordingIfRequested() throws IOException {
+    String path = System.getProperty(GameConfig.RECORD_PROPERTY);
+    if (path != null) {
+      recorder = new InputRecorder(Path.of(path), simulation.getRandom().getSeed());
+      session.setRecorder(recorder);
+    }
+  }
+
+  // Recover the best score saved by earlier runs of the game. A journal that cannot be opened never
+  // stops the game from starting; the scores are only kept in memory instead.
+  private void openScoreJournal() {
+    String directory = System.getProperty(GameConfig.SCORE_DIRECTORY_PROPERTY);
+    try {
+      scoreJournal = new ScoreJournal((directory != null) ? Path.of(directory)
+          : Path.of(System.getProperty("user.home"), GameConfig.SCORE_DIRECTORY_NAME));
+    } catch (IOException | RuntimeException e) {
+      LOGGER.log(WARNING, "Could not open the score journal, so scores will not be saved", e);
+      scoreJournal = new ScoreJournal();
+    }
+    simulation.getScoreManager().setHighScore(scoreJournal.getBestScore());
+  }
+
+  private String getRecentScoresText() {
+    StringBuilder text = new StringBuilder("\nRecent Scores:");
+    List<ScoreJournal.Entry> recentGames = scoreJournal.getRecentGames();
+    for (int i = 0; i < Math.min(GameConfig.END_SCREEN_RECENT_SCORES, recentGames.size()); i++) {
+      text.append(i == 0 ? " " : ", ").append(recentGames.get(i).getScore());
+    }
+    return text.toString();
+  }
+
+  private void startWatchingLevelsIfRequested() throws IOException {
+    String directory = System.getProperty(GameConfig.LEVEL_DIRECTORY_PROPERTY);
+    if (directory != null) {
+      levelWatcher = new LevelWatcher(Path.of(directory));
+    }
   }
 
 }
@@ -0,0 +1,115 @@
+package breakout;
+
+import java.util.SplittableRandom;
+import java.util.random.RandomGenerator;
+
+/**
+ * All the randomness in a game, derived from a single seed. Each use of randomness gets its own
+ * stream (ball entropy, mystery block power ups, one stream for each level that is started, and the
+ * seed endless mode generates its levels from), so that the same seed and the same player input
+ * always play out the same game, even though levels are prepared on background threads. Does not
+ * depend on JavaFX.
+ *
+ * @author Owen Jennings
+ */
+public class GameRandom {
+
+  private static final long BALL_STREAM = 1;
+  private static final long POWER_UP_STREAM = 2;
+  private static final long LEVEL_STREAM = 3;
+  private static final long ENDLESS_STREAM = 4;
+  private final long SEED;
+  private final SplittableRandom ballRandom;
+  private final SplittableRandom powerUpRandom;
+
+  /**
+   * Create the random streams for a game
+   *
+   * @param seed: the game's seed
+   */
+  public GameRandom(long seed) {
+    SEED = seed;
+    ballRandom = new SplittableRandom(mix(seed, BALL_STREAM));
+    powerUpRandom = new SplittableRandom(mix(seed, POWER_UP_STREAM));
+  }
+
+  /**
+   * Create a new seed for a game that does not need to be reproduced
+   *
+   * @return a seed that is different every time
+   */
+  public static long createSeed() {
+    return new SplittableRandom().nextLong();
+  }
+
+  /**
+   * Get the seed all the streams were derived from
+   *
+   * @return the game's seed
+   */
+  public long getSeed() {
+    return SEED;
+  }
+
+  /**
+   * Get the stream used to add entropy to ball bounces. Only use it on the simulation's thread.
+   *
+   * @return the ball stream
+   */
+  public RandomGenerator getBallRandom() {
+    return ballRandom;
+  }
+
+  /**
+   * Get the stream used to pick the power up a mystery block gives. Only use it on the simulation's
+   * thread.
+   *
+   * @return the power up stream
+   */
+  public RandomGenerator getPowerUpRandom() {
+    return powerUpRandom;
+  }
+
+  /**
+   * Create a new stream for placing a level's random power ups. The stream only depends on the
+   * seed, the level and how many levels were started before it, so it can be created and used on a
+   * background thread before the level starts.
+   *
+   * @param levelNumber: the level being prepared
+   * @param levelStart:  how many levels will have been started once this level starts
+   * @return a new stream for the level
+   */
+  public RandomGenerator createLevelRandom(int levelNumber, int levelStart) {
+    return new SplittableRandom(
+        mix(mix(mix(SEED, LEVEL_STREAM), levelNumber), levelStart));
+  }
+
+  /**
+   * Get the seed that endless mode generates its levels from, so that the same game seed always
+   * gives the same endless levels
+   *
+   * @return the seed for the LevelGenerator
+   */
+  public long getEndlessSeed() {
+    return mix(SEED, ENDLESS_STREAM);
+  }
+
+  /**
+   * Scramble a value so that similar values give unrelated results (the SplitMix64 finalizer).
+   * Used to derive seeds and to hash game states.
+   *
+   * @param value: the value to scramble
+   * @return the scrambled value
+   */
+  public static long getSeedHash(long value) {
+    long z = value;
+    z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+    z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+    return z ^ (z >>> 31);
+  }
+
+  private static long mix(long seed, long stream) {
+    return getSeedHash(seed + stream * 0x9E3779B97F4A7C15L);
+  }
+
+}
@@ -0,0 +1,31 @@
+package breakout;
+
+/**
+ * A rendering backend that draws the game elements (level, balls, paddle and shooter) from the
+ * GameSimulation's state. Renderers receive the simulation's changes as a SimulationListener, so
+ * they can keep any retained objects up to date between frames.
+ *
+ * @author Owen Jennings
+ */
+public interface GameRenderer extends SimulationListener {
+
+  /**
+   * Add the renderer's game elements to the screen, built from the simulation's current state.
+   * Called when a game starts, or when switching to this renderer in the middle of a game.
+   */
+  void showGameElements();
+
+  /**
+   * Remove the renderer's game elements from the screen. Called when a game ends, or when
+   * switching away from this renderer.
+   */
+  void hideGameElements();
+
+  /**
+   * Draw a frame, with moving elements interpolated between the last two simulation steps.
+   *
+   * @param alpha: how far between the previous step (0) and the current step (1) to draw
+   */
+  void render(double alpha);
+
+}
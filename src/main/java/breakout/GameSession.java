@@ -0,0 +1,428 @@
+package breakout;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+
+/**
+ * The flow of a game around its GameSimulation: the start and end screens, moving between levels,
+ * the shooter's aim and the cheat keys. Game keys are queued when they are pressed and handled at
+ * the start of the next step, so the whole game is decided by the seed, the keys pressed before
+ * each step and the held input given to each step. That makes a session replayable: an
+ * InputRecorder can record those keys and inputs, and an InputReplay can play them back into a new
+ * session with the same seed, headless and as fast as it can run. Does not depend on JavaFX.
+ *
+ * @author Owen Jennings
+ */
+public class GameSession {
+
+  public static final double SHOOTER_MOVEMENT_INTERVAL = Math.PI / 60;
+  public static final double SHOOTER_STARTING_ANGLE = Math.PI / 2;
+  public static final int REWIND_SNAPSHOT_INTERVAL = GameConfig.FRAMES_PER_SECOND / 4;
+  public static final int REWIND_TICKS = GameConfig.FRAMES_PER_SECOND * 3; // how far back Z goes
+  public static final int REWIND_SNAPSHOTS = 40;  // 10 seconds of snapshots
+  // room for a full level, twenty balls and a few score multipliers before a snapshot has to grow
+  public static final int REWIND_SNAPSHOT_SIZE = 4096;
+  // whether the player is on their first round and has the shooter, then the shooter's angle
+  private static final int SESSION_SNAPSHOT_SIZE = 2 + Double.BYTES;
+  private static final SessionListener NO_LISTENER = new SessionListener() {
+  };
+  private final GameSimulation simulation;
+  private final ArrayDeque<GameKey> pressedKeys = new ArrayDeque<>();
+  private final RewindBuffer rewindBuffer = new RewindBuffer(REWIND_SNAPSHOTS,
+      REWIND_SNAPSHOT_SIZE);
+  private SessionListener listener = NO_LISTENER;
+  private InputRecorder recorder;
+  private long tick = 0;
+  private int lastInput = 0;
+  private int currentLevelNumber;
+  private boolean isPlaying = false;
+  private boolean isFirstRound = true;
+  private double shooterAngle = SHOOTER_STARTING_ANGLE;
+  private boolean isShooterEnabled = false;
+  private boolean isEndless = false;
+
+  /**
+   * Create a session on the start screen, with a simulation using a new random seed
+   */
+  public GameSession() {
+    this(GameRandom.createSeed());
+  }
+
+  /**
+   * Create a session on the start screen. Two sessions with the same seed that are given the same
+   * keys and inputs play out exactly the same.
+   *
+   * @param seed: the seed for the simulation's randomness
+   */
+  public GameSession(long seed) {
+    simulation = new GameSimulation(seed);
+  }
+
+  /**
+   * Get the simulation that holds the game state
+   *
+   * @return the session's simulation
+   */
+  public GameSimulation getSimulation() {
+    return simulation;
+  }
+
+  /**
+   * Set the listener that is told about the game flow changes
+   *
+   * @param listener: the listener, or null to stop listening
+   */
+  public void setListener(SessionListener listener) {
+    this.listener = (listener == null) ? NO_LISTENER : listener;
+  }
+
+  /**
+   * Record every key and input given to the session from now on. Start recording before the first
+   * step, so that the recording can be replayed from the start.
+   *
+   * @param recorder: the recorder to write to, or null to stop recording
+   */
+  public void setRecorder(InputRecorder recorder) {
+    this.recorder = recorder;
+  }
+
+  /**
+   * Press a game key. The key is handled at the start of the next step.
+   *
+   * @param key: the key that was pressed
+   */
+  public void pressKey(GameKey key) {
+    pressedKeys.add(key);
+  }
+
+  /**
+   * Use an edited level file from now on (used by level hot reload). If the level is being played,
+   * only the cells that changed are applied to it, and the balls, paddle and score are left as they
+   * are; otherwise the level is started from the edited file the next time it is played. A game
+   * whose levels are reloaded no longer matches its recording.
+   *
+   * @param levelNumber: the level whose file was edited
+   * @param levelData:   the edited level
+   * @return the number of cells that changed in the level being played, or 0 if it is not being
+   * played
+   */
+  public int reloadLevel(int levelNumber, LevelData levelData) {
+    LevelCache fileLevels = LevelCache.getDefault();
+    if (!fileLevels.hasLevel(levelNumber)) {
+      return 0;
+    }
+    fileLevels.replaceLevel(levelNumber, levelData);
+    simulation.refreshPreparedLevel(levelNumber);
+    if (!isPlaying || levelNumber != currentLevelNumber) {
+      return 0;
+    }
+    rewindBuffer.clear(); // the snapshots hold the blocks from before the edit
+    return simulation.getLevel().applyLevelData(levelData);
+  }
+
+  /**
+   * Take a step in the game: handle the keys pressed since the last step, move to the next level or
+   * end the game if needed, then step the simulation if a game is being played. This should be
+   * called once for every GameConfig.SECOND_DELAY of time that has passed.
+   *
+   * @param input: the player's held input, as a combination of GameSimulation's input flags
+   * @throws Exception: any exceptions thrown while opening or loading a level, or writing the
+   *                    recording
+   */
+  public void step(int input) throws Exception {
+    tick++;
+    PhaseEvent keysEvent = PhaseEvent.start(PhaseEvent.KEYS);
+    while (!pressedKeys.isEmpty()) {
+      GameKey key = pressedKeys.poll();
+      if (recorder != null) {
+        recorder.recordKey(tick, key);
+      }
+      handleKey(key);
+    }
+    if (recorder != null && input != lastInput) {
+      recorder.recordInput(tick, input);
+    }
+    lastInput = input;
+    keysEvent.end(simulation);
+    PhaseEvent transitionsEvent = PhaseEvent.start(PhaseEvent.LEVEL_TRANSITIONS);
+    handleLevelTransitions();
+    transitionsEvent.end(simulation);
+    handleInGameLogic(input);
+    PhaseEvent rewindEvent = PhaseEvent.start(PhaseEvent.REWIND_SNAPSHOT);
+    captureRewindSnapshot();
+    rewindEvent.end(simulation);
+    if (recorder != null && tick % recorder.getHashInterval() == 0) {
+      recorder.recordHash(tick, getStateHash());
+    }
+  }
+
+  /**
+   * Get the snapshots the game can be rewound to
+   *
+   * @return the session's rewind buffer
+   */
+  public RewindBuffer getRewindBuffer() {
+    return rewindBuffer;
+  }
+
+  /**
+   * Get the number of steps the session has taken
+   *
+   * @return the session's current step
+   */
+  public long getTick() {
+    return tick;
+  }
+
+  /**
+   * Hash the session's state, including its simulation's state
+   *
+   * @return a hash that two sessions playing the same recording share after every step
+   */
+  public long getStateHash() {
+    long hash = simulation.getStateHash();
+    hash = GameRandom.getSeedHash(hash * 31 + currentLevelNumber);
+    hash = GameRandom.getSeedHash(hash * 31 + (isPlaying ? 1 : 0) + (isFirstRound ? 2 : 0)
+        + (isShooterEnabled ? 4 : 0) + (isEndless ? 8 : 0));
+    return GameRandom.getSeedHash(hash * 31 + Double.doubleToLongBits(shooterAngle));
+  }
+
+  /**
+   * Get the level being played
+   *
+   * @return the current level number
+   */
+  public int getCurrentLevelNumber() {
+    return currentLevelNumber;
+  }
+
+  /**
+   * Check if a game is being played, rather than the start or end screen being shown
+   *
+   * @return true if a game is being played
+   */
+  public boolean isPlaying() {
+    return isPlaying;
+  }
+
+  /**
+   * Get the current angle of the shooter's aim
+   *
+   * @return the angle in radians, where PI / 2 is straight up
+   */
+  public double getShooterAngle() {
+    return shooterAngle;
+  }
+
+  /**
+   * Check if the player has the shooter and can start their next life
+   *
+   * @return true if the shooter is enabled
+   */
+  public boolean isShooterEnabled() {
+    return isShooterEnabled;
+  }
+
+  /**
+   * Check if the game being played (or the last game played) is an endless game, where generated
+   * levels follow the level files and the game only ends when the player loses
+   *
+   * @return true if the game is endless
+   */
+  public boolean isEndless() {
+    return isEndless;
+  }
+
+  private void startGame(boolean endless) throws Exception {
+    isEndless = endless;
+    LevelCache fileLevels = LevelCache.getDefault();
+    simulation.setLevelSource(endless
+        ? new EndlessLevels(fileLevels, simulation.getRandom().getEndlessSeed()) : fileLevels);
+    startGame();
+  }
+
+  private void startGame() throws Exception {
+    currentLevelNumber = 1;
+    simulation.resetGame();
+    startLevel(currentLevelNumber);
+    isPlaying = true;
+    isFirstRound = true;
+    listener.onGameStarted();
+  }
+
+  private void handleLevelTransitions() throws Exception {
+    checkPlayerHasCompletedLevel();
+    checkPlayersOutOfLivesOrBalls();
+  }
+
+  private void checkPlayersOutOfLivesOrBalls() {
+    if (isPlaying && simulation.isOutOfLivesOrBalls()) {
+      // Player has run out of lives and all balls have fallen OR player has run out of balls
+      endGame(false, "You ran out of lives or balls and lost!");
+    }
+  }
+
+  private void checkPlayerHasCompletedLevel() throws Exception {
+    if (isPlaying
+        && simulation.getLevel().isComplete()) { // Player has successfully completed the current level
+      currentLevelNumber++;
+      if (currentLevelNumber > 1) {
+        simulation.getScoreManager().incrementScore(GameConfig.LEVEL_COMPLETE_SCORE);
+      }
+      startNewLevelOrShowWinScreen(currentLevelNumber);
+    }
+  }
+
+  private void startNewLevelOrShowWinScreen(int levelNumber) throws Exception {
+    if (!isPlaying) {
+      startGame();
+    }
+    if (!simulation.getLevelSource().hasLevel(
+        levelNumber)) {  // The player has finished the last level, show congratulations/final screen.
+      simulation.removeAllBallsFromPlay(); // remove all remaining balls from previous level
+      endGame(true, "You have won the game!");
+    }
+    if (simulation.getLevelSource().hasLevel(levelNumber)) {  // Start next level for player
+      startLevel(levelNumber); // also resets lives and removes balls from the previous level
+    }
+  }
+
+  private void startLevel(int levelNumber) throws Exception {
+    simulation.startLevel(levelNumber);
+    rewindBuffer.clear(); // snapshots can only be restored in the level they were taken in
+  }
+
+  private void handleInGameLogic(int input) {
+    if (isPlaying) {
+      simulation.step(GameConfig.SECOND_DELAY, input);
+      if (simulation.isReadyToShoot() && !isShooterEnabled) {
+        isShooterEnabled = true;
+        listener.onShooterEnabled();
+        attemptLevelDropAndCheckLossCondition();
+      }
+    }
+  }
+
+  private void attemptLevelDropAndCheckLossCondition() {
+    if (!isFirstRound
+        && !simulation.attemptLevelDrop()) {  // end game if the row drops below the game area
+      endGame(false, "The blocks reached the bottom of the level!");
+    }
+  }
+
+  // What to do each time a key is pressed
+  private void handleKey(GameKey key) throws Exception {
+    if (key == GameKey.Z) {
+      rewind(); // the rewound state decides if the player is still on their first round
+      return;
+    }
+    handleCheatCodes(key);
+    if (!isPlaying && key == GameKey.SPACE) {
+      startGame(false);
+    } else if (!isPlaying && key == GameKey.E) {
+      startGame(true);
+    } else if (!isPlaying && key == GameKey.R) {
+      startGame(isEndless); // play again in the same mode
+    } else if (isPlaying && simulation.getBallsInPlay() == 0) {
+      handleShooterActions(key);
+      isFirstRound = false;
+    }
+  }
+
+  private void handleCheatCodes(GameKey key) throws Exception {
+    switch (key) {
+      case L -> simulation.increaseLives();
+      case B -> simulation.increaseGameBallCount();
+      case V -> simulation.decreaseGameBallCount();
+      case S -> simulation.removeAllBallsFromPlay();
+    }
+    handleLevelTransitionCheatCodes(key);
+  }
+
+  private void handleLevelTransitionCheatCodes(GameKey key) throws Exception {
+    // reset score whenever the cheat code is used to skip to a new level
+    // this prevents level transition cheat code from being used to "farm" high score
+    int digit = key.getDigit();
+    if (digit == 0) {
+      simulation.removeAllBallsFromPlay();
+      isPlaying = false;
+      listener.onStartScreenShown();
+    } else if (digit > 0) {
+      transitionLevelAndResetScore(digit);
+    }
+  }
+
+  private void transitionLevelAndResetScore(int levelNumber) throws Exception {
+    simulation.getScoreManager().resetScore();
+    currentLevelNumber = levelNumber;
+    startNewLevelOrShowWinScreen(levelNumber);
+  }
+
+  // Snapshots are only taken during play, every REWIND_SNAPSHOT_INTERVAL steps
+  private void captureRewindSnapshot() {
+    if (isPlaying && tick % REWIND_SNAPSHOT_INTERVAL == 0) {
+      ByteBuffer snapshot = rewindBuffer.startSnapshot(tick,
+          SESSION_SNAPSHOT_SIZE + simulation.getSnapshotSize());
+      snapshot.put((byte) (isFirstRound ? 1 : 0));
+      snapshot.put((byte) (isShooterEnabled ? 1 : 0));
+      snapshot.putDouble(shooterAngle);
+      simulation.writeSnapshot(snapshot);
+    }
+  }
+
+  // Go back to the state from about REWIND_TICKS steps ago, as far back as the level's start
+  private void rewind() {
+    ByteBuffer snapshot = isPlaying ? rewindBuffer.rewindTo(tick - REWIND_TICKS) : null;
+    if (snapshot == null) {
+      return;
+    }
+    isFirstRound = snapshot.get() != 0;
+    boolean wasShooterEnabled = snapshot.get() != 0;
+    shooterAngle = snapshot.getDouble();
+    simulation.readSnapshot(snapshot);
+    if (isShooterEnabled) {
+      isShooterEnabled = false;
+      listener.onShooterDisabled();
+    }
+    if (wasShooterEnabled) {
+      isShooterEnabled = true;
+      listener.onShooterEnabled();
+    }
+    listener.onShooterAimChanged(shooterAngle);
+  }
+
+  private void endGame(boolean isWinner, String message) {
+    simulation.removeAllBallsFromPlay();
+    isPlaying = false;
+    listener.onGameEnded(isWinner, message);
+  }
+
+  // Shoot, move the aim left or move the aim right
+  private void handleShooterActions(GameKey key) {
+    if (isShooterEnabled) {
+      if (key == GameKey.SPACE) {
+        // the simulation launches the balls one at a time, following the game's clock
+        simulation.shoot(shooterAngle);
+        isShooterEnabled = false;
+        listener.onShooterDisabled();
+      }
+      moveShooterAim(key);
+    }
+  }
+
+  private void moveShooterAim(GameKey key) {
+    if (key == GameKey.RIGHT) {
+      setShooterAngle(shooterAngle - SHOOTER_MOVEMENT_INTERVAL);
+    }
+    if (key == GameKey.LEFT) {
+      setShooterAngle(shooterAngle + SHOOTER_MOVEMENT_INTERVAL);
+    }
+  }
+
+  private void setShooterAngle(double angle) {
+    shooterAngle = Math.clamp(angle, GameSimulation.MIN_LAUNCH_ANGLE,
+        GameSimulation.MAX_LAUNCH_ANGLE);
+    listener.onShooterAimChanged(shooterAngle);
+  }
+
+}
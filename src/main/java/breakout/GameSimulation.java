@@ -0,0 +1,628 @@
+package breakout;
+
+import static breakout.GameConfig.HEIGHT;
+import static breakout.GameConfig.INITIAL_NUM_LIVES;
+
+import breakout.TimerWheel.Timer;
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.random.RandomGenerator;
+
+/**
+ * The headless game simulation. Holds all the state that the game rules act on (the level, the
+ * paddle, the balls in play, lives, ball counts and score) as plain data, and steps it forward
+ * without needing JavaFX or an FX thread. The GameManager and the JavaFX node classes are views over
+ * this state, and are notified of changes through a SimulationListener. Timed effects (launching
+ * balls from the shooter, score multipliers running out) run on a TimerWheel that is ticked once
+ * per step, so they follow game time rather than the wall clock.
+ *
+ * @author Owen Jennings
+ */
+public class GameSimulation {
+
+  // Input flags, combined into a single int for each step
+  public static final int MOVE_LEFT = 1;
+  public static final int MOVE_RIGHT = 1 << 1;
+  public static final int EXPAND_PADDLE = 1 << 2;
+  public static final int COLLAPSE_PADDLE = 1 << 3;
+  public static final double LAUNCH_X = GameConfig.MIDDLE_WIDTH;
+  public static final double LAUNCH_Y =
+      HEIGHT - GameConfig.BLOCK_SIZE * (LevelModel.BOTTOM_OFFSET - 1) - 10;
+  public static final double MIN_LAUNCH_ANGLE = Math.PI / 20;
+  public static final double MAX_LAUNCH_ANGLE = Math.PI - Math.PI / 20;
+  public static final long LAUNCH_INTERVAL_TICKS =
+      TimerWheel.secondsToTicks(GameConfig.BALL_RELEASE_DELAY);
+  public static final long SCORE_MULTIPLIER_TICKS =
+      TimerWheel.secondsToTicks(GameConfig.SCORE_MULTIPLIER_TIMEOUT);
+  private static final SimulationListener NO_LISTENER = new SimulationListener() {
+  };
+  // lives, ball counts, score, multiplier, paddle, launch, and the number of multipliers and balls
+  private static final int SNAPSHOT_HEADER_SIZE = 7 * Integer.BYTES + 4 * Double.BYTES;
+  // a ball's position, speed and direction, and whether it is waiting to be launched
+  private static final int BALL_SNAPSHOT_SIZE = 5 * Double.BYTES + Long.BYTES + 1;
+  private final GameRandom random;
+  private final ScoreManager scoreManager;
+  private final LevelModel level;
+  private final PaddleModel paddle;
+  private final BallSystem ballSystem = new BallSystem();
+  private final ArrayList<BallModel> ballsToLaunch = new ArrayList<>();
+  private final TimerWheel timers = new TimerWheel();
+  private final Timer launchTimer = new Timer(this::launchScheduledBall);
+  private final List<Timer> scoreMultiplierTimers = new ArrayList<>();
+  private final ArrayDeque<Timer> idleScoreMultiplierTimers = new ArrayDeque<>();
+  private double launchAngle;
+  private CompletableFuture<PreparedLevel> nextLevel; // the next level, prepared in the background
+  private int nextLevelNumber;
+  private int nextLevelStart;
+  private int levelStarts = 0; // how many levels have been started, which seeds each level
+  private boolean preparesNextLevel = true;
+  private LevelSource levelSource = LevelCache.getDefault();
+  private SimulationListener listener = NO_LISTENER;
+  private int gameBallCount = 1;
+  private int ballsInPlay = 0;
+  private int livesLeft = INITIAL_NUM_LIVES;
+
+  /**
+   * Create a new simulation with an empty level and the paddle in its starting position, and a new
+   * random seed
+   */
+  public GameSimulation() {
+    this(GameRandom.createSeed());
+  }
+
+  /**
+   * Create a new simulation with an empty level and the paddle in its starting position. Two
+   * simulations with the same seed that are given the same calls play out exactly the same.
+   *
+   * @param seed: the seed for all the simulation's randomness
+   */
+  public GameSimulation(long seed) {
+    random = new GameRandom(seed);
+    scoreManager = new ScoreManager();
+    level = new LevelModel(this, GameConfig.BLOCK_SIZE);
+    paddle = new PaddleModel(getPaddleStartingX(),
+        HEIGHT - GameConfig.BLOCK_SIZE * (LevelModel.BOTTOM_OFFSET - 1),
+        GameConfig.INITIAL_PADDLE_WIDTH, 5, GameConfig.PADDLE_SPEED);
+  }
+
+  /**
+   * Get the simulation's randomness, which is all derived from its seed
+   *
+   * @return the simulation's random streams
+   */
+  public GameRandom getRandom() {
+    return random;
+  }
+
+  /**
+   * Get the timer wheel that the simulation's timed effects run on. Views can schedule their own
+   * timers on it, so that they follow game time too.
+   *
+   * @return the simulation's timer wheel, which ticks once per step
+   */
+  public TimerWheel getTimers() {
+    return timers;
+  }
+
+  /**
+   * Set the listener that is notified of changes to the simulation
+   *
+   * @param listener: the listener, or null to stop notifying anything
+   */
+  public void setListener(SimulationListener listener) {
+    this.listener = (listener == null) ? NO_LISTENER : listener;
+  }
+
+  /**
+   * Get the listener that is notified of changes to the simulation
+   *
+   * @return the current listener (never null)
+   */
+  public SimulationListener getListener() {
+    return listener;
+  }
+
+  /**
+   * Check if anything is listening to the simulation, as the game's view does. Bot rollouts and
+   * batch games run without a listener.
+   *
+   * @return true if a listener has been set
+   */
+  public boolean hasListener() {
+    return listener != NO_LISTENER;
+  }
+
+  /**
+   * Get the current game's score manager object
+   *
+   * @return Current game's score manager object
+   */
+  public ScoreManager getScoreManager() {
+    return scoreManager;
+  }
+
+  /**
+   * Get the current level
+   *
+   * @return the level model for the current level
+   */
+  public LevelModel getLevel() {
+    return level;
+  }
+
+  /**
+   * Get the paddle
+   *
+   * @return the paddle model
+   */
+  public PaddleModel getPaddle() {
+    return paddle;
+  }
+
+  /**
+   * Get all the balls that are currently in the game, including ones waiting to be launched
+   *
+   * @return a List of the balls in the game
+   */
+  public List<BallModel> getBalls() {
+    return ballSystem.getBalls();
+  }
+
+  /**
+   * Get the system that stores and steps the balls in the game, for code that works with every
+   * ball at once
+   *
+   * @return the ball system
+   */
+  public BallSystem getBallSystem() {
+    return ballSystem;
+  }
+
+  /**
+   * Get the number of balls that the user has
+   *
+   * @return The game ball count
+   */
+  public int getGameBallCount() {
+    return gameBallCount;
+  }
+
+  /**
+   * Increase the number of balls a player has by 1. This will not spawn any balls, but will allow
+   * them to have more balls for the next "point"
+   */
+  public void increaseGameBallCount() {
+    gameBallCount++;
+  }
+
+  /**
+   * Decrease the number of balls a player has by 1. This does not de-spawn any balls but removes 1
+   * from a players current ball count
+   */
+  public void decreaseGameBallCount() {
+    if (gameBallCount > 0) {
+      gameBallCount--;
+    }
+  }
+
+  /**
+   * Get the number of balls that are currently in motion
+   *
+   * @return The total number of balls in play
+   */
+  public int getBallsInPlay() {
+    return ballsInPlay;
+  }
+
+  /**
+   * Get the number of lives the player has left
+   *
+   * @return lives remaining
+   */
+  public int getLivesLeft() {
+    return livesLeft;
+  }
+
+  /**
+   * Give the player one more life
+   */
+  public void increaseLives() {
+    livesLeft++;
+  }
+
+  /**
+   * Reset the lives, score and paddle position for a new game. Any score multipliers from the last
+   * game are cancelled.
+   */
+  public void resetGame() {
+    livesLeft = INITIAL_NUM_LIVES;
+    cancelScoreMultipliers();
+    scoreManager.resetScore();
+    paddle.setX(getPaddleStartingX());
+  }
+
+  /**
+   * Set whether the level after the current one is prepared in the background while the current
+   * level is played. This is on by default, so that a level transition does not have to wait for
+   * the next level to be loaded; headless simulations that only play one level can turn it off.
+   *
+   * @param preparesNextLevel: true to prepare the next level in the background
+   */
+  public void setPreparesNextLevel(boolean preparesNextLevel) {
+    this.preparesNextLevel = preparesNextLevel;
+  }
+
+  /**
+   * Set where the levels are loaded from, such as EndlessLevels for an endless game. The level
+   * being played is not changed, and any level prepared in the background is thrown away.
+   *
+   * @param levelSource: the source of the levels started from now on
+   */
+  public void setLevelSource(LevelSource levelSource) {
+    this.levelSource = levelSource;
+    nextLevel = null;
+  }
+
+  /**
+   * Get where the levels are loaded from
+   *
+   * @return the simulation's level source, which is the game's LevelCache by default
+   */
+  public LevelSource getLevelSource() {
+    return levelSource;
+  }
+
+  /**
+   * Prepare a level again from the level source if it was already prepared in the background, such
+   * as after its level file has been reloaded
+   *
+   * @param levelNumber: the level whose data changed
+   */
+  public void refreshPreparedLevel(int levelNumber) {
+    if (nextLevel != null && nextLevelNumber == levelNumber) {
+      nextLevel = null;
+      prepareNextLevel(nextLevelNumber, nextLevelStart);
+    }
+  }
+
+  /**
+   * Remove any balls from the previous level, reset the player's lives and load the provided
+   * level. If the level was prepared in the background while the previous level was played, its
+   * blocks are swapped in without loading anything.
+   *
+   * @param levelNumber: the level to load
+   * @throws Exception: any exceptions thrown while opening or loading the level
+   */
+  public void startLevel(int levelNumber) throws Exception {
+    livesLeft = INITIAL_NUM_LIVES;
+    removeAllBallsFromPlay();
+    levelStarts++;
+    level.startLevel(takePreparedLevel(levelNumber, levelStarts));
+    gameBallCount = level.getStartingBalls();
+    prepareNextLevel(levelNumber + 1, levelStarts + 1);
+  }
+
+  /**
+   * Take a step in the simulation: fire any timed effects that are due, move all the balls and
+   * handle their collisions, then move the paddle according to the player's input.
+   *
+   * @param elapsedTime: the amount of time that has passed since the last step
+   * @param input:       the player's current input, as a combination of the input flags
+   */
+  public void step(double elapsedTime, int input) {
+    PhaseEvent timersEvent = PhaseEvent.start(PhaseEvent.TIMERS);
+    timers.tick();
+    timersEvent.end(this);
+    savePreviousPositions();
+    PhaseEvent ballsEvent = PhaseEvent.start(PhaseEvent.BALLS);
+    stepBalls(elapsedTime);
+    ballsEvent.end(this);
+    PhaseEvent paddleEvent = PhaseEvent.start(PhaseEvent.PADDLE);
+    paddle.moveAndHandleExpandAndCollapse(ballsInPlay > 0, input);
+    paddleEvent.end(this);
+  }
+
+  /**
+   * Get the most bytes writeSnapshot() can write for the current state
+   *
+   * @return the size of a snapshot of the current state
+   */
+  public int getSnapshotSize() {
+    return SNAPSHOT_HEADER_SIZE + scoreMultiplierTimers.size() * Long.BYTES
+        + ballSystem.size() * BALL_SNAPSHOT_SIZE + level.getSnapshotSize();
+  }
+
+  /**
+   * Write the state of the level being played to a snapshot: lives, balls, score, score
+   * multipliers, the paddle, every ball (including the ones waiting to be launched) and every
+   * block. Nothing is allocated, so a snapshot can be taken during play. The high score and the
+   * random streams are not part of a snapshot.
+   *
+   * @param snapshot: the buffer to write to, which must have getSnapshotSize() bytes remaining
+   */
+  public void writeSnapshot(ByteBuffer snapshot) {
+    snapshot.putInt(livesLeft);
+    snapshot.putInt(gameBallCount);
+    snapshot.putInt(ballsInPlay);
+    snapshot.putInt(scoreManager.getScore());
+    snapshot.putInt(scoreManager.getScoreMultiplier());
+    snapshot.putDouble(paddle.getX());
+    snapshot.putDouble(paddle.getWidth());
+    snapshot.putDouble(launchAngle);
+    snapshot.putLong(timers.getRemainingTicks(launchTimer));
+    snapshot.putInt(scoreMultiplierTimers.size());
+    for (Timer timer : scoreMultiplierTimers) {
+      snapshot.putLong(timers.getRemainingTicks(timer));
+    }
+    snapshot.putInt(ballSystem.size());
+    // the balls waiting to be launched are always the last balls that were added
+    int firstWaitingBall = ballSystem.size() - ballsToLaunch.size();
+    for (int i = 0; i < ballSystem.size(); i++) {
+      snapshot.putDouble(ballSystem.getX(i));
+      snapshot.putDouble(ballSystem.getY(i));
+      snapshot.putDouble(ballSystem.getSpeed(i));
+      snapshot.putDouble(ballSystem.getDirectionX(i));
+      snapshot.putDouble(ballSystem.getDirectionY(i));
+      snapshot.putLong(ballSystem.getEntropyState(i));
+      snapshot.put((byte) (i >= firstWaitingBall ? 1 : 0));
+    }
+    level.writeBlocks(snapshot);
+  }
+
+  /**
+   * Go back to the state written to a snapshot by writeSnapshot(). The balls and blocks are
+   * recreated from the snapshot instead of loading the level again, so the snapshot must have been
+   * taken in the level being played. Timed effects resume with the time they had left.
+   *
+   * @param snapshot: the buffer to read from
+   */
+  public void readSnapshot(ByteBuffer snapshot) {
+    removeAllBallsFromPlay();
+    cancelScoreMultipliers();
+    livesLeft = snapshot.getInt();
+    gameBallCount = snapshot.getInt();
+    int snapshotBallsInPlay = snapshot.getInt();
+    scoreManager.setScore(snapshot.getInt());
+    scoreManager.setScoreMultiplier(snapshot.getInt());
+    paddle.setX(snapshot.getDouble());
+    paddle.setWidth(snapshot.getDouble());
+    launchAngle = snapshot.getDouble();
+    long launchTicks = snapshot.getLong();
+    int multiplierCount = snapshot.getInt();
+    for (int i = 0; i < multiplierCount; i++) {
+      scheduleScoreMultiplierTimer(snapshot.getLong());
+    }
+    int ballCount = snapshot.getInt();
+    for (int i = 0; i < ballCount; i++) {
+      BallModel ball = ballSystem.add(snapshot.getDouble(), snapshot.getDouble(),
+          GameConfig.BALL_RADIUS, snapshot.getDouble(), snapshot.getDouble(), snapshot.getDouble(),
+          snapshot.getLong());
+      if (snapshot.get() != 0) {
+        ballsToLaunch.add(ball);
+      }
+      listener.onBallAdded(ball);
+    }
+    ballsInPlay = snapshotBallsInPlay;
+    if (launchTicks >= 0) {
+      timers.schedule(launchTimer, launchTicks);
+    }
+    level.readBlocks(snapshot);
+  }
+
+  /**
+   * Hash everything that decides how the game plays out from here: lives, balls, score, the
+   * paddle, every ball and block, and the simulation's clock. Two simulations with the same seed
+   * and input have the same hash after every step, so a replay can check that it has not diverged
+   * from the game it is replaying. The high score is left out, because it is carried over from
+   * earlier runs of the game and does not change how the game plays.
+   *
+   * @return a hash of the simulation's state
+   */
+  public long getStateHash() {
+    long hash = mixHash(GameRandom.getSeedHash(random.getSeed()), timers.getTick());
+    hash = mixHash(hash, livesLeft);
+    hash = mixHash(hash, gameBallCount);
+    hash = mixHash(hash, ballsInPlay);
+    hash = mixHash(hash, scoreManager.getScore());
+    hash = mixHash(hash, scoreManager.getScoreMultiplier());
+    hash = mixHash(hash, Double.doubleToLongBits(paddle.getX()));
+    hash = mixHash(hash, Double.doubleToLongBits(paddle.getWidth()));
+    for (int i = 0; i < ballSystem.size(); i++) {
+      hash = mixHash(hash, Double.doubleToLongBits(ballSystem.getX(i)));
+      hash = mixHash(hash, Double.doubleToLongBits(ballSystem.getY(i)));
+      hash = mixHash(hash, Double.doubleToLongBits(ballSystem.getDirectionX(i)));
+      hash = mixHash(hash, Double.doubleToLongBits(ballSystem.getDirectionY(i)));
+      hash = mixHash(hash, Double.doubleToLongBits(ballSystem.getSpeed(i)));
+    }
+    for (BlockModel block : level.getBlocks()) {
+      hash = mixHash(hash, Double.doubleToLongBits(block.getX()));
+      hash = mixHash(hash, Double.doubleToLongBits(block.getY()));
+      hash = mixHash(hash, block.getBlockType().ordinal());
+      hash = mixHash(hash, block.getHealth());
+    }
+    return hash;
+  }
+
+  /**
+   * Check if the player should be given the shooter to start their next life
+   *
+   * @return true if the player has balls remaining and none are currently in play
+   */
+  public boolean isReadyToShoot() {
+    return gameBallCount > 0 && ballsInPlay == 0;
+  }
+
+  /**
+   * Check if the player has lost by running out of lives or balls
+   *
+   * @return true if no balls are in play and the player is out of lives or balls
+   */
+  public boolean isOutOfLivesOrBalls() {
+    return (ballsInPlay == 0 && livesLeft <= 0) || (ballsInPlay == 0 && gameBallCount <= 0);
+  }
+
+  /**
+   * Attempt to drop the level by one row (if gravity is enabled in the level).
+   *
+   * @return true if the player can continue, false if the blocks reached the bottom of the level
+   */
+  public boolean attemptLevelDrop() {
+    if (!level.checkCanDropOneRowAndAttemptDrop()) {
+      ballsInPlay = 0;
+      return false;
+    }
+    return true;
+  }
+
+  /**
+   * Start a life by using the shooter: spawns all the player's balls at the launch point. The
+   * balls will not move until they are launched with launchNextBall().
+   */
+  public void shoot() {
+    livesLeft--;
+    ballsToLaunch.clear();
+    for (int i = 0; i < gameBallCount; i++) {
+      BallModel ball = ballSystem.add(LAUNCH_X, LAUNCH_Y, GameConfig.BALL_RADIUS,
+          GameConfig.BALL_SPEED, 0, 0, random.getBallRandom().nextLong());
+      ballsToLaunch.add(ball);
+      listener.onBallAdded(ball);
+    }
+    ballsInPlay = gameBallCount;
+  }
+
+  /**
+   * Start a life by using the shooter, and launch the balls one at a time at the provided angle,
+   * one every GameConfig.BALL_RELEASE_DELAY seconds of game time.
+   *
+   * @param angle: the shooter angle to launch the balls at
+   */
+  public void shoot(double angle) {
+    shoot();
+    launchAngle = angle;
+    if (!ballsToLaunch.isEmpty()) {
+      timers.schedule(launchTimer, LAUNCH_INTERVAL_TICKS);
+    }
+  }
+
+  /**
+   * Set the next ball waiting at the launch point into motion
+   *
+   * @param angle: the shooter angle to launch the ball at
+   * @return true if a ball was launched, false if there were no balls waiting
+   */
+  public boolean launchNextBall(double angle) {
+    if (ballsToLaunch.isEmpty()) {
+      return false;
+    }
+    BallModel ball = ballsToLaunch.removeFirst();
+    ball.updateDirectionX(Math.cos(angle));
+    ball.updateDirectionY(-Math.sin(angle));
+    return true;
+  }
+
+  /**
+   * Remove all the balls currently in the game, including ones waiting to be launched
+   */
+  public void removeAllBallsFromPlay() {
+    ballsInPlay = 0;
+    ballsToLaunch.clear();
+    timers.cancel(launchTimer);
+    ballSystem.clear(listener);
+  }
+
+  /**
+   * Multiply all points gained by 2 for GameConfig.SCORE_MULTIPLIER_TIMEOUT seconds of game time
+   */
+  public void startScoreMultiplier() {
+    scoreManager.setScoreMultiplier(scoreManager.getScoreMultiplier() * 2);
+    scheduleScoreMultiplierTimer(SCORE_MULTIPLIER_TICKS);
+    listener.onScoreMultiplierStarted();
+  }
+
+  /**
+   * Undo a previous startScoreMultiplier(). Score multipliers are undone automatically when they
+   * time out.
+   */
+  public void expireScoreMultiplier() {
+    scoreManager.setScoreMultiplier(scoreManager.getScoreMultiplier() / 2);
+  }
+
+  private void launchScheduledBall(Timer timer) {
+    if (launchNextBall(launchAngle) && !ballsToLaunch.isEmpty()) {
+      timers.schedule(timer, LAUNCH_INTERVAL_TICKS);
+    }
+  }
+
+  private void scheduleScoreMultiplierTimer(long ticks) {
+    Timer timer = idleScoreMultiplierTimers.poll();
+    if (timer == null) {
+      timer = new Timer(this::onScoreMultiplierTimedOut);
+    }
+    scoreMultiplierTimers.add(timer);
+    timers.schedule(timer, ticks);
+  }
+
+  private void cancelScoreMultipliers() {
+    for (Timer timer : scoreMultiplierTimers) {
+      timers.cancel(timer);
+      idleScoreMultiplierTimers.push(timer);
+    }
+    scoreMultiplierTimers.clear();
+  }
+
+  private void onScoreMultiplierTimedOut(Timer timer) {
+    scoreMultiplierTimers.remove(timer);
+    idleScoreMultiplierTimers.push(timer);
+    expireScoreMultiplier();
+  }
+
+  private PreparedLevel takePreparedLevel(int levelNumber, int levelStart) throws Exception {
+    CompletableFuture<PreparedLevel> preparedLevel = nextLevel;
+    nextLevel = null;
+    if (preparedLevel != null && nextLevelNumber == levelNumber
+        && nextLevelStart == levelStart) {
+      try {
+        return preparedLevel.join();  // usually finished long ago
+      } catch (RuntimeException e) {
+        // fall through and load the level here, which will report the error
+      }
+    }
+    return level.prepareLevel(levelSource.getLevel(levelNumber),
+        random.createLevelRandom(levelNumber, levelStart));
+  }
+
+  private void prepareNextLevel(int levelNumber, int levelStart) {
+    if (preparesNextLevel && levelSource.hasLevel(levelNumber)) {
+      nextLevelNumber = levelNumber;
+      nextLevelStart = levelStart;
+      // the level's random stream is created now, so the level is the same whichever thread
+      // prepares it
+      RandomGenerator levelRandom = random.createLevelRandom(levelNumber, levelStart);
+      nextLevel = levelSource.getLevelAsync(levelNumber)
+          .thenApplyAsync(levelData -> level.prepareLevel(levelData, levelRandom),
+              LevelCache.BACKGROUND_THREADS);
+    }
+  }
+
+  private void savePreviousPositions() {
+    ballSystem.savePreviousPositions();
+    paddle.savePreviousPosition();
+  }
+
+  private void stepBalls(double elapsedTime) {
+    // Balls that reach the floor are removed by the system
+    ballsInPlay -= ballSystem.step(elapsedTime, level, paddle, listener);
+  }
+
+  private static long mixHash(long hash, long value) {
+    return GameRandom.getSeedHash(hash * 31 + value);
+  }
+
+  private static double getPaddleStartingX() {
+    return GameConfig.MIDDLE_WIDTH - GameConfig.INITIAL_PADDLE_WIDTH / 2;
+  }
+
+}
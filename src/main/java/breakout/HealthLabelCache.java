@@ -0,0 +1,157 @@
+package breakout;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import javafx.scene.paint.Color;
+import javafx.scene.text.Font;
+import javafx.scene.text.Text;
+
+/**
+ * Caches what a block needs to draw its health: the health's text and its measured size in each
+ * font, and the color for each health ratio. Each health value is laid out once per font the
+ * first time it is shown, so updating a block's health label (for every block at once when the
+ * block destroyer is hit) is a couple of lookups instead of text layout work. Health colors come
+ * from a palette of HEALTH_COLOR_STEPS colors, which is fine enough that neighbouring colors differ
+ * by at most one step in each color channel. Must be used on the JavaFX thread.
+ *
+ * @author Owen Jennings
+ */
+public class HealthLabelCache {
+
+  public static final int HEALTH_COLOR_STEPS = 256;
+  private static final Color[] HEALTH_COLORS = createHealthColors();
+  private static HealthLabelCache instance;
+  private final Map<Font, HealthLabel[]> labels = new HashMap<>();
+  private final Text measuringText = new Text();
+
+  private HealthLabelCache() {
+  }
+
+  /**
+   * Get the cache shared by every block
+   *
+   * @return the health label cache
+   */
+  public static HealthLabelCache getInstance() {
+    if (instance == null) {
+      instance = new HealthLabelCache();
+    }
+    return instance;
+  }
+
+  /**
+   * Get the text and size of a health label, measuring it the first time it is used
+   *
+   * @param font:   The font the label is drawn in
+   * @param health: The health to display, which must not be negative
+   * @return the health's label in the font
+   */
+  public HealthLabel getLabel(Font font, int health) {
+    HealthLabel[] fontLabels = labels.get(font);
+    if (fontLabels == null || health >= fontLabels.length) {
+      fontLabels = growLabels(font, fontLabels, health);
+    }
+    HealthLabel label = fontLabels[health];
+    if (label == null) {
+      label = measureLabel(font, health);
+      fontLabels[health] = label;
+    }
+    return label;
+  }
+
+  /**
+   * Get the color used to display a block's health, which changes from green to red as the block
+   * loses health. The health ratio is rounded to the nearest of HEALTH_COLOR_STEPS colors.
+   *
+   * @param health:        The block's current health
+   * @param initialHealth: The health the block started with
+   * @return the color for the block's health text
+   */
+  public static Color getHealthColor(int health, int initialHealth) {
+    double healthRatio = Math.clamp((double) health / initialHealth, 0, 1);
+    return HEALTH_COLORS[(int) Math.round(healthRatio * (HEALTH_COLOR_STEPS - 1))];
+  }
+
+  private HealthLabel[] growLabels(Font font, HealthLabel[] fontLabels, int health) {
+    // healths only go down, so most fonts only ever need the starting healths of the level
+    int length = Integer.highestOneBit(Math.max(health, 1)) * 2;
+    HealthLabel[] grown = (fontLabels == null) ? new HealthLabel[length]
+        : Arrays.copyOf(fontLabels, length);
+    labels.put(font, grown);
+    return grown;
+  }
+
+  private HealthLabel measureLabel(Font font, int health) {
+    String text = GameHud.formatNumber(health);
+    measuringText.setFont(font);
+    measuringText.setText(text);
+    return new HealthLabel(text, measuringText.getBoundsInLocal().getWidth(),
+        measuringText.getBoundsInLocal().getHeight());
+  }
+
+  private static Color[] createHealthColors() {
+    Color[] colors = new Color[HEALTH_COLOR_STEPS];
+    for (int step = 0; step < HEALTH_COLOR_STEPS; step++) {
+      colors[step] = createHealthColor((double) step / (HEALTH_COLOR_STEPS - 1));
+    }
+    return colors;
+  }
+
+  private static Color createHealthColor(double healthRatio) {
+    // I asked ChatGPT how to create a color that dynamically changes based on a ratio of health remaining
+    // Interpolate between green (full health) and red (no health)
+    int red = (int) (255 * healthRatio * 0.8 + 150);   // Red increases as health decreases
+    int green = (int) (255 * (1 - healthRatio)
+        + 100);       // Green decreases as health decreases
+    int blue = 100;         // Blue shifts from pastel blue to light peach
+    red = Math.min(red, 255);
+    green = Math.min(green, 255);
+    return Color.rgb(red, green, blue);
+  }
+
+  /**
+   * The text of a health value and its size when drawn in a font
+   */
+  public static class HealthLabel {
+
+    private final String text;
+    private final double width;
+    private final double height;
+
+    private HealthLabel(String text, double width, double height) {
+      this.text = text;
+      this.width = width;
+      this.height = height;
+    }
+
+    /**
+     * Get the label's text
+     *
+     * @return the health as text
+     */
+    public String getText() {
+      return text;
+    }
+
+    /**
+     * Get the label's width
+     *
+     * @return the width of the text in its font
+     */
+    public double getWidth() {
+      return width;
+    }
+
+    /**
+     * Get the label's height
+     *
+     * @return the height of the text in its font
+     */
+    public double getHeight() {
+      return height;
+    }
+
+  }
+
+}
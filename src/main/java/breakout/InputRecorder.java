@@ -0,0 +1,174 @@
+package breakout;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Records a GameSession as the keys pressed and the held input at each step, which (with the
+ * session's seed) is all that is needed to play the game again. A recording is a header followed by
+ * entries, and each entry starts with a variable-length number holding the steps since the last
+ * entry and the entry's type, so a typical entry is two or three bytes and minutes of play fit in a
+ * few kilobytes:
+ * <ul>
+ *   <li>INPUT: the held input changed to the following number</li>
+ *   <li>KEY: the game key with the following ordinal was pressed</li>
+ *   <li>HASH: the session's state hash after the step, as four bytes, written every
+ *   hash interval steps so a replay can tell where it diverged</li>
+ *   <li>END: the recording ends after this step</li>
+ * </ul>
+ * Does not depend on JavaFX.
+ *
+ * @author Owen Jennings
+ */
+public class InputRecorder implements AutoCloseable {
+
+  public static final int MAGIC = 0x42524B52; // "BRKR"
+  public static final int VERSION = 3;
+  public static final int DEFAULT_HASH_INTERVAL = GameConfig.FRAMES_PER_SECOND;
+  public static final int INPUT = 0;
+  public static final int KEY = 1;
+  public static final int HASH = 2;
+  public static final int END = 3;
+  public static final int TYPE_BITS = 2;
+  private final DataOutputStream output;
+  private final int HASH_INTERVAL;
+  private long lastTick = 0;
+  private boolean isClosed = false;
+
+  /**
+   * Start a recording in a file, replacing the file if it exists
+   *
+   * @param path: the file to record to
+   * @param seed: the seed of the session being recorded
+   * @throws IOException: any exceptions thrown while creating the file
+   */
+  public InputRecorder(Path path, long seed) throws IOException {
+    this(Files.newOutputStream(path), seed, DEFAULT_HASH_INTERVAL);
+  }
+
+  /**
+   * Start a recording
+   *
+   * @param output:       the stream to write the recording to, which is closed with the recorder
+   * @param seed:         the seed of the session being recorded
+   * @param hashInterval: the number of steps between state hashes
+   * @throws IOException: any exceptions thrown while writing the header
+   */
+  public InputRecorder(OutputStream output, long seed, int hashInterval) throws IOException {
+    if (hashInterval <= 0) {
+      throw new IllegalArgumentException("The hash interval must be positive");
+    }
+    this.output = new DataOutputStream(new BufferedOutputStream(output));
+    HASH_INTERVAL = hashInterval;
+    this.output.writeInt(MAGIC);
+    this.output.writeByte(VERSION);
+    this.output.writeLong(seed);
+    writeVarLong(this.output, hashInterval);
+  }
+
+  /**
+   * Get the number of steps between state hashes
+   *
+   * @return the hash interval
+   */
+  public int getHashInterval() {
+    return HASH_INTERVAL;
+  }
+
+  /**
+   * Record a key press, which is handled at the start of a step
+   *
+   * @param tick: the step the key was handled in
+   * @param key:  the key that was pressed
+   * @throws IOException: any exceptions thrown while writing
+   */
+  public void recordKey(long tick, GameKey key) throws IOException {
+    writeEntry(tick, KEY);
+    writeVarLong(output, key.ordinal());
+  }
+
+  /**
+   * Record a change in the held input, which is given to every step from this one on
+   *
+   * @param tick:  the first step with the new input
+   * @param input: the held input, as a combination of GameSimulation's input flags
+   * @throws IOException: any exceptions thrown while writing
+   */
+  public void recordInput(long tick, int input) throws IOException {
+    writeEntry(tick, INPUT);
+    writeVarLong(output, input);
+  }
+
+  /**
+   * Record the state hash after a step. The recording is flushed, so a game that crashes still
+   * leaves a recording up to its last hash.
+   *
+   * @param tick: the step that was just taken
+   * @param hash: the session's state hash
+   * @throws IOException: any exceptions thrown while writing
+   */
+  public void recordHash(long tick, long hash) throws IOException {
+    writeEntry(tick, HASH);
+    output.writeInt(foldHash(hash));
+    output.flush();
+  }
+
+  /**
+   * End the recording after a step and close its file. Does nothing if it is already closed.
+   *
+   * @param tick: the last step that was taken
+   * @throws IOException: any exceptions thrown while writing or closing
+   */
+  public void finish(long tick) throws IOException {
+    if (!isClosed) {
+      isClosed = true;
+      writeEntry(tick, END);
+      output.close();
+    }
+  }
+
+  /**
+   * Close the recording without marking where it ends, so a replay plays every recorded step.
+   *
+   * @throws IOException: any exceptions thrown while closing
+   */
+  @Override
+  public void close() throws IOException {
+    if (!isClosed) {
+      isClosed = true;
+      output.close();
+    }
+  }
+
+  /**
+   * Fold a state hash to the four bytes stored in a recording
+   *
+   * @param hash: the state hash
+   * @return the stored hash
+   */
+  public static int foldHash(long hash) {
+    return (int) (hash ^ (hash >>> 32));
+  }
+
+  private void writeEntry(long tick, int type) throws IOException {
+    if (tick < lastTick) {
+      throw new IllegalArgumentException("Entries must be recorded in step order");
+    }
+    writeVarLong(output, ((tick - lastTick) << TYPE_BITS) | type);
+    lastTick = tick;
+  }
+
+  // Write a non-negative number seven bits at a time, lowest bits first
+  private static void writeVarLong(DataOutputStream output, long value) throws IOException {
+    while ((value & ~0x7FL) != 0) {
+      output.writeByte((int) ((value & 0x7F) | 0x80));
+      value >>>= 7;
+    }
+    output.writeByte((int) value);
+  }
+
+}
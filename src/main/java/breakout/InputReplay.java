@@ -0,0 +1,209 @@
+package breakout;
+
+import static breakout.InputRecorder.END;
+import static breakout.InputRecorder.HASH;
+import static breakout.InputRecorder.INPUT;
+import static breakout.InputRecorder.KEY;
+import static breakout.InputRecorder.TYPE_BITS;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Plays an InputRecorder recording back into a new GameSession with the recording's seed, giving
+ * the session the same keys and held input at every step, and checks the session's state hash
+ * against every hash in the recording. Does not depend on JavaFX, so games can be replayed headless
+ * as fast as the simulation runs.
+ *
+ * @author Owen Jennings
+ */
+public class InputReplay implements AutoCloseable {
+
+  private final DataInputStream input;
+  private final long SEED;
+  private final int HASH_INTERVAL;
+  private final GameSession session;
+  private long entryTick = 0;
+  private int entryType = -1;  // the entry that has been read but not applied, or -1 if none
+  private int heldInput = 0;
+  private long checkedHashes = 0;
+  private long divergedTick = -1;
+  private boolean isFinished = false;
+
+  /**
+   * Open a recording file
+   *
+   * @param path: the recording to replay
+   * @throws IOException: any exceptions thrown while reading the header
+   */
+  public InputReplay(Path path) throws IOException {
+    this(Files.newInputStream(path));
+  }
+
+  /**
+   * Open a recording
+   *
+   * @param input: the stream to read the recording from, which is closed with the replay
+   * @throws IOException: any exceptions thrown while reading the header, or if it is not a
+   *                      recording
+   */
+  public InputReplay(InputStream input) throws IOException {
+    this.input = new DataInputStream(new BufferedInputStream(input));
+    if (this.input.readInt() != InputRecorder.MAGIC) {
+      throw new IOException("Not a game recording");
+    }
+    int version = this.input.readUnsignedByte();
+    if (version != InputRecorder.VERSION) {
+      throw new IOException("Unsupported recording version: " + version);
+    }
+    SEED = this.input.readLong();
+    HASH_INTERVAL = (int) readVarLong();
+    session = new GameSession(SEED);
+    session.getSimulation().setPreparesNextLevel(false); // levels are loaded when they start
+  }
+
+  /**
+   * Get the session the recording is played into
+   *
+   * @return the replayed session
+   */
+  public GameSession getSession() {
+    return session;
+  }
+
+  /**
+   * Get the seed the recorded game was played with
+   *
+   * @return the recording's seed
+   */
+  public long getSeed() {
+    return SEED;
+  }
+
+  /**
+   * Replay the next step of the recording
+   *
+   * @return false if the recording has ended and no step was taken
+   * @throws Exception: any exceptions thrown while reading the recording or stepping the session
+   */
+  public boolean step() throws Exception {
+    if (isFinished) {
+      return false;
+    }
+    long tick = session.getTick() + 1;
+    while (readEntry() && entryTick == tick && (entryType == KEY || entryType == INPUT)) {
+      long value = readVarLong();
+      if (entryType == KEY) {
+        session.pressKey(GameKey.fromOrdinal((int) value));
+      } else {
+        heldInput = (int) value;
+      }
+      entryType = -1;
+    }
+    session.step(heldInput);
+    while (readEntry() && entryTick == tick && entryType == HASH) {
+      checkHash(tick, input.readInt());
+      entryType = -1;
+    }
+    if (entryType == -1 || (entryType == END && entryTick == tick)) {
+      isFinished = true;  // the end of the recording, or a recording that was not finished
+    }
+    return true;
+  }
+
+  /**
+   * Replay the rest of the recording
+   *
+   * @return the number of steps that were replayed
+   * @throws Exception: any exceptions thrown while reading the recording or stepping the session
+   */
+  public long playToEnd() throws Exception {
+    long steps = 0;
+    while (step()) {
+      steps++;
+    }
+    return steps;
+  }
+
+  /**
+   * Get the number of state hashes that have been checked
+   *
+   * @return the number of checked hashes
+   */
+  public long getCheckedHashes() {
+    return checkedHashes;
+  }
+
+  /**
+   * Check if the replayed game has played out differently than the recorded game
+   *
+   * @return true if a state hash did not match
+   */
+  public boolean hasDiverged() {
+    return divergedTick >= 0;
+  }
+
+  /**
+   * Get the first step whose state hash did not match the recording. The game diverged at some
+   * step after the previous hash.
+   *
+   * @return the step, or -1 if the replay has not diverged
+   */
+  public long getDivergedTick() {
+    return divergedTick;
+  }
+
+  /**
+   * Get the number of steps between the recording's state hashes
+   *
+   * @return the hash interval
+   */
+  public int getHashInterval() {
+    return HASH_INTERVAL;
+  }
+
+  @Override
+  public void close() throws IOException {
+    input.close();
+  }
+
+  private void checkHash(long tick, int recordedHash) {
+    checkedHashes++;
+    if (divergedTick < 0 && InputRecorder.foldHash(session.getStateHash()) != recordedHash) {
+      divergedTick = tick;
+    }
+  }
+
+  // Read the next entry's header if it has not been read yet
+  private boolean readEntry() throws IOException {
+    if (entryType == -1) {
+      long header;
+      try {
+        header = readVarLong();
+      } catch (EOFException e) {
+        return false;
+      }
+      entryTick += header >>> TYPE_BITS;
+      entryType = (int) (header & ((1 << TYPE_BITS) - 1));
+    }
+    return entryType != END;
+  }
+
+  private long readVarLong() throws IOException {
+    long value = 0;
+    for (int shift = 0; shift < Long.SIZE; shift += 7) {
+      int b = input.readUnsignedByte();
+      value |= (long) (b & 0x7F) << shift;
+      if ((b & 0x80) == 0) {
+        return value;
+      }
+    }
+    throw new IOException("Corrupt recording");
+  }
+
+}
@@ -1,303 +1,161 @@
 package breakout;
 
-import static breakout.GameConfig.BLOCK_SCORE;
-import static breakout.GameConfig.HEIGHT;
-import static breakout.GameConfig.WIDTH;
-
-import java.io.File;
-import java.io.FileNotFoundException;
-import java.net.URISyntaxException;
-import java.net.URL;
-import java.nio.file.Paths;
+import breakout.TimerWheel.Timer;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
-import java.util.Iterator;
+import java.util.HashMap;
 import java.util.List;
-import java.util.Objects;
-import java.util.Random;
-import java.util.Scanner;
+import java.util.Map;
 import javafx.scene.Group;
-import javafx.scene.image.Image;
+import javafx.scene.text.Text;
 
 /**
- * Handle the creation and initialization of a level from a level file. Additionally, with random
- * probability add power ups and mystery blocks to a level's empty tiles. Handles level movement
- * (dropping blocks by one row) if a level has gravity enabled in its config.
+ * A Group that displays the blocks of a LevelModel. Gets a Block node from a BlockPool for each
+ * block when a level is started, and keeps those nodes up to date as the simulation hits, removes
+ * and drops blocks. Removed blocks are returned to the pool for the next level. Mystery block texts
+ * are shown over the blocks and removed by a timer on the simulation's TimerWheel, so they stay for
+ * the same amount of game time however fast the game runs.
  *
  * @author Owen Jennings
  */
 public class Level extends Group {
 
-  public static final String LEVEL_FILE_PATH = "levels/";
-  public static final String[] POWER_UP_TYPES = new String[]{"addBall", "subtractBall",
-      "scoreMultiplier", "blockDestroyer"}; // Power up type references
-  public static final String[] POWER_UP_DISPLAY_TEXT = new String[]{"+1 Ball!", "-1 Ball!",
-      "x2 Score!", "Boom!"}; // Display text corresponding to each power up
-  public static final String IMAGE_PATH = "/images/";
-  public static final int POWER_UP_PROBABILITY = 6;  // with probability 1/X place a power-up in an empty space
-  public static final int BOTTOM_OFFSET = 2; // number of block heights on the bottom of screen that are not part of the level
-  public static Image[] SPECIAL_BLOCK_IMAGES;
-  private final int BLOCK_SIZE;
-  private final ArrayList<Block> blocks;
-  private final Random random;
-  private final GameManager gameManager;
-  private final ScoreManager scoreManager;
-  private int currentLevelStartingBalls;
-  private boolean currentLevelHasGravity;
+  public static final long MYSTERY_TEXT_TICKS =
+      TimerWheel.secondsToTicks(GameConfig.MYSTERY_BLOCK_DISPLAY_TEXT_TIME);
+  private final LevelModel levelModel;
+  private final TimerWheel timers;
+  private final BlockPool blockPool = new BlockPool();
+  private final Map<BlockModel, Block> blockViews = new HashMap<>();
+  private final List<MysteryText> shownMysteryTexts = new ArrayList<>();
+  private final ArrayDeque<MysteryText> idleMysteryTexts = new ArrayDeque<>();
 
   /**
-   * Create a level and initialize all block image files
+   * Create a level view
    *
    * @param gameManager: the Game Manager object containing all the game information and variables
-   * @param blockSize:   the size of blocks to be created within a level. Blocks are squares with
-   *                     dimensions blockSize X blockSize
+   * @param levelModel:  the level data to display
    */
-  public Level(GameManager gameManager, int blockSize) {
-    this.gameManager = gameManager;
-    this.scoreManager = gameManager.getScoreManager();
-    BLOCK_SIZE = blockSize;
-    blocks = new ArrayList<>();
-    random = new Random();
-    currentLevelStartingBalls = 0;
-    currentLevelHasGravity = false;
-    SPECIAL_BLOCK_IMAGES = new Image[]{
-        new Image(Objects.requireNonNull(getClass().getResourceAsStream(IMAGE_PATH + "plus.png"))),
-        new Image(Objects.requireNonNull(getClass().getResourceAsStream(IMAGE_PATH + "minus.png"))),
-        new Image(Objects.requireNonNull(getClass().getResourceAsStream(IMAGE_PATH + "star.png"))),
-        new Image(Objects.requireNonNull(getClass().getResourceAsStream(IMAGE_PATH + "tnt.png"))),
-        new Image(
-            Objects.requireNonNull(getClass().getResourceAsStream(IMAGE_PATH + "mystery.png"))),
-    };
+  public Level(GameManager gameManager, LevelModel levelModel) {
+    this.levelModel = levelModel;
+    timers = gameManager.getSimulation().getTimers();
   }
 
   /**
-   * Start the level with the index levelNumber. Remove all blocks from previously loaded level, if
-   * it exists Initializes all newly created blocks from level file and adds them to the group
-   * object
+   * Get the pool that block nodes are taken from and returned to
    *
-   * @param levelNumber: The level you wish to load
-   * @throws Exception: any exceptions thrown while opening or loading the level's text file
+   * @return the level's block pool
    */
-  public void startLevel(int levelNumber) throws Exception {
-    removeAllBlocks();
-    createLevel(levelNumber);
-    initialize();
+  public BlockPool getBlockPool() {
+    return blockPool;
   }
 
   /**
-   * Check if all the default blocks have been removed from a level
-   *
-   * @return true if all default blocks are destroyed (even if some powerups still exist) and false
-   * if any default blocks remain on a level
+   * Remove all the previously displayed blocks and create a block node for every block in the
+   * level model. Should be called after a new level has been started.
    */
-  public boolean isComplete() {
-    for (Block block : blocks) {
-      if (block.getBlockType().equals("default")) {
-        return false;
-      }
+  public void showBlocks() {
+    removeAllBlocks();
+    for (BlockModel blockModel : levelModel.getBlocks()) {
+      addBlock(blockModel);
     }
-    return true;
   }
 
   /**
-   * Get blocks remaining in a level.
+   * Create a block node for a block in the level model, such as one added while the level is being
+   * played
    *
-   * @return a List of all blocks remaining in a level
+   * @param blockModel: The block that was added to the level
    */
-  public List<Block> getBlocks() {
-    return blocks;
+  public void addBlock(BlockModel blockModel) {
+    Block block = blockPool.acquire(blockModel);
+    blockViews.put(blockModel, block);
+    this.getChildren().add(block);
   }
 
   /**
-   * Remove a block from a level
+   * Update the displayed health of a block
    *
-   * @param block: The block you wish to remove from the current level
+   * @param blockModel: The block whose health changed
    */
-  public void removeBlock(Block block) {
-    this.getChildren().remove(block);
-    blocks.remove(block);
-  }
-
-  /**
-   * Remove all remaining blocks from a level
-   */
-  public void removeAllBlocks() {
-    this.getChildren().clear();
-    blocks.clear();
+  public void updateBlockHealth(BlockModel blockModel) {
+    Block block = blockViews.get(blockModel);
+    if (block != null) {
+      block.updateHealth();
+    }
   }
 
   /**
-   * Hit all default blocks one time (used for block destroyer power up) Handle score updates and
-   * removal of blocks that have been destroyed completely
+   * Remove a block from the display
+   *
+   * @param blockModel: The block that was removed from the level
    */
-  public void hitAllDefaultBlocks() {
-    Iterator<Block> iterator = blocks.iterator();
-    while (iterator.hasNext()) {
-      Block block = iterator.next();
-      if (block.getBlockType().equals("default")) {
-        block.updateHealth(block.getHealth() - 1);
-        scoreManager.incrementScore(BLOCK_SCORE);
-        if (block.getHealth() <= 0) {
-          iterator.remove();
-          removeBlock(block);
-        }
-      }
+  public void removeBlock(BlockModel blockModel) {
+    Block block = blockViews.remove(blockModel);
+    if (block != null) {
+      this.getChildren().remove(block);
+      blockPool.release(block);
     }
   }
 
   /**
-   * Get the total number of starting blocks for a level
-   *
-   * @return the starting block count
+   * Remove all the displayed blocks and return them to the block pool
    */
-  public int getStartingBalls() {
-    return currentLevelStartingBalls;
+  public void removeAllBlocks() {
+    this.getChildren().clear();  // also removes any mystery block texts
+    for (MysteryText mysteryText : shownMysteryTexts) {
+      timers.cancel(mysteryText.timer);
+      idleMysteryTexts.push(mysteryText);
+    }
+    shownMysteryTexts.clear();
+    for (Block block : blockViews.values()) {
+      blockPool.release(block);
+    }
+    blockViews.clear();
   }
 
   /**
-   * Check to see if the current block configuration is able to drop down one row. Power Up block
-   * types do not count as part of the calculation, because they will simply be removed if the row
-   * can drop
-   *
-   * @return true if the level can drop down one row, otherwise return false.
+   * Move all the displayed blocks to their current positions (used after the level drops a row)
    */
-  public boolean canDropOneLevel() {
-    for (Block block : blocks) {
-      if (block.getBlockType().equals("default") && !canDrop(block)) {
-        return false;
-      }
+  public void updateBlockPositions() {
+    for (Block block : blockViews.values()) {
+      block.updatePosition();
     }
-    return true;
   }
 
   /**
-   * First checks if the level can drop one row and gravity is enabled in the level. If gravity is
-   * enabled and the blocks can drop, their y-values will be updated.
+   * Display which power up a mystery block gave the player over the block for
+   * GameConfig.MYSTERY_BLOCK_DISPLAY_TEXT_TIME seconds
    *
-   * @return true if the drop occurred, false if the drop cannot happen
+   * @param blockModel: The mystery block that was hit
+   * @param powerUp:    The power up that the mystery block gave the player
    */
-  public boolean checkCanDropOneRowAndAttemptDrop() {
-    if (!hasGravity()) { // if the level does not have gravity, we will just return true, so that the player can continue
-      return true;
-    }
-    if (!canDropOneLevel()) {
-      return false;
-    }
-    dropBlocksOneRow();
-    return true;
-  }
-
-  private void dropBlocksOneRow() {
-    Iterator<Block> iterator = blocks.iterator();
-    while (iterator.hasNext()) {
-      Block block = iterator.next();
-      if (canDrop(block)) {
-        block.setLayoutY(block.getLayoutY() + GameConfig.BLOCK_SIZE);
-      } else {  // A power up is on the last row, so it cannot drop further, but it should be removed
-        iterator.remove();
-        this.removeBlock(block);
-      }
-    }
-  }
-
-  private void setStartingBalls(int count) {
-    currentLevelStartingBalls = count;
-  }
-
-  private boolean hasGravity() {
-    return currentLevelHasGravity;
-  }
-
-  private void setHasGravity(boolean hasGravity) {
-    currentLevelHasGravity = hasGravity;
-  }
-
-  private boolean canDrop(Block block) {
-    return block.getLayoutY() + GameConfig.BLOCK_SIZE + BOTTOM_OFFSET * GameConfig.BLOCK_SIZE
-        <= GameConfig.HEIGHT;
-  }
-
-  private Scanner getScanner(int levelNumber) throws Exception {
-    String levelPath = LEVEL_FILE_PATH + levelNumber + ".txt";
-    File levelFile = getLevelFile(levelPath);
-    return getScannerFromFile(levelFile);
-  }
-
-  private static Scanner getScannerFromFile(File levelFile) throws Exception {
-    Scanner scanner;
-    try {
-      scanner = new Scanner(levelFile);
-    } catch (FileNotFoundException e) {
-      throw new Exception(e.getMessage());
+  public void showMysteryPowerUp(BlockModel blockModel, BlockType powerUp) {
+    Block block = blockViews.get(blockModel);
+    if (block == null) {
+      return;
     }
-    return scanner;
-  }
-
-  private File getLevelFile(String levelPath) {
-    URL res;
-    try {
-      res = getClass().getClassLoader().getResource(levelPath);
-    } catch (Exception e) {
-      throw new RuntimeException(e.getMessage());
+    MysteryText mysteryText = idleMysteryTexts.poll();
+    if (mysteryText == null) {
+      mysteryText = new MysteryText();
     }
-    File levelFile;
-    try {
-      levelFile = Paths.get(res.toURI()).toFile();
-    } catch (URISyntaxException e) {
-      throw new RuntimeException(e);
-    }
-    return levelFile;
+    block.layoutMysteryPowerUpText(mysteryText.text, powerUp);
+    this.getChildren().add(mysteryText.text);
+    shownMysteryTexts.add(mysteryText);
+    timers.schedule(mysteryText.timer, MYSTERY_TEXT_TICKS);
   }
 
-  private void createLevel(int levelNumber) throws Exception {
-    blocks.clear();
-    Scanner scanner = getScanner(levelNumber);
-    setStartingBalls(scanner.nextInt());
-    setHasGravity(scanner.nextBoolean());
-    createLevelBlocksFromFile(scanner);
+  private void hideMysteryText(MysteryText mysteryText) {
+    this.getChildren().remove(mysteryText.text);
+    shownMysteryTexts.remove(mysteryText);
+    idleMysteryTexts.push(mysteryText);
   }
 
-  private void createLevelBlocksFromFile(Scanner scanner) throws Exception {
-    for (int j = 0; j < (HEIGHT / BLOCK_SIZE) - BOTTOM_OFFSET; j++) {
-      for (int i = 0; i < WIDTH / BLOCK_SIZE; i++) {
-        if (scanner.hasNextInt()) {
-          int nextInt = scanner.nextInt();
-          if (nextInt > 0) {
-            Block block = new Block(gameManager, i * BLOCK_SIZE, j * BLOCK_SIZE,
-                "default", BLOCK_SIZE, nextInt);
-            blocks.add(block);
-          } else {
-            createPowerups(i, j);
-          }
-        } else {
-          throw new Exception("Level file is missing blocks!");
-        }
-      }
-    }
-  }
+  // A mystery block text and the timer that removes it, which are reused for later mystery blocks
+  private class MysteryText {
 
-  private void createPowerups(int i, int j) {
-    boolean shouldAddPowerup = (random.nextInt(POWER_UP_PROBABILITY) == 0);
-    if (shouldAddPowerup) {
-      int powerUpIndex = random.nextInt(POWER_UP_TYPES.length + 1);
-      String specialBlockType;
-      if (powerUpIndex == POWER_UP_TYPES.length) {
-        specialBlockType = "mystery";
-      } else {
-        specialBlockType = POWER_UP_TYPES[powerUpIndex];
-      }
-      Block block = new Block(gameManager, i * BLOCK_SIZE, j * BLOCK_SIZE,
-          specialBlockType, BLOCK_SIZE, 1,
-          SPECIAL_BLOCK_IMAGES[powerUpIndex]); // for now all powerups have 1 health
-      blocks.add(block);
-    }
-  }
+    private final Text text = new Text();
+    private final Timer timer = new Timer(firedTimer -> hideMysteryText(this));
 
-  private void initialize() {
-    this.getChildren().clear();
-    for (Block block : blocks) {
-      this.getChildren().add(block);
-    }
   }
 
-
 }
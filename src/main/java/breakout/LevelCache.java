@@ -0,0 +1,93 @@
+package breakout;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * A cache of loaded levels. Levels are read from the LevelPack on virtual threads in the
+ * background, so that the game thread never has to wait for a level to be read and parsed when a
+ * level starts. The game's default cache starts loading every level as soon as it is created.
+ *
+ * @author Owen Jennings
+ */
+public class LevelCache implements LevelSource {
+
+  // Virtual threads are cheap to start and never keep the program running after the game closes
+  public static final ExecutorService BACKGROUND_THREADS =
+      Executors.newVirtualThreadPerTaskExecutor();
+  private static LevelCache defaultCache;
+  private final Map<Integer, CompletableFuture<LevelData>> levels = new ConcurrentHashMap<>();
+
+  /**
+   * Get the game's level cache. The first time this is called, the cache is created and starts
+   * loading levels 1 to GameConfig.NUM_LEVELS in the background.
+   *
+   * @return the level cache
+   */
+  public static synchronized LevelCache getDefault() {
+    if (defaultCache == null) {
+      defaultCache = new LevelCache();
+      for (int levelNumber = 1; levelNumber <= GameConfig.NUM_LEVELS; levelNumber++) {
+        defaultCache.preload(levelNumber);
+      }
+    }
+    return defaultCache;
+  }
+
+  /**
+   * Start loading a level in the background, if it has not been loaded already
+   *
+   * @param levelNumber: the level to load
+   */
+  public void preload(int levelNumber) {
+    getLevelAsync(levelNumber);
+  }
+
+  /**
+   * Replace a level's data, such as after its level file has been edited, so that the level is
+   * started from the new data from now on
+   *
+   * @param levelNumber: the level to replace
+   * @param levelData:   the level's new data
+   */
+  public void replaceLevel(int levelNumber, LevelData levelData) {
+    levels.put(levelNumber, CompletableFuture.completedFuture(levelData));
+  }
+
+  /**
+   * Check if there is a level file for a level number
+   *
+   * @param levelNumber: the level to check
+   * @return true if the level is between 1 and GameConfig.NUM_LEVELS
+   */
+  @Override
+  public boolean hasLevel(int levelNumber) {
+    return levelNumber >= 1 && levelNumber <= GameConfig.NUM_LEVELS;
+  }
+
+  /**
+   * Get a level that is loaded in the background
+   *
+   * @param levelNumber: the level to get
+   * @return a future that completes with the level's data, or with the exception thrown while
+   * loading it
+   */
+  @Override
+  public CompletableFuture<LevelData> getLevelAsync(int levelNumber) {
+    return levels.computeIfAbsent(levelNumber,
+        number -> CompletableFuture.supplyAsync(() -> load(number), BACKGROUND_THREADS));
+  }
+
+  private static LevelData load(int levelNumber) {
+    try {
+      return LevelPack.getDefault().getLevel(levelNumber);
+    } catch (Exception e) {
+      throw new CompletionException(e);
+    }
+  }
+
+}
@@ -0,0 +1,173 @@
+package breakout;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+
+/**
+ * The contents of one level file: the number of balls the player starts with, whether the level's
+ * blocks drop after each life, and the health of the block in each cell of the level's grid (0 for
+ * an empty cell). Level data is never changed after it is created, so it can be loaded once and
+ * shared between any number of LevelModels and threads.
+ *
+ * @author Owen Jennings
+ */
+public class LevelData {
+
+  public static final int ROWS =
+      GameConfig.HEIGHT / GameConfig.BLOCK_SIZE - LevelModel.BOTTOM_OFFSET;
+  public static final int COLUMNS = GameConfig.WIDTH / GameConfig.BLOCK_SIZE;
+  private final int startingBalls;
+  private final boolean hasGravity;
+  private final int[] healthGrid;
+
+  /**
+   * Create level data
+   *
+   * @param startingBalls: the number of balls the player starts the level with
+   * @param hasGravity:    true if the blocks drop one row after each life
+   * @param healthGrid:    the health of the block in each cell, row by row, with ROWS * COLUMNS
+   *                       values. The array is not copied, so it should not be changed afterwards
+   */
+  public LevelData(int startingBalls, boolean hasGravity, int[] healthGrid) {
+    if (healthGrid.length != ROWS * COLUMNS) {
+      throw new IllegalArgumentException(
+          "A level must have " + ROWS * COLUMNS + " cells, not " + healthGrid.length);
+    }
+    this.startingBalls = startingBalls;
+    this.hasGravity = hasGravity;
+    this.healthGrid = healthGrid;
+  }
+
+  /**
+   * Parse a level in the text format described in levels/FORMAT.txt
+   *
+   * @param levelText: the level file's contents
+   * @return the parsed level
+   * @throws Exception: if the text is not a valid level
+   */
+  public static LevelData parse(String levelText) throws Exception {
+    return parse(new StringReader(levelText));
+  }
+
+  /**
+   * Parse a level in the text format described in levels/FORMAT.txt. Reads the numbers directly
+   * from the characters, without creating a String or regular expression match for each one.
+   *
+   * @param reader: the level file's contents. The reader is read one character at a time, so it
+   *                should be buffered. It is not closed
+   * @return the parsed level
+   * @throws Exception: if the text is not a valid level
+   */
+  public static LevelData parse(Reader reader) throws Exception {
+    LevelTokenizer tokenizer = new LevelTokenizer(reader);
+    int startingBalls = tokenizer.nextInt();
+    boolean hasGravity = tokenizer.nextBoolean();
+    int[] healthGrid = new int[ROWS * COLUMNS];
+    for (int i = 0; i < healthGrid.length; i++) {
+      if (!tokenizer.hasNext()) {
+        throw new Exception("Level file is missing blocks!");
+      }
+      healthGrid[i] = tokenizer.nextInt();
+    }
+    return new LevelData(startingBalls, hasGravity, healthGrid);
+  }
+
+  /**
+   * Get the number of balls the player starts the level with
+   *
+   * @return the starting ball count
+   */
+  public int getStartingBalls() {
+    return startingBalls;
+  }
+
+  /**
+   * Check if the level's blocks drop one row after each life
+   *
+   * @return true if gravity is enabled
+   */
+  public boolean hasGravity() {
+    return hasGravity;
+  }
+
+  /**
+   * Get the health of the block in a cell
+   *
+   * @param row:    the cell's row, between 0 and ROWS - 1
+   * @param column: the cell's column, between 0 and COLUMNS - 1
+   * @return the block's health, or a value of 0 or less if the cell is empty
+   */
+  public int getHealth(int row, int column) {
+    return healthGrid[row * COLUMNS + column];
+  }
+
+  /**
+   * Reads whitespace separated integers and booleans from a level file
+   */
+  private static class LevelTokenizer {
+
+    private final Reader reader;
+    private int nextChar;
+
+    private LevelTokenizer(Reader reader) throws IOException {
+      this.reader = reader;
+      nextChar = reader.read();
+      skipWhitespace();
+    }
+
+    private boolean hasNext() {
+      return nextChar != -1;
+    }
+
+    private int nextInt() throws Exception {
+      boolean isNegative = (nextChar == '-');
+      if (isNegative) {
+        nextChar = reader.read();
+      }
+      if (nextChar < '0' || nextChar > '9') {
+        throw new Exception("Expected a number in the level file");
+      }
+      long value = 0;
+      while (nextChar >= '0' && nextChar <= '9') {
+        value = value * 10 + (nextChar - '0');
+        if (value > Integer.MAX_VALUE) {
+          throw new Exception("Number in the level file is too large");
+        }
+        nextChar = reader.read();
+      }
+      endToken();
+      return (int) (isNegative ? -value : value);
+    }
+
+    private boolean nextBoolean() throws Exception {
+      StringBuilder token = new StringBuilder();
+      while (nextChar != -1 && !Character.isWhitespace(nextChar)) {
+        token.append((char) nextChar);
+        nextChar = reader.read();
+      }
+      skipWhitespace();
+      if (token.toString().equalsIgnoreCase("true")) {
+        return true;
+      }
+      if (token.toString().equalsIgnoreCase("false")) {
+        return false;
+      }
+      throw new Exception("Expected true or false in the level file, not " + token);
+    }
+
+    private void endToken() throws Exception {
+      if (nextChar != -1 && !Character.isWhitespace(nextChar)) {
+        throw new Exception("Unexpected character in the level file: " + (char) nextChar);
+      }
+      skipWhitespace();
+    }
+
+    private void skipWhitespace() throws IOException {
+      while (nextChar != -1 && Character.isWhitespace(nextChar)) {
+        nextChar = reader.read();
+      }
+    }
+  }
+
+}
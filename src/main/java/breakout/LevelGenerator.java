@@ -0,0 +1,77 @@
+package breakout;
+
+import static breakout.LevelData.COLUMNS;
+import static breakout.LevelData.ROWS;
+
+import java.util.SplittableRandom;
+
+/**
+ * Generates levels for endless mode. A generated level only depends on its seed and its depth (how
+ * many generated levels come before it, plus one), so levels can be generated on any thread, in any
+ * order, and the same seed always gives the same run of levels. Deeper levels fill more rows and
+ * more of each row's cells, give their blocks more health, and are more likely to have gravity;
+ * the player is given more balls to match. Blocks are generated straight into a LevelData grid,
+ * without going through the level file format. Does not depend on JavaFX.
+ *
+ * @author Owen Jennings
+ */
+public class LevelGenerator {
+
+  public static final int FIRST_ROWS = 6;  // rows that can hold blocks at depth 1
+  public static final int DEPTHS_PER_ROW = 2;  // levels between each new row of blocks
+  public static final int FREE_ROWS = 2;  // bottom rows that are always left empty
+  public static final double FIRST_DENSITY = 0.35;
+  public static final double MAX_DENSITY = 0.65;
+  public static final double DENSITY_STEP = 0.03;
+  public static final int FIRST_HEALTH = 50;  // the average block health at depth 1
+  public static final int HEALTH_STEP = 10;
+  public static final double GRAVITY_CHANCE_STEP = 0.15;
+  public static final double MAX_GRAVITY_CHANCE = 0.75;
+  public static final int FIRST_BALLS = 30;
+  public static final int BALLS_STEP = 4;
+  public static final int MAX_BALLS = 80;
+
+  private LevelGenerator() {
+  }
+
+  /**
+   * Generate a level
+   *
+   * @param seed:  the seed of the endless run the level is part of
+   * @param depth: the level's position in the run, starting at 1, which sets its difficulty
+   * @return the generated level
+   */
+  public static LevelData generate(long seed, int depth) {
+    SplittableRandom random = new SplittableRandom(GameRandom.getSeedHash(seed + depth));
+    int filledRows = Math.min(ROWS - FREE_ROWS, FIRST_ROWS + (depth - 1) / DEPTHS_PER_ROW);
+    double density = Math.min(MAX_DENSITY, FIRST_DENSITY + DENSITY_STEP * (depth - 1));
+    int averageHealth = FIRST_HEALTH + HEALTH_STEP * (depth - 1);
+    boolean isMirrored = random.nextBoolean();  // symmetric levels look designed
+    int[] healthGrid = new int[ROWS * COLUMNS];
+    int blockCount = 0;
+    for (int row = 0; row < filledRows; row++) {
+      int columns = isMirrored ? (COLUMNS + 1) / 2 : COLUMNS;
+      for (int column = 0; column < columns; column++) {
+        if (random.nextDouble() >= density) {
+          continue;
+        }
+        // between half and one and a half times the average health, rounded to a multiple of 5
+        int health = Math.max(5,
+            (int) Math.round(averageHealth * (0.5 + random.nextDouble()) / 5) * 5);
+        healthGrid[row * COLUMNS + column] = health;
+        blockCount++;
+        if (isMirrored) {
+          healthGrid[row * COLUMNS + COLUMNS - 1 - column] = health;
+        }
+      }
+    }
+    if (blockCount == 0) {
+      healthGrid[random.nextInt(COLUMNS)] = averageHealth;  // a level must have a block to clear
+    }
+    boolean hasGravity = random.nextDouble() < Math.min(MAX_GRAVITY_CHANCE,
+        GRAVITY_CHANCE_STEP * depth);
+    int startingBalls = Math.min(MAX_BALLS, FIRST_BALLS + BALLS_STEP * depth);
+    return new LevelData(startingBalls, hasGravity, healthGrid);
+  }
+
+}
@@ -0,0 +1,595 @@
+package breakout;
+
+import static breakout.GameConfig.BLOCK_SCORE;
+import static breakout.GameConfig.HEIGHT;
+import static breakout.GameConfig.WIDTH;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.random.RandomGenerator;
+
+/**
+ * Handle the creation and initialization of a level from a level file. Additionally, with random
+ * probability add power ups and mystery blocks to a level's empty tiles. Handles level movement
+ * (dropping blocks by one row) if a level has gravity enabled in its config, and the effects of
+ * blocks being hit. Does not depend on JavaFX; the Level class is the view that draws the blocks.
+ *
+ * @author Owen Jennings
+ */
+public class LevelModel {
+
+  public static final String LEVEL_FILE_PATH = "levels/";
+  public static final int POWER_UP_PROBABILITY = 6;  // with probability 1/X place a power-up in an empty space
+  public static final int BOTTOM_OFFSET = 2; // number of block heights on the bottom of screen that are not part of the level
+  // a block's row, column and type, then its starting and current health
+  private static final int BLOCK_SNAPSHOT_SIZE = 3 + 2 * Integer.BYTES;
+  private final int BLOCK_SIZE;
+  private final int GRID_ROWS;
+  private final int GRID_COLUMNS;
+  private final ArrayList<BlockModel> blocks;
+  private final BlockModel[][] blockGrid; // blockGrid[row][column] holds the block occupying that cell
+  private final List<BlockModel> nearbyBlocks = new ArrayList<>();
+  private final Map<BlockType, Consumer<BlockModel>> blockEffects = new EnumMap<>(
+      BlockType.class); // what happens when a block of each type is hit
+  private final BlockBitboard defaultBlockCells; // the grid cells holding a default block
+  private final BlockBitboard powerUpBlockCells; // the grid cells holding a power up block
+  private final BlockBitboard bottomRowCells; // blocks in these rows cannot drop any further
+  private final GameSimulation simulation;
+  private final ScoreManager scoreManager;
+  private int currentLevelStartingBalls;
+  private boolean currentLevelHasGravity;
+  private LevelData currentLevelData; // the level file the current level was started from
+  private int droppedRows; // the number of rows the current level's blocks have dropped
+
+  /**
+   * Create an empty level
+   *
+   * @param simulation: the simulation containing all the game information and variables
+   * @param blockSize:  the size of blocks to be created within a level. Blocks are squares with
+   *                    dimensions blockSize X blockSize
+   */
+  public LevelModel(GameSimulation simulation, int blockSize) {
+    this.simulation = simulation;
+    this.scoreManager = simulation.getScoreManager();
+    BLOCK_SIZE = blockSize;
+    GRID_ROWS = HEIGHT / blockSize;
+    GRID_COLUMNS = WIDTH / blockSize;
+    blocks = new ArrayList<>();
+    blockGrid = new BlockModel[GRID_ROWS][GRID_COLUMNS];
+    defaultBlockCells = new BlockBitboard(GRID_ROWS, GRID_COLUMNS);
+    powerUpBlockCells = new BlockBitboard(GRID_ROWS, GRID_COLUMNS);
+    bottomRowCells = BlockBitboard.ofRows(GRID_ROWS, GRID_COLUMNS, GRID_ROWS - BOTTOM_OFFSET,
+        GRID_ROWS - 1);
+    currentLevelStartingBalls = 0;
+    currentLevelHasGravity = false;
+    initializeBlockEffects();
+  }
+
+  /**
+   * Start the level with the index levelNumber. Remove all blocks from previously loaded level, if
+   * it exists, and create all the blocks from the level file.
+   *
+   * @param levelNumber: The level you wish to load
+   * @throws Exception: any exceptions thrown while opening or reading the level
+   */
+  public void startLevel(int levelNumber) throws Exception {
+    LevelData levelData = LevelCache.getDefault().getLevel(levelNumber);
+    startLevel(prepareLevel(levelData, simulation.getRandom().createLevelRandom(levelNumber, 0)));
+  }
+
+  /**
+   * Start a level from the contents of a level file, instead of from a numbered level file. Remove
+   * all blocks from the previously loaded level, if it exists, and create all the blocks from the
+   * text.
+   *
+   * @param levelText: The level, in the format described in levels/FORMAT.txt
+   * @throws Exception: any exceptions thrown while loading the level's text
+   */
+  public void startLevel(String levelText) throws Exception {
+    startLevel(LevelData.parse(levelText));
+  }
+
+  /**
+   * Start a level from already loaded level data. Remove all blocks from the previously loaded
+   * level, if it exists, and create all the blocks in the level data. The level's power ups are
+   * placed the same way every time for the simulation's seed.
+   *
+   * @param levelData: The level to start
+   */
+  public void startLevel(LevelData levelData) {
+    startLevel(prepareLevel(levelData, simulation.getRandom().createLevelRandom(0, 0)));
+  }
+
+  /**
+   * Start a level whose blocks have already been created. Remove all blocks from the previously
+   * loaded level, if it exists, and add all the prepared blocks.
+   *
+   * @param preparedLevel: The level to start, which must not have been started before
+   */
+  public void startLevel(PreparedLevel preparedLevel) {
+    removeAllBlocks();
+    currentLevelData = preparedLevel.getLevelData();
+    droppedRows = 0;
+    setStartingBalls(preparedLevel.getLevelData().getStartingBalls());
+    setHasGravity(preparedLevel.getLevelData().hasGravity());
+    for (BlockModel block : preparedLevel.getBlocks()) {
+      addBlock(block);
+    }
+    simulation.getListener().onLevelStarted();
+  }
+
+  /**
+   * Create all the blocks for a level, including its random power ups, without changing the
+   * current level. This does not touch the current level's state, so it can be called from a
+   * background thread while the current level is being played.
+   *
+   * @param levelData: The level to prepare
+   * @param random:    The random stream to place power ups with, which only this level uses
+   * @return the prepared level, to be started with startLevel()
+   */
+  public PreparedLevel prepareLevel(LevelData levelData, RandomGenerator random) {
+    List<BlockModel> levelBlocks = new ArrayList<>();
+    for (int j = 0; j < LevelData.ROWS; j++) {
+      for (int i = 0; i < LevelData.COLUMNS; i++) {
+        int health = levelData.getHealth(j, i);
+        if (health > 0) {
+          levelBlocks.add(new BlockModel(i * BLOCK_SIZE, j * BLOCK_SIZE, BlockType.DEFAULT,
+              BLOCK_SIZE, health));
+        } else {
+          createPowerups(i, j, levelBlocks, random);
+        }
+      }
+    }
+    return new PreparedLevel(levelData, levelBlocks);
+  }
+
+  /**
+   * Apply an edited version of the current level's file to the level being played, without
+   * starting it again (used when a level file is reloaded). Only the cells whose health is
+   * different in the edited file are touched: a block added to the file is added to the level
+   * (replacing any power up in its cell), a block taken out of the file is removed, and a block
+   * whose health changed keeps the damage it has already taken. Blocks the player has already
+   * destroyed stay destroyed. Cells are matched to the blocks that started in them, however many
+   * rows the level has dropped. The balls and paddle are not changed.
+   *
+   * @param levelData: the edited level file, which must be an edit of the file the current level
+   *                   was started from
+   * @return the number of cells whose health changed in the file
+   */
+  public int applyLevelData(LevelData levelData) {
+    int changedCells = 0;
+    for (int row = 0; row < LevelData.ROWS; row++) {
+      for (int column = 0; column < LevelData.COLUMNS; column++) {
+        int oldHealth = Math.max(0, currentLevelData.getHealth(row, column));
+        int newHealth = Math.max(0, levelData.getHealth(row, column));
+        if (oldHealth != newHealth) {
+          changedCells++;
+          if (row + droppedRows < GRID_ROWS) {
+            applyCellHealth(row + droppedRows, column, oldHealth, newHealth);
+          }
+        }
+      }
+    }
+    currentLevelData = levelData;
+    setStartingBalls(levelData.getStartingBalls());
+    setHasGravity(levelData.hasGravity());
+    return changedCells;
+  }
+
+  /**
+   * Check if all the default blocks have been removed from a level
+   *
+   * @return true if all default blocks are destroyed (even if some powerups still exist) and false
+   * if any default blocks remain on a level
+   */
+  public boolean isComplete() {
+    return defaultBlockCells.isEmpty();
+  }
+
+  /**
+   * Get the number of default blocks remaining in a level
+   *
+   * @return the default block count
+   */
+  public int getDefaultBlockCount() {
+    return defaultBlockCells.count();
+  }
+
+  /**
+   * Get the number of power up and mystery blocks remaining in a level
+   *
+   * @return the power up block count
+   */
+  public int getPowerUpBlockCount() {
+    return powerUpBlockCells.count();
+  }
+
+  /**
+   * Get the grid cells that hold a default block. Cell (row, column) is the block at
+   * (column * blockSize, row * blockSize). Together with getPowerUpBlockCells(), this is a compact
+   * and hashable snapshot of the level's layout.
+   *
+   * @return a copy of the default block cells
+   */
+  public BlockBitboard getDefaultBlockCells() {
+    return defaultBlockCells.copy();
+  }
+
+  /**
+   * Get the grid cells that hold a power up or mystery block
+   *
+   * @return a copy of the power up block cells
+   */
+  public BlockBitboard getPowerUpBlockCells() {
+    return powerUpBlockCells.copy();
+  }
+
+  /**
+   * Get blocks remaining in a level.
+   *
+   * @return a List of all blocks remaining in a level
+   */
+  public List<BlockModel> getBlocks() {
+    return blocks;
+  }
+
+  /**
+   * Get the blocks in the grid cells overlapped by the provided bounds, so that a ball only has to
+   * check the few blocks around it instead of every block in the level. Blocks are returned in the
+   * same row-major order as getBlocks(). The returned list is reused between calls, so it should
+   * not be stored.
+   *
+   * @param minX: the left edge of the bounds
+   * @param minY: the top edge of the bounds
+   * @param maxX: the right edge of the bounds
+   * @param maxY: the bottom edge of the bounds
+   * @return a List of the blocks whose cells touch the bounds
+   */
+  public List<BlockModel> getBlocksNear(double minX, double minY, double maxX, double maxY) {
+    getBlocksNear(minX, minY, maxX, maxY, nearbyBlocks);
+    return nearbyBlocks;
+  }
+
+  /**
+   * Get the blocks in the grid cells overlapped by the provided bounds into a list owned by the
+   * caller. The level is only read, so balls on different threads can look up their blocks at the
+   * same time, each with its own list, as long as nothing changes the level meanwhile.
+   *
+   * @param minX:   the left edge of the bounds
+   * @param minY:   the top edge of the bounds
+   * @param maxX:   the right edge of the bounds
+   * @param maxY:   the bottom edge of the bounds
+   * @param result: the list to clear and fill with the blocks, in row-major order
+   */
+  public void getBlocksNear(double minX, double minY, double maxX, double maxY,
+      List<BlockModel> result) {
+    result.clear();
+    // intersection checks are inclusive, so a cell that only touches the bounds' edge is included
+    int minRow = Math.max(0, (int) Math.ceil(minY / BLOCK_SIZE) - 1);
+    int maxRow = Math.min(GRID_ROWS - 1, (int) Math.floor(maxY / BLOCK_SIZE));
+    int minColumn = Math.max(0, (int) Math.ceil(minX / BLOCK_SIZE) - 1);
+    int maxColumn = Math.min(GRID_COLUMNS - 1, (int) Math.floor(maxX / BLOCK_SIZE));
+    for (int row = minRow; row <= maxRow; row++) {
+      for (int column = minColumn; column <= maxColumn; column++) {
+        if (blockGrid[row][column] != null) {
+          result.add(blockGrid[row][column]);
+        }
+      }
+    }
+  }
+
+  /**
+   * Get the block occupying a cell of the level's grid
+   *
+   * @param row:    the cell's row, counted from the top of the game area
+   * @param column: the cell's column, counted from the left of the game area
+   * @return the block in the cell, or null if the cell is empty or outside the grid
+   */
+  public BlockModel getBlockAt(int row, int column) {
+    if (row < 0 || row >= GRID_ROWS || column < 0 || column >= GRID_COLUMNS) {
+      return null;
+    }
+    return blockGrid[row][column];
+  }
+
+  /**
+   * Get the size of each cell of the level's grid, which is also the size of every block
+   *
+   * @return the width and height of a cell
+   */
+  public int getBlockSize() {
+    return BLOCK_SIZE;
+  }
+
+  /**
+   * Handle a block hit from a ball. This will handle all the impacts of a ball hit, including
+   * updating its health, removing it from the level if it is out of health, updating the game
+   * score, and handling any power up effects that occur.
+   *
+   * @param block: The block that was hit
+   */
+  public void hitBlock(BlockModel block) {
+    PhaseEvent event = PhaseEvent.start(PhaseEvent.BLOCK_HIT);
+    block.setHealth(block.getHealth() - 1);
+    simulation.getListener().onBlockHealthChanged(block);
+    scoreManager.incrementScore(block.getBlockType().getScore());
+    blockEffects.get(block.getBlockType()).accept(block);
+    if (block.getHealth() <= 0) {
+      removeBlock(block);
+    }
+    event.end(simulation);
+  }
+
+  /**
+   * Remove a block from a level
+   *
+   * @param block: The block you wish to remove from the current level
+   */
+  public void removeBlock(BlockModel block) {
+    if (blocks.remove(block)) {
+      forgetRemovedBlock(block);
+    }
+  }
+
+  /**
+   * Remove all remaining blocks from a level
+   */
+  public void removeAllBlocks() {
+    blocks.clear();
+    clearBlockGrid();
+    clearBlockCells();
+  }
+
+  /**
+   * Hit all default blocks one time (used for block destroyer power up) Handle score updates and
+   * removal of blocks that have been destroyed completely
+   */
+  public void hitAllDefaultBlocks() {
+    Iterator<BlockModel> iterator = blocks.iterator();
+    while (iterator.hasNext()) {
+      BlockModel block = iterator.next();
+      if (!block.getBlockType().isPowerUp()) {
+        block.setHealth(block.getHealth() - 1);
+        simulation.getListener().onBlockHealthChanged(block);
+        scoreManager.incrementScore(BLOCK_SCORE);
+        if (block.getHealth() <= 0) {
+          iterator.remove();
+          forgetRemovedBlock(block);
+        }
+      }
+    }
+  }
+
+  /**
+   * Get the most bytes writeBlocks() can write for the current level
+   *
+   * @return the size of the level's blocks in a snapshot
+   */
+  public int getSnapshotSize() {
+    return 2 * Integer.BYTES + blocks.size() * BLOCK_SNAPSHOT_SIZE;
+  }
+
+  /**
+   * Write the number of rows the level has dropped, and every remaining block's grid cell, type and
+   * health, to a snapshot without allocating
+   *
+   * @param snapshot: the buffer to write to, which must have getSnapshotSize() bytes remaining
+   */
+  public void writeBlocks(ByteBuffer snapshot) {
+    snapshot.putInt(droppedRows);
+    snapshot.putInt(blocks.size());
+    for (BlockModel block : blocks) {
+      snapshot.put((byte) getGridRow(block));
+      snapshot.put((byte) getGridColumn(block));
+      snapshot.put((byte) block.getBlockType().ordinal());
+      snapshot.putInt(block.getInitialHealth());
+      snapshot.putInt(block.getHealth());
+    }
+  }
+
+  /**
+   * Replace the current blocks with the blocks written to a snapshot by writeBlocks(), without
+   * loading the level again. The level's starting balls and gravity are not changed, so the snapshot
+   * must have been taken in the current level.
+   *
+   * @param snapshot: the buffer to read from
+   */
+  public void readBlocks(ByteBuffer snapshot) {
+    removeAllBlocks();
+    droppedRows = snapshot.getInt();
+    BlockType[] types = BlockType.values();
+    int blockCount = snapshot.getInt();
+    for (int i = 0; i < blockCount; i++) {
+      int row = snapshot.get();
+      int column = snapshot.get();
+      BlockType type = types[snapshot.get()];
+      BlockModel block = new BlockModel(column * BLOCK_SIZE, row * BLOCK_SIZE, type, BLOCK_SIZE,
+          snapshot.getInt());
+      block.setHealth(snapshot.getInt());
+      addBlock(block);
+    }
+    simulation.getListener().onLevelStarted();
+  }
+
+  /**
+   * Get the total number of starting blocks for a level
+   *
+   * @return the starting block count
+   */
+  public int getStartingBalls() {
+    return currentLevelStartingBalls;
+  }
+
+  /**
+   * Check to see if the current block configuration is able to drop down one row. Power Up block
+   * types do not count as part of the calculation, because they will simply be removed if the row
+   * can drop
+   *
+   * @return true if the level can drop down one row, otherwise return false.
+   */
+  public boolean canDropOneLevel() {
+    return !defaultBlockCells.intersects(bottomRowCells);
+  }
+
+  /**
+   * First checks if the level can drop one row and gravity is enabled in the level. If gravity is
+   * enabled and the blocks can drop, their y-values will be updated.
+   *
+   * @return true if the drop occurred, false if the drop cannot happen
+   */
+  public boolean checkCanDropOneRowAndAttemptDrop() {
+    if (!hasGravity()) { // if the level does not have gravity, we will just return true, so that the player can continue
+      return true;
+    }
+    if (!canDropOneLevel()) {
+      return false;
+    }
+    dropBlocksOneRow();
+    return true;
+  }
+
+  private void dropBlocksOneRow() {
+    if (powerUpBlockCells.intersects(bottomRowCells)) {
+      removeBottomRowPowerUps();
+    }
+    for (BlockModel block : blocks) {
+      block.moveDown(BLOCK_SIZE);
+    }
+    shiftBlockGridDownOneRow();
+    defaultBlockCells.shiftDownOneRow();
+    powerUpBlockCells.shiftDownOneRow();
+    droppedRows++;
+    simulation.getListener().onBlocksDropped();
+  }
+
+  // A power up on the last row cannot drop further, so it should be removed
+  private void removeBottomRowPowerUps() {
+    Iterator<BlockModel> iterator = blocks.iterator();
+    while (iterator.hasNext()) {
+      BlockModel block = iterator.next();
+      if (bottomRowCells.get(getGridRow(block), getGridColumn(block))) {
+        iterator.remove();
+        forgetRemovedBlock(block);
+      }
+    }
+  }
+
+  private void shiftBlockGridDownOneRow() {
+    // reuse the (always empty) bottom row as the new top row instead of allocating a new one
+    BlockModel[] bottomRow = blockGrid[GRID_ROWS - 1];
+    Arrays.fill(bottomRow, null);
+    for (int row = GRID_ROWS - 1; row > 0; row--) {
+      blockGrid[row] = blockGrid[row - 1];
+    }
+    blockGrid[0] = bottomRow;
+  }
+
+  private void applyCellHealth(int row, int column, int oldHealth, int newHealth) {
+    BlockModel block = blockGrid[row][column];
+    boolean isDefaultBlock = (block != null && !block.getBlockType().isPowerUp());
+    if (oldHealth == 0) {
+      if (block != null) {
+        removeBlock(block);
+      }
+      BlockModel addedBlock = new BlockModel(column * BLOCK_SIZE, row * BLOCK_SIZE,
+          BlockType.DEFAULT, BLOCK_SIZE, newHealth);
+      addBlock(addedBlock);
+      simulation.getListener().onBlockAdded(addedBlock);
+    } else if (newHealth == 0 && isDefaultBlock) {
+      removeBlock(block);
+    } else if (isDefaultBlock) {
+      block.setHealth(Math.max(1, block.getHealth() + newHealth - oldHealth));
+      simulation.getListener().onBlockHealthChanged(block);
+    }
+  }
+
+  private void addBlock(BlockModel block) {
+    blocks.add(block);
+    blockGrid[getGridRow(block)][getGridColumn(block)] = block;
+    getBlockCells(block).set(getGridRow(block), getGridColumn(block));
+  }
+
+  // Update the grid and bitboards for a block that was just removed from the blocks list
+  private void forgetRemovedBlock(BlockModel block) {
+    if (blockGrid[getGridRow(block)][getGridColumn(block)] == block) {
+      blockGrid[getGridRow(block)][getGridColumn(block)] = null;
+    }
+    getBlockCells(block).clear(getGridRow(block), getGridColumn(block));
+    simulation.getListener().onBlockRemoved(block);
+  }
+
+  private BlockBitboard getBlockCells(BlockModel block) {
+    return block.getBlockType().isPowerUp() ? powerUpBlockCells : defaultBlockCells;
+  }
+
+  private void clearBlockGrid() {
+    for (BlockModel[] row : blockGrid) {
+      Arrays.fill(row, null);
+    }
+  }
+
+  private void clearBlockCells() {
+    defaultBlockCells.clearAll();
+    powerUpBlockCells.clearAll();
+  }
+
+  private int getGridRow(BlockModel block) {
+    return (int) block.getY() / BLOCK_SIZE;
+  }
+
+  private int getGridColumn(BlockModel block) {
+    return (int) block.getX() / BLOCK_SIZE;
+  }
+
+  private void initializeBlockEffects() {
+    blockEffects.put(BlockType.DEFAULT, block -> {
+    });
+    blockEffects.put(BlockType.ADD_BALL, block -> simulation.increaseGameBallCount());
+    blockEffects.put(BlockType.SUBTRACT_BALL, block -> simulation.decreaseGameBallCount());
+    blockEffects.put(BlockType.SCORE_MULTIPLIER, block -> simulation.startScoreMultiplier());
+    blockEffects.put(BlockType.BLOCK_DESTROYER, block -> hitAllDefaultBlocks());
+    blockEffects.put(BlockType.MYSTERY, this::handleMysteryBlock);
+  }
+
+  private void handleMysteryBlock(BlockModel block) {
+    BlockType powerUp = BlockType.POWER_UPS[simulation.getRandom().getPowerUpRandom()
+        .nextInt(BlockType.POWER_UPS.length)];
+    blockEffects.get(powerUp).accept(block);
+    simulation.getListener().onMysteryBlockRevealed(block, powerUp);
+  }
+
+  private void setStartingBalls(int count) {
+    currentLevelStartingBalls = count;
+  }
+
+  private boolean hasGravity() {
+    return currentLevelHasGravity;
+  }
+
+  private void setHasGravity(boolean hasGravity) {
+    currentLevelHasGravity = hasGravity;
+  }
+
+  private void createPowerups(int i, int j, List<BlockModel> levelBlocks,
+      RandomGenerator random) {
+    boolean shouldAddPowerup = (random.nextInt(POWER_UP_PROBABILITY) == 0);
+    if (shouldAddPowerup) {
+      int powerUpIndex = random.nextInt(BlockType.POWER_UPS.length + 1);
+      BlockType specialBlockType;
+      if (powerUpIndex == BlockType.POWER_UPS.length) {
+        specialBlockType = BlockType.MYSTERY;
+      } else {
+        specialBlockType = BlockType.POWER_UPS[powerUpIndex];
+      }
+      levelBlocks.add(new BlockModel(i * BLOCK_SIZE, j * BLOCK_SIZE, specialBlockType,
+          BLOCK_SIZE, 1)); // for now all powerups have 1 health
+    }
+  }
+
+}
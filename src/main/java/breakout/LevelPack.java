@@ -0,0 +1,210 @@
+package breakout;
+
+import java.io.BufferedReader;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+import java.util.SortedMap;
+
+/**
+ * Reads levels from the compiled level pack, a single binary file holding every level in
+ * levels/*.txt. The pack is created at build time by the LevelPackCompiler, and has the layout:
+ * <pre>
+ *   int magic ("BRKL"), int version, int level count, int rows, int columns
+ *   for each level: int level number, int offset of the level's record
+ *   for each level: int starting balls, byte gravity, byte bytes per cell, one health per cell
+ * </pre>
+ * Healths are stored in 1, 2 or 4 bytes, whichever is the smallest that fits the level's largest
+ * health. All numbers are big-endian. Any level can be read by number without reading the levels
+ * before it.
+ * <p>
+ * The pack is loaded from the classpath, so it works whether the game runs from a directory or a
+ * jar. When the pack is a file on disk it is memory-mapped instead of read into memory. When no pack
+ * has been compiled (running from an IDE without the Maven build, for example), levels are parsed
+ * from their text files instead.
+ *
+ * @author Owen Jennings
+ */
+public class LevelPack {
+
+  public static final String PACK_FILE_PATH = LevelModel.LEVEL_FILE_PATH + "levels.pack";
+  public static final int MAGIC = 0x42524B4C; // "BRKL"
+  public static final int VERSION = 1;
+  private static final int HEADER_BYTES = 5 * Integer.BYTES;
+  private static final int INDEX_ENTRY_BYTES = 2 * Integer.BYTES;
+  private static LevelPack defaultPack;
+  private final ByteBuffer pack; // null if levels are read from their text files
+
+  private LevelPack(ByteBuffer pack) throws Exception {
+    this.pack = pack;
+    if (pack != null && (pack.getInt(0) != MAGIC || pack.getInt(Integer.BYTES) != VERSION
+        || pack.getInt(3 * Integer.BYTES) != LevelData.ROWS
+        || pack.getInt(4 * Integer.BYTES) != LevelData.COLUMNS)) {
+      throw new Exception("The level pack was compiled for a different game version or grid size");
+    }
+  }
+
+  /**
+   * Get the game's level pack, loading it from the classpath the first time it is used
+   *
+   * @return the level pack
+   * @throws Exception: any exceptions thrown while opening or reading the level pack
+   */
+  public static synchronized LevelPack getDefault() throws Exception {
+    if (defaultPack == null) {
+      defaultPack = new LevelPack(loadPack(LevelPack.class.getClassLoader().getResource(
+          PACK_FILE_PATH)));
+    }
+    return defaultPack;
+  }
+
+  /**
+   * Create a level pack from the bytes of a compiled pack
+   *
+   * @param pack: the pack's contents, in the layout described above
+   * @return the level pack
+   * @throws Exception: if the bytes are not a level pack for this game
+   */
+  public static LevelPack fromBytes(ByteBuffer pack) throws Exception {
+    return new LevelPack(pack);
+  }
+
+  /**
+   * Read a level by its number
+   *
+   * @param levelNumber: the level's number, as in levels/X.txt
+   * @return the level's data
+   * @throws Exception: if the level does not exist or cannot be read
+   */
+  public LevelData getLevel(int levelNumber) throws Exception {
+    if (pack == null) {
+      return readLevelTextFile(levelNumber);
+    }
+    int levelCount = pack.getInt(2 * Integer.BYTES);
+    for (int i = 0; i < levelCount; i++) {
+      int entry = HEADER_BYTES + i * INDEX_ENTRY_BYTES;
+      if (pack.getInt(entry) == levelNumber) {
+        return readLevel(pack.getInt(entry + Integer.BYTES));
+      }
+    }
+    throw new Exception("Level " + levelNumber + " does not exist");
+  }
+
+  /**
+   * Write levels as a compiled level pack
+   *
+   * @param levels: the levels to write, by level number
+   * @param out:    the stream to write the pack to. The stream is not closed
+   * @throws IOException: any exceptions thrown while writing to the stream
+   */
+  public static void write(SortedMap<Integer, LevelData> levels, OutputStream out)
+      throws IOException {
+    DataOutputStream data = new DataOutputStream(out);
+    data.writeInt(MAGIC);
+    data.writeInt(VERSION);
+    data.writeInt(levels.size());
+    data.writeInt(LevelData.ROWS);
+    data.writeInt(LevelData.COLUMNS);
+    int offset = HEADER_BYTES + levels.size() * INDEX_ENTRY_BYTES;
+    for (Map.Entry<Integer, LevelData> level : levels.entrySet()) {
+      data.writeInt(level.getKey());
+      data.writeInt(offset);
+      offset += getRecordBytes(level.getValue());
+    }
+    for (LevelData level : levels.values()) {
+      int cellBytes = getCellBytes(level);
+      data.writeInt(level.getStartingBalls());
+      data.writeByte(level.hasGravity() ? 1 : 0);
+      data.writeByte(cellBytes);
+      for (int row = 0; row < LevelData.ROWS; row++) {
+        for (int column = 0; column < LevelData.COLUMNS; column++) {
+          writeCell(data, Math.max(0, level.getHealth(row, column)), cellBytes);
+        }
+      }
+    }
+    data.flush();
+  }
+
+  private LevelData readLevel(int offset) {
+    int startingBalls = pack.getInt(offset);
+    boolean hasGravity = pack.get(offset + Integer.BYTES) != 0;
+    int cellBytes = pack.get(offset + Integer.BYTES + 1);
+    int cellOffset = offset + Integer.BYTES + 2;
+    int[] healthGrid = new int[LevelData.ROWS * LevelData.COLUMNS];
+    for (int i = 0; i < healthGrid.length; i++) {
+      int position = cellOffset + i * cellBytes;
+      healthGrid[i] = switch (cellBytes) {
+        case 1 -> pack.get(position) & 0xFF;
+        case 2 -> pack.getShort(position) & 0xFFFF;
+        default -> pack.getInt(position);
+      };
+    }
+    return new LevelData(startingBalls, hasGravity, healthGrid);
+  }
+
+  private static ByteBuffer loadPack(URL packUrl) throws IOException {
+    if (packUrl == null) {
+      return null;
+    }
+    if (packUrl.getProtocol().equals("file")) {
+      try (FileChannel channel = FileChannel.open(Path.of(packUrl.toURI()),
+          StandardOpenOption.READ)) {
+        return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+      } catch (URISyntaxException e) {
+        throw new IOException(e);
+      }
+    }
+    try (InputStream in = packUrl.openStream()) {  // inside a jar, so it cannot be mapped
+      return ByteBuffer.wrap(in.readAllBytes());
+    }
+  }
+
+  private static LevelData readLevelTextFile(int levelNumber) throws Exception {
+    String levelPath = LevelModel.LEVEL_FILE_PATH + levelNumber + ".txt";
+    InputStream in = LevelPack.class.getClassLoader().getResourceAsStream(levelPath);
+    if (in == null) {
+      throw new Exception("Level " + levelNumber + " does not exist");
+    }
+    try (BufferedReader reader = new BufferedReader(
+        new InputStreamReader(in, StandardCharsets.ISO_8859_1))) {
+      return LevelData.parse(reader);
+    }
+  }
+
+  private static int getRecordBytes(LevelData level) {
+    return Integer.BYTES + 2 + LevelData.ROWS * LevelData.COLUMNS * getCellBytes(level);
+  }
+
+  private static int getCellBytes(LevelData level) {
+    int maxHealth = 0;
+    for (int row = 0; row < LevelData.ROWS; row++) {
+      for (int column = 0; column < LevelData.COLUMNS; column++) {
+        maxHealth = Math.max(maxHealth, level.getHealth(row, column));
+      }
+    }
+    if (maxHealth <= 0xFF) {
+      return 1;
+    }
+    return maxHealth <= 0xFFFF ? 2 : 4;
+  }
+
+  private static void writeCell(DataOutputStream data, int health, int cellBytes)
+      throws IOException {
+    switch (cellBytes) {
+      case 1 -> data.writeByte(health);
+      case 2 -> data.writeShort(health);
+      default -> data.writeInt(health);
+    }
+  }
+
+}
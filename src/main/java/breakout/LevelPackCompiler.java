@@ -0,0 +1,65 @@
+package breakout;
+
+import java.io.BufferedReader;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+/**
+ * A build step that compiles every numbered level text file (1.txt, 2.txt, ...) in a directory into
+ * a single level pack, which the game reads levels from. Run by Maven after the classes are
+ * compiled.
+ * <p>
+ * Usage: LevelPackCompiler levelDirectory packFile
+ *
+ * @author Owen Jennings
+ */
+public class LevelPackCompiler {
+
+  /**
+   * Compile the levels in a directory into a level pack
+   *
+   * @param args: the directory containing the level text files, and the level pack file to write
+   * @throws Exception: any exceptions thrown while reading a level or writing the pack
+   */
+  public static void main(String[] args) throws Exception {
+    if (args.length != 2) {
+      throw new IllegalArgumentException("Usage: LevelPackCompiler levelDirectory packFile");
+    }
+    Path levelDirectory = Path.of(args[0]);
+    Path packFile = Path.of(args[1]);
+    SortedMap<Integer, LevelData> levels = readLevels(levelDirectory);
+    if (packFile.getParent() != null) {
+      Files.createDirectories(packFile.getParent());
+    }
+    try (OutputStream out = Files.newOutputStream(packFile)) {
+      LevelPack.write(levels, out);
+    }
+    System.out.println("Compiled " + levels.size() + " levels into " + packFile);
+  }
+
+  private static SortedMap<Integer, LevelData> readLevels(Path levelDirectory) throws Exception {
+    SortedMap<Integer, LevelData> levels = new TreeMap<>();
+    try (DirectoryStream<Path> levelFiles = Files.newDirectoryStream(levelDirectory, "*.txt")) {
+      for (Path levelFile : levelFiles) {
+        String fileName = levelFile.getFileName().toString();
+        if (!fileName.matches("\\d+\\.txt")) {  // skip FORMAT.txt
+          continue;
+        }
+        int levelNumber = Integer.parseInt(fileName.substring(0, fileName.length() - 4));
+        try (BufferedReader reader = Files.newBufferedReader(levelFile,
+            StandardCharsets.ISO_8859_1)) {
+          levels.put(levelNumber, LevelData.parse(reader));
+        } catch (Exception e) {
+          throw new Exception(fileName + ": " + e.getMessage(), e);
+        }
+      }
+    }
+    return levels;
+  }
+
+}
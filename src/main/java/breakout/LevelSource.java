@@ -0,0 +1,48 @@
+package breakout;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * Where a GameSimulation gets the data for each level number. The game's LevelCache reads the
+ * levels in the level files, and EndlessLevels follows them with generated levels that never run
+ * out. Levels are handed out as futures, so that they can be loaded or generated in the background
+ * before they are needed.
+ *
+ * @author Owen Jennings
+ */
+public interface LevelSource {
+
+  /**
+   * Check if there is a level with a number, so that the game knows when the player has won
+   *
+   * @param levelNumber: the level to check
+   * @return true if the level can be played
+   */
+  boolean hasLevel(int levelNumber);
+
+  /**
+   * Get a level that is loaded in the background
+   *
+   * @param levelNumber: the level to get
+   * @return a future that completes with the level's data, or with the exception thrown while
+   * loading it
+   */
+  CompletableFuture<LevelData> getLevelAsync(int levelNumber);
+
+  /**
+   * Get a level, waiting for it to finish loading if it is still being loaded in the background
+   *
+   * @param levelNumber: the level to get
+   * @return the level's data
+   * @throws Exception: any exceptions thrown while opening, reading or creating the level
+   */
+  default LevelData getLevel(int levelNumber) throws Exception {
+    try {
+      return getLevelAsync(levelNumber).join();
+    } catch (CompletionException e) {
+      throw new Exception(e.getCause().getMessage(), e.getCause());
+    }
+  }
+
+}
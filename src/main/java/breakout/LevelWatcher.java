@@ -0,0 +1,124 @@
+package breakout;
+
+import static java.lang.System.Logger.Level.INFO;
+import static java.lang.System.Logger.Level.WARNING;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_CREATE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_MODIFY;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Reloads levels while the game is running, for designing levels without restarting the game.
+ * Watches a directory of level files with a WatchService on a background thread, and when a level
+ * file is saved, parses only that file. The parsed levels are handed to the game thread, which
+ * applies them to its GameSession at the start of a step, so the level being played is changed one
+ * cell at a time between steps instead of being started again. If a file is saved more than once
+ * between steps, only its latest version is applied. Does not depend on JavaFX.
+ *
+ * @author Owen Jennings
+ */
+public class LevelWatcher implements AutoCloseable {
+
+  private static final System.Logger LOGGER = System.getLogger(LevelWatcher.class.getName());
+  private final Path directory;
+  private final WatchService watchService;
+  // the latest parsed version of each edited level that has not been applied yet
+  private final Map<Integer, LevelData> reloadedLevels = new ConcurrentHashMap<>();
+
+  /**
+   * Start watching a directory of level files
+   *
+   * @param directory: the directory holding the level files, such as src/main/resources/levels
+   * @throws IOException: any exceptions thrown while starting to watch the directory
+   */
+  public LevelWatcher(Path directory) throws IOException {
+    this.directory = directory;
+    watchService = directory.getFileSystem().newWatchService();
+    // editors that save by replacing the file create it rather than modify it
+    directory.register(watchService, ENTRY_CREATE, ENTRY_MODIFY);
+    Thread.ofPlatform().name("breakout-level-watcher").daemon().start(this::watch);
+  }
+
+  /**
+   * Apply every level file that has been reloaded since the last call to a session. Call this on
+   * the thread that steps the session, between steps.
+   *
+   * @param session: the session to apply the reloaded levels to
+   */
+  public void applyReloads(GameSession session) {
+    if (reloadedLevels.isEmpty()) {
+      return;
+    }
+    for (Integer levelNumber : reloadedLevels.keySet()) {
+      LevelData levelData = reloadedLevels.remove(levelNumber);
+      if (levelData != null) {
+        int changedCells = session.reloadLevel(levelNumber, levelData);
+        LOGGER.log(INFO, "Reloaded level {0}: {1} cells changed in play", levelNumber,
+            changedCells);
+      }
+    }
+  }
+
+  /**
+   * Stop watching the directory
+   *
+   * @throws IOException: any exceptions thrown while closing the watch service
+   */
+  @Override
+  public void close() throws IOException {
+    watchService.close();
+  }
+
+  private void watch() {
+    try {
+      while (true) {
+        WatchKey key = watchService.take();
+        for (WatchEvent<?> event : key.pollEvents()) {
+          if (event.context() instanceof Path fileName) {
+            reload(fileName);
+          }
+        }
+        key.reset();
+      }
+    } catch (InterruptedException | ClosedWatchServiceException e) {
+      // the watcher was closed
+    }
+  }
+
+  private void reload(Path fileName) {
+    int levelNumber = getLevelNumber(fileName.toString());
+    if (levelNumber < 0) {
+      return;
+    }
+    try (BufferedReader reader = Files.newBufferedReader(directory.resolve(fileName),
+        StandardCharsets.ISO_8859_1)) {
+      reloadedLevels.put(levelNumber, LevelData.parse(reader));
+    } catch (Exception e) {
+      // a file that is half saved or has a mistake in it is reloaded again when it is next saved
+      LOGGER.log(WARNING, "Could not reload level {0}: {1}", levelNumber, e.getMessage());
+    }
+  }
+
+  // The level number of a file named like 3.txt, or -1 for any other file
+  private static int getLevelNumber(String fileName) {
+    if (!fileName.endsWith(".txt")) {
+      return -1;
+    }
+    String number = fileName.substring(0, fileName.length() - ".txt".length());
+    if (number.isEmpty() || number.length() > 9 || !number.chars().allMatch(Character::isDigit)) {
+      return -1;
+    }
+    return Integer.parseInt(number);
+  }
+
+}
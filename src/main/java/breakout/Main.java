@@ -1,12 +1,11 @@
 package breakout;
 
-import javafx.animation.KeyFrame;
-import javafx.animation.Timeline;
+import static java.lang.System.Logger.Level.INFO;
+
 import javafx.application.Application;
 import javafx.scene.Group;
 import javafx.scene.Scene;
 import javafx.stage.Stage;
-import javafx.util.Duration;
 
 
 /**
@@ -16,30 +15,46 @@ import javafx.util.Duration;
  */
 public class Main extends Application {
 
+  private static final System.Logger LOGGER = System.getLogger(Main.class.getName());
   private final Group root = new Group();
+  private GameManager gameManager;
 
   /**
    * Initialize what will be displayed.
    */
   @Override
-  public void start(Stage stage) {
+  public void start(Stage stage) throws Exception {
     Scene scene = new Scene(root, GameConfig.WIDTH, GameConfig.HEIGHT, GameConfig.BACKGROUND_COLOR);
     stage.setScene(scene);
     stage.setTitle(GameConfig.TITLE);
     stage.show();
 
-    GameManager gameManager = new GameManager(scene, root);
-    Timeline animation = new Timeline();
-    animation.setCycleCount(Timeline.INDEFINITE);
-    animation.getKeyFrames()
-        .add(new KeyFrame(Duration.seconds(GameConfig.SECOND_DELAY), e -> {
-          try {
-            gameManager.step();  // The main step function for the game, from the game manager
-          } catch (Exception ex) {
-            throw new RuntimeException(ex);
-          }
-        }));
-    animation.play();
+    gameManager = new GameManager(scene, root);
+    GameLoop gameLoop = new GameLoop(gameManager); // steps the game manager at a fixed rate
+    gameLoop.start();
+  }
+
+  /**
+   * Finish the game's recording and log the asset load report when the game closes, if they were
+   * requested, finish writing the score journal and stop watching the level files. The journal is
+   * closed even if the recording cannot be finished, so that no finished games are lost.
+   */
+  @Override
+  public void stop() throws Exception {
+    if (gameManager != null) {
+      try {
+        gameManager.finishRecording();
+      } finally {
+        try {
+          gameManager.closeScoreJournal();
+        } finally {
+          gameManager.closeLevelWatcher();
+        }
+      }
+    }
+    if (Boolean.getBoolean(GameConfig.ASSET_REPORT_PROPERTY)) {
+      LOGGER.log(INFO, GameAssets.getInstance().getLoadReport());
+    }
   }
 
   /**
@@ -0,0 +1,123 @@
+package breakout;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Renders the game with a JavaFX scene graph node for every game element: a Block group for each
+ * block (inside the Level group), a Ball circle for each ball, and the Paddle and Shooter nodes.
+ * Nodes are kept up to date as the simulation changes, and moving nodes are repositioned every
+ * frame.
+ *
+ * @author Owen Jennings
+ */
+public class NodeRenderer implements GameRenderer {
+
+  private final GameManager gameManager;
+  private final GameSimulation simulation;
+  private final Level level;
+  private final Paddle paddle;
+  private final Shooter shooter;
+  private final Map<BallModel, Ball> balls = new HashMap<>();
+  private boolean isShowing = false;
+
+  /**
+   * Create a node renderer. No nodes are added to the screen until showGameElements() is called.
+   *
+   * @param gameManager: the game manager, whose root the nodes are added to
+   * @param shooter:     the shooter, which is displayed as its own node
+   */
+  public NodeRenderer(GameManager gameManager, Shooter shooter) {
+    this.gameManager = gameManager;
+    this.simulation = gameManager.getSimulation();
+    this.shooter = shooter;
+    level = new Level(gameManager, simulation.getLevel());
+    paddle = new Paddle(simulation.getPaddle(), GameConfig.PADDLE_COLOR);
+  }
+
+  @Override
+  public void showGameElements() {
+    isShowing = true;
+    level.showBlocks();
+    paddle.update(1);
+    gameManager.addChildToGameRoot(paddle);
+    gameManager.addChildToGameRoot(shooter);
+    gameManager.addChildToGameRoot(level);
+    for (BallModel ball : simulation.getBalls()) {
+      onBallAdded(ball);
+    }
+  }
+
+  @Override
+  public void hideGameElements() {
+    isShowing = false;
+    for (Ball ball : balls.values()) {
+      gameManager.removeChildFromGameRoot(ball);
+    }
+    balls.clear();
+    gameManager.removeChildFromGameRoot(paddle);
+    gameManager.removeChildFromGameRoot(shooter);
+    gameManager.removeChildFromGameRoot(level);
+    level.removeAllBlocks();
+  }
+
+  @Override
+  public void render(double alpha) {
+    for (Ball ball : balls.values()) {
+      ball.update(alpha);
+    }
+    paddle.update(alpha);
+  }
+
+  @Override
+  public void onLevelStarted() {
+    if (isShowing) {
+      level.showBlocks();
+    }
+  }
+
+  @Override
+  public void onBlockAdded(BlockModel block) {
+    if (isShowing) {
+      level.addBlock(block);
+    }
+  }
+
+  @Override
+  public void onBlockHealthChanged(BlockModel block) {
+    level.updateBlockHealth(block);
+  }
+
+  @Override
+  public void onBlockRemoved(BlockModel block) {
+    level.removeBlock(block);
+  }
+
+  @Override
+  public void onBlocksDropped() {
+    level.updateBlockPositions();
+  }
+
+  @Override
+  public void onMysteryBlockRevealed(BlockModel block, BlockType powerUp) {
+    level.showMysteryPowerUp(block, powerUp);
+  }
+
+  @Override
+  public void onBallAdded(BallModel ballModel) {
+    if (isShowing) {
+      Ball ball = new Ball(ballModel, GameConfig.BALL_COLOR);
+      balls.put(ballModel, ball);
+      gameManager.addChildToGameRoot(ball);
+    }
+  }
+
+  @Override
+  public void onBallRemoved(BallModel ballModel) {
+    Ball ball = balls.remove(ballModel);
+    if (ball != null) {
+      gameManager.removeChildFromGameRoot(ball);
+    }
+  }
+
+}
@@ -0,0 +1,229 @@
+package breakout;
+
+/**
+ * The plain data and movement rules for the paddle. Does not depend on JavaFX, so that the paddle
+ * can be simulated without a scene; the Paddle class is the view that draws this.
+ *
+ * @author Owen Jennings
+ */
+public class PaddleModel {
+
+  public static final int PADDLE_WIDTH_MODIFIER_AMOUNT = 10;
+  private static final double MIN_PADDLE_WIDTH = 50;
+  private final double PADDLE_SPEED;
+  private final double HEIGHT;
+  private final double y;
+  private double x;
+  private double width;
+  private double previousX;
+  private double previousWidth;
+
+  /**
+   * Create the data for a new paddle
+   *
+   * @param x:      The starting x coordinate
+   * @param y:      The starting y coordinate
+   * @param width:  The starting width
+   * @param height: The height of a paddle
+   * @param speed:  The speed of a paddle
+   */
+  public PaddleModel(double x, double y, double width, double height, double speed) {
+    this.x = x;
+    this.y = y;
+    this.width = width;
+    previousX = x;
+    previousWidth = width;
+    HEIGHT = height;
+    PADDLE_SPEED = speed;
+  }
+
+  /**
+   * Get the paddle's left edge
+   *
+   * @return x coordinate
+   */
+  public double getX() {
+    return x;
+  }
+
+  /**
+   * Move the paddle's left edge straight to a new position, without interpolating from its previous
+   * position
+   *
+   * @param x: new x coordinate
+   */
+  public void setX(double x) {
+    this.x = x;
+    previousX = x;
+  }
+
+  /**
+   * Change the paddle's width straight to a new width, without interpolating from its previous
+   * width
+   *
+   * @param width: new width
+   */
+  public void setWidth(double width) {
+    this.width = width;
+    previousWidth = width;
+  }
+
+  /**
+   * Get the paddle's left edge, interpolated between the previous step and the current one
+   *
+   * @param alpha: how far between the previous step (0) and the current step (1) to interpolate
+   * @return interpolated x coordinate
+   */
+  public double getX(double alpha) {
+    return previousX + (x - previousX) * alpha;
+  }
+
+  /**
+   * Get the paddle's width, interpolated between the previous step and the current one
+   *
+   * @param alpha: how far between the previous step (0) and the current step (1) to interpolate
+   * @return interpolated width
+   */
+  public double getWidth(double alpha) {
+    return previousWidth + (width - previousWidth) * alpha;
+  }
+
+  /**
+   * Remember the paddle's current position and width, so that it can be interpolated between
+   * steps. This is called by the simulation at the start of every step.
+   */
+  public void savePreviousPosition() {
+    previousX = x;
+    previousWidth = width;
+  }
+
+  /**
+   * Get the paddle's top edge
+   *
+   * @return y coordinate
+   */
+  public double getY() {
+    return y;
+  }
+
+  /**
+   * Get the paddle's current width
+   *
+   * @return width
+   */
+  public double getWidth() {
+    return width;
+  }
+
+  /**
+   * Get the paddle's height
+   *
+   * @return height
+   */
+  public double getHeight() {
+    return HEIGHT;
+  }
+
+  /**
+   * Move the paddle if movement is valid, and expand or collapse it. This method should be called
+   * within the game's main step function, so that the paddle can move smoothly as the game updates.
+   *
+   * @param canMove: Whether the paddle is allowed to move (only while balls are in play)
+   * @param input:   The player's current input, as a combination of the GameSimulation input
+   *                 flags
+   */
+  public void moveAndHandleExpandAndCollapse(boolean canMove, int input) {
+    if (canMove && (input & GameSimulation.MOVE_RIGHT) != 0 && canMoveRight()) {
+      move(1);
+    }
+    if (canMove && (input & GameSimulation.MOVE_LEFT) != 0 && canMoveLeft()) {
+      move(-1);
+    }
+    handleExpandAndCollapse(input);
+  }
+
+  /**
+   * Handle all interactions with a ball that is overlapping the paddle (for example, because the
+   * paddle moved into it)
+   *
+   * @param ball: The ball that is potentially intersecting the paddle
+   */
+  public void handleBallCollision(BallModel ball) {
+    if (ball.isIntersecting(x, y, x + width, y + HEIGHT)) {
+      bounceBall(ball);
+    }
+  }
+
+  /**
+   * Bounce a ball that has hit the paddle. The ball is always sent upwards, and its X direction
+   * depends on which third of the paddle it hit.
+   *
+   * @param ball: The ball that hit the paddle
+   */
+  public void bounceBall(BallModel ball) {
+    ball.updateDirectionX(getBounceDirectionX(ball.getX(), ball.getDirectionX()));
+    ball.updateDirectionY(Math.abs(ball.getDirectionY())
+        * -1);  // Prevent visual glitch by always sending in negative Y direction
+  }
+
+  /**
+   * Get the X direction of a ball after it bounces off the paddle, which depends on which third of
+   * the paddle it hit
+   *
+   * @param ballX:      The x coordinate of the ball's center
+   * @param directionX: The ball's X direction before the bounce
+   * @return the ball's X direction after the bounce
+   */
+  public double getBounceDirectionX(double ballX, double directionX) {
+    if (ballX - x > width * 2 / 3) { // Right third of paddle
+      return Math.abs(directionX);
+    } else if (ballX - x < width / 3) { // Left third of paddle
+      return Math.abs(directionX) * -1;
+    }
+    return directionX;
+  }
+
+  private void expand() {
+    if (canExpand()) {
+      width += PADDLE_WIDTH_MODIFIER_AMOUNT;
+      x -= (double) PADDLE_WIDTH_MODIFIER_AMOUNT / 2;
+    }
+  }
+
+  private boolean canExpand() {
+    return (width + (double) PADDLE_WIDTH_MODIFIER_AMOUNT < GameConfig.WIDTH);
+  }
+
+  private void collapse() {
+    if (width - (double) PADDLE_WIDTH_MODIFIER_AMOUNT < MIN_PADDLE_WIDTH) {
+      width = MIN_PADDLE_WIDTH;
+    } else {
+      x += (double) PADDLE_WIDTH_MODIFIER_AMOUNT / 2;
+      width -= PADDLE_WIDTH_MODIFIER_AMOUNT;
+    }
+  }
+
+  private void move(double direction) {
+    x += PADDLE_SPEED * direction;
+  }
+
+  private boolean canMoveLeft() {
+    return (x - PADDLE_SPEED >= 0);
+  }
+
+  private boolean canMoveRight() {
+    return (x + width + PADDLE_SPEED <= (double) GameConfig.WIDTH);
+  }
+
+  private void handleExpandAndCollapse(int input) {
+    if ((input & GameSimulation.EXPAND_PADDLE) != 0) {
+      if (canExpand()) {
+        expand();
+      }
+    }
+    if ((input & GameSimulation.COLLAPSE_PADDLE) != 0) {
+      collapse();
+    }
+  }
+
+}
@@ -0,0 +1,134 @@
+package breakout;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryUsage;
+import java.util.Locale;
+import javafx.geometry.VPos;
+import javafx.scene.Group;
+import javafx.scene.paint.Color;
+import javafx.scene.shape.Rectangle;
+import javafx.scene.text.Font;
+import javafx.scene.text.Text;
+
+/**
+ * An on-screen overlay in the top left corner that shows how the game loop is performing: frame
+ * time and frame interval percentiles over the last few seconds, the allocation rate of the JavaFX
+ * thread (which the whole game runs on), heap use, and how many balls, blocks and timers are in
+ * play. The text is only rebuilt every UPDATE_INTERVAL frames while the overlay is shown, so
+ * showing it barely changes the numbers it shows. Hidden until toggle() is called.
+ *
+ * @author Owen Jennings
+ */
+public class PerformanceOverlay extends Group {
+
+  public static final int UPDATE_INTERVAL = 15; // frames between updates, a few times a second
+  public static final int TEXT_SIZE = 12;
+  public static final double MARGIN = 6;
+  private static final double NANOSECONDS_PER_MILLISECOND = 1e6;
+  private static final double BYTES_PER_MEGABYTE = 1024 * 1024;
+  private static final double[] PERCENTILES = {50, 95, 99, 100};
+  private final Font TEXT_FONT = Font.font("Monospaced", TEXT_SIZE);
+  private final Color BACKGROUND_COLOR = Color.rgb(0, 0, 0, 0.6);
+  private final Rectangle background = new Rectangle();
+  private final Text text = new Text();
+  private final StringBuilder builder = new StringBuilder();
+  private final com.sun.management.ThreadMXBean threadBean = getThreadBean();
+  private long lastUpdateNanos = -1;
+  private long lastAllocatedBytes = -1;
+  private double allocationRate = 0;
+
+  /**
+   * Create the overlay, which is hidden until it is toggled
+   */
+  public PerformanceOverlay() {
+    text.setFont(TEXT_FONT);
+    text.setFill(GameConfig.BALL_COLOR);
+    text.setTextOrigin(VPos.TOP);
+    text.setX(MARGIN);
+    text.setY(MARGIN);
+    background.setFill(BACKGROUND_COLOR);
+    this.getChildren().addAll(background, text);
+    this.setMouseTransparent(true);
+    this.setVisible(false);
+  }
+
+  /**
+   * Show the overlay if it is hidden, or hide it if it is shown
+   */
+  public void toggle() {
+    this.setVisible(!this.isVisible());
+    this.toFront();
+    lastUpdateNanos = -1;  // don't count the hidden time in the allocation rate
+  }
+
+  /**
+   * Show the latest numbers, if the overlay is shown and it is time for an update. Call this once
+   * per frame, from the JavaFX thread.
+   *
+   * @param frameStats: the timings of the most recent frames
+   * @param session:    the session being played
+   */
+  public void update(FrameStats frameStats, GameSession session) {
+    if (!this.isVisible() || frameStats.getTotalFrames() % UPDATE_INTERVAL != 0) {
+      return;
+    }
+    updateAllocationRate();
+    frameStats.updatePercentiles();
+    GameSimulation simulation = session.getSimulation();
+    MemoryUsage heap = ManagementFactory.getMemoryMXBean().getHeapMemoryUsage();
+    builder.setLength(0);
+    appendPercentiles("frame   ", frameStats, false);
+    appendPercentiles("interval", frameStats, true);
+    builder.append(String.format(Locale.ROOT,
+        "steps/frame %d (max %d)   steps %d   dropped %d%n", frameStats.getLastStepCount(),
+        frameStats.getMaxStepCount(), frameStats.getTotalSteps(), frameStats.getDroppedSteps()));
+    builder.append(String.format(Locale.ROOT, "alloc %7.2f MB/s   heap %.0f / %.0f MB%n",
+        allocationRate / BYTES_PER_MEGABYTE, heap.getUsed() / BYTES_PER_MEGABYTE,
+        heap.getCommitted() / BYTES_PER_MEGABYTE));
+    builder.append(String.format(Locale.ROOT,
+        "balls %d   blocks %d   timers %d   rewind %d   step %d",
+        simulation.getBalls().size(), simulation.getLevel().getBlocks().size(),
+        simulation.getTimers().getScheduledCount(), session.getRewindBuffer().getCount(),
+        session.getTick()));
+    text.setText(builder.toString());
+    background.setWidth(text.getBoundsInLocal().getWidth() + 2 * MARGIN);
+    background.setHeight(text.getBoundsInLocal().getHeight() + 2 * MARGIN);
+  }
+
+  private void appendPercentiles(String label, FrameStats frameStats, boolean isInterval) {
+    builder.append(label);
+    for (double percentile : PERCENTILES) {
+      long nanos = isInterval ? frameStats.getFrameIntervalPercentile(percentile)
+          : frameStats.getFrameTimePercentile(percentile);
+      builder.append(String.format(Locale.ROOT, "  %s %6.2f",
+          percentile == 100 ? "max" : "p" + (int) percentile, nanos / NANOSECONDS_PER_MILLISECOND));
+    }
+    builder.append(" ms\n");
+  }
+
+  // Bytes allocated by this thread per second since the last update
+  private void updateAllocationRate() {
+    if (threadBean == null) {
+      return;
+    }
+    long now = System.nanoTime();
+    long allocatedBytes = threadBean.getCurrentThreadAllocatedBytes();
+    if (lastUpdateNanos >= 0) {
+      allocationRate = (allocatedBytes - lastAllocatedBytes)
+          / ((now - lastUpdateNanos) / GameLoop.NANOSECONDS_PER_SECOND);
+    }
+    lastUpdateNanos = now;
+    lastAllocatedBytes = allocatedBytes;
+  }
+
+  // The JVM's thread bean, if it can measure allocations (HotSpot can)
+  private static com.sun.management.ThreadMXBean getThreadBean() {
+    if (ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean bean
+        && bean.isThreadAllocatedMemorySupported()) {
+      bean.setThreadAllocatedMemoryEnabled(true);
+      return bean;
+    }
+    return null;
+  }
+
+}
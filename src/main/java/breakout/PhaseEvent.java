@@ -0,0 +1,84 @@
+package breakout;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.EventType;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * A Java Flight Recorder event for one phase of a game step or frame, such as moving the balls or
+ * updating the HUD, with the number of balls and blocks in play when it ran. Phases are nested
+ * inside StepEvents (except for rendering, which happens once per frame), so a recording shows
+ * which part of a slow step took the time. While no recording wants the event, start() returns a
+ * shared event that does nothing, so a phase costs no allocation. The Live field tells the phases of
+ * the game being played apart from those of bot rollouts and batch games.
+ *
+ * @author Owen Jennings
+ */
+@Name("breakout.Phase")
+@Label("Game Phase")
+@Category("Breakout")
+@Description("One phase of a game step or frame")
+@StackTrace(false)
+public class PhaseEvent extends Event {
+
+  public static final String KEYS = "Key input";
+  public static final String LEVEL_TRANSITIONS = "Level transitions";
+  public static final String TIMERS = "Timed effects";
+  public static final String BALLS = "Ball movement and collisions";
+  public static final String BLOCK_HIT = "Block hit";
+  public static final String PADDLE = "Paddle movement";
+  public static final String REWIND_SNAPSHOT = "Rewind snapshot";
+  public static final String HUD = "HUD update";
+  public static final String RENDER = "Render";
+  private static final EventType TYPE = EventType.getEventType(PhaseEvent.class);
+  private static final PhaseEvent DISABLED = new PhaseEvent();
+
+  @Label("Phase")
+  private String phase;
+  @Label("Balls")
+  private int ballCount;
+  @Label("Blocks")
+  private int blockCount;
+  @Label("Live")
+  @Description("True for the game being played, false for bot rollouts and batch games")
+  private boolean isLive;
+
+  /**
+   * Start timing a phase
+   *
+   * @param phase: the name of the phase, one of the phase constants
+   * @return the event, which must be ended with end()
+   */
+  public static PhaseEvent start(String phase) {
+    if (!TYPE.isEnabled()) {
+      return DISABLED;
+    }
+    PhaseEvent event = new PhaseEvent();
+    event.phase = phase;
+    event.begin();
+    return event;
+  }
+
+  /**
+   * Stop timing the phase and commit it if a recording wants it
+   *
+   * @param simulation: the simulation the phase ran on
+   */
+  public void end(GameSimulation simulation) {
+    if (this == DISABLED) {
+      return;
+    }
+    end();
+    if (shouldCommit()) {
+      ballCount = simulation.getBalls().size();
+      blockCount = simulation.getLevel().getBlocks().size();
+      isLive = simulation.hasListener();
+      commit();
+    }
+  }
+
+}
@@ -0,0 +1,47 @@
+package breakout;
+
+import java.util.List;
+
+/**
+ * A level whose blocks (including its randomly placed power ups) have already been created, so that
+ * starting it only has to swap the blocks into the LevelModel. Levels can be prepared on a
+ * background thread with LevelModel.prepareLevel(). The blocks are used by the level once it is
+ * started, so a prepared level can only be started once.
+ *
+ * @author Owen Jennings
+ */
+public class PreparedLevel {
+
+  private final LevelData levelData;
+  private final List<BlockModel> blocks;
+
+  /**
+   * Create a prepared level
+   *
+   * @param levelData: the level's data
+   * @param blocks:    the level's blocks, in row-major order
+   */
+  public PreparedLevel(LevelData levelData, List<BlockModel> blocks) {
+    this.levelData = levelData;
+    this.blocks = blocks;
+  }
+
+  /**
+   * Get the level's data, which holds its starting balls and gravity setting
+   *
+   * @return the level's data
+   */
+  public LevelData getLevelData() {
+    return levelData;
+  }
+
+  /**
+   * Get the level's blocks
+   *
+   * @return the blocks, in row-major order
+   */
+  public List<BlockModel> getBlocks() {
+    return blocks;
+  }
+
+}
@@ -0,0 +1,62 @@
+package breakout;
+
+import java.nio.file.Path;
+
+/**
+ * A command line tool that replays a recorded game headless, as fast as the simulation runs, and
+ * checks that it plays out exactly as it did when it was recorded. Prints the final level and
+ * score, whether the replay diverged (and the first step it was noticed at), and how many steps
+ * per second were replayed. Record a game by running the game with -Dbreakout.record=FILE.
+ * <p>
+ * Usage: ReplaySimulator FILE [--repeat N]
+ *
+ * @author Owen Jennings
+ */
+public class ReplaySimulator {
+
+  /**
+   * Parse the command line options, replay the recording and print the results
+   */
+  public static void main(String[] args) throws Exception {
+    if (args.length == 0) {
+      throw new IllegalArgumentException("Usage: ReplaySimulator FILE [--repeat N]");
+    }
+    Path path = Path.of(args[0]);
+    int repeats = 1;
+    for (int i = 1; i + 1 < args.length; i += 2) {
+      switch (args[i]) {
+        case "--repeat" -> repeats = Integer.parseInt(args[i + 1]);
+        default -> throw new IllegalArgumentException("Unknown option: " + args[i]);
+      }
+    }
+    long totalSteps = 0;
+    long startTime = System.nanoTime();
+    for (int i = 0; i < repeats; i++) {
+      try (InputReplay replay = new InputReplay(path)) {
+        totalSteps += replay.playToEnd();
+        if (i == 0 || replay.hasDiverged()) {
+          printReplay(replay);
+        }
+      }
+    }
+    double seconds = (System.nanoTime() - startTime) / GameLoop.NANOSECONDS_PER_SECOND;
+    System.out.printf("Replayed %d steps in %.2f s (%.0f steps/s, %.0fx real time)%n",
+        totalSteps, seconds, totalSteps / seconds,
+        totalSteps * GameConfig.SECOND_DELAY / seconds);
+  }
+
+  private static void printReplay(InputReplay replay) {
+    GameSession session = replay.getSession();
+    ScoreManager scoreManager = session.getSimulation().getScoreManager();
+    System.out.printf("Seed %d, %d steps, level %d, score %d, high score %d%n", replay.getSeed(),
+        session.getTick(), session.getCurrentLevelNumber(), scoreManager.getScore(),
+        scoreManager.getHighScore());
+    if (replay.hasDiverged()) {
+      System.out.printf("DIVERGED: state hash did not match at step %d (after step %d)%n",
+          replay.getDivergedTick(), replay.getDivergedTick() - replay.getHashInterval());
+    } else {
+      System.out.printf("Matched all %d state hashes%n", replay.getCheckedHashes());
+    }
+  }
+
+}
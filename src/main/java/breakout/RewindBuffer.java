@@ -0,0 +1,100 @@
+package breakout;
+
+import java.nio.ByteBuffer;
+
+/**
+ * A fixed number of game state snapshots, kept in a ring so that the newest snapshot replaces the
+ * oldest. Each slot is a ByteBuffer allocated up front (large enough for a full level and a few
+ * balls), and a snapshot is written straight into its slot, so capturing one during play allocates
+ * nothing unless a slot has to grow for an unusually large state. Snapshots are taken back out
+ * newest first to rewind the game. Does not depend on JavaFX.
+ *
+ * @author Owen Jennings
+ */
+public class RewindBuffer {
+
+  private final ByteBuffer[] snapshots;
+  private final long[] snapshotTicks;
+  private int newest = -1; // the slot holding the newest snapshot
+  private int count = 0;
+
+  /**
+   * Create an empty rewind buffer
+   *
+   * @param capacity:     the number of snapshots to keep
+   * @param snapshotSize: the number of bytes to allocate for each snapshot up front
+   */
+  public RewindBuffer(int capacity, int snapshotSize) {
+    if (capacity <= 0) {
+      throw new IllegalArgumentException("The rewind buffer must hold at least one snapshot");
+    }
+    snapshots = new ByteBuffer[capacity];
+    snapshotTicks = new long[capacity];
+    for (int i = 0; i < capacity; i++) {
+      snapshots[i] = ByteBuffer.allocate(snapshotSize);
+    }
+  }
+
+  /**
+   * Get the buffer to write a new snapshot into, replacing the oldest snapshot if the ring is full.
+   * The buffer is cleared and has room for at least the given number of bytes.
+   *
+   * @param tick: the step the snapshot is taken at
+   * @param size: the most bytes the snapshot can take
+   * @return the buffer to write the snapshot to
+   */
+  public ByteBuffer startSnapshot(long tick, int size) {
+    newest = (newest + 1) % snapshots.length;
+    count = Math.min(count + 1, snapshots.length);
+    if (snapshots[newest].capacity() < size) {
+      snapshots[newest] = ByteBuffer.allocate(size);
+    }
+    snapshotTicks[newest] = tick;
+    return snapshots[newest].clear();
+  }
+
+  /**
+   * Find the newest snapshot taken at or before a step, and forget every snapshot after it. The
+   * oldest snapshot is used if all of them were taken after the step.
+   *
+   * @param tick: the step to rewind to
+   * @return the snapshot, ready to be read, or null if there are no snapshots
+   */
+  public ByteBuffer rewindTo(long tick) {
+    if (count == 0) {
+      return null;
+    }
+    while (count > 1 && snapshotTicks[newest] > tick) {
+      newest = (newest - 1 + snapshots.length) % snapshots.length;
+      count--;
+    }
+    return snapshots[newest].duplicate().flip();
+  }
+
+  /**
+   * Get the step the newest snapshot was taken at
+   *
+   * @return the newest snapshot's step, or -1 if there are no snapshots
+   */
+  public long getNewestTick() {
+    return (count == 0) ? -1 : snapshotTicks[newest];
+  }
+
+  /**
+   * Get the number of snapshots being kept
+   *
+   * @return the snapshot count
+   */
+  public int getCount() {
+    return count;
+  }
+
+  /**
+   * Forget every snapshot, such as when a new level starts
+   */
+  public void clear() {
+    count = 0;
+    newest = -1;
+  }
+
+}
@@ -0,0 +1,489 @@
+package breakout;
+
+import static java.lang.System.Logger.Level.WARNING;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32;
+
+/**
+ * Keeps the best score and the recent games across runs of the game. Every finished game is
+ * appended to a journal file as one fixed-size record, through a memory-mapped buffer, and is
+ * flushed to disk on a background thread, so finishing a game never waits on the disk. When the
+ * journal is full, it is compacted: the best score, the number of games and the recent games are
+ * written to a snapshot file, and the journal starts again empty.
+ * <p>
+ * Each record ends with a checksum and has a sequence number one higher than the record before it,
+ * so a record that was only partly written when the game crashed is found and ignored, and the
+ * records that are already part of the snapshot are skipped. On startup, the snapshot is read and
+ * the journal is scanned once to recover everything. A snapshot or journal that is damaged is set
+ * aside (renamed with DAMAGED_SUFFIX) and started again, rather than stopping the game.
+ * <p>
+ * The journal file is locked while it is open, so only one running game writes to it. A game that
+ * finds it locked recovers the scores saved so far, but keeps its own scores in memory only. The
+ * journal has the layout:
+ * <pre>
+ *   int magic ("BRKJ"), int version, int record size, int record count
+ *   for each record: long sequence, long time, int score, int levels cleared, int flags, int CRC32
+ * </pre>
+ * The snapshot has the layout:
+ * <pre>
+ *   int magic ("BRKS"), int version, long last sequence, int best score, long game count,
+ *   int recent game count, one journal record for each recent game, int CRC32
+ * </pre>
+ * Does not depend on JavaFX.
+ *
+ * @author Owen Jennings
+ */
+public class ScoreJournal implements AutoCloseable {
+
+  public static final int MAGIC = 0x42524B4A; // "BRKJ"
+  public static final int SNAPSHOT_MAGIC = 0x42524B53; // "BRKS"
+  public static final int VERSION = 1;
+  public static final String JOURNAL_FILE = "scores.journal";
+  public static final String SNAPSHOT_FILE = "scores.snapshot";
+  public static final String DAMAGED_SUFFIX = ".damaged";
+  public static final int RECORD_SIZE = 32;
+  public static final int JOURNAL_RECORDS = 256; // games between compactions
+  public static final int RECENT_GAMES = 10;
+  public static final int WINNER_FLAG = 1;
+  public static final int ENDLESS_FLAG = 2;
+  private static final int HEADER_SIZE = 4 * Integer.BYTES;
+  private static final int CHECKED_RECORD_SIZE = RECORD_SIZE - Integer.BYTES;
+  private static final int SNAPSHOT_HEADER_SIZE =
+      2 * Integer.BYTES + Long.BYTES + Integer.BYTES + Long.BYTES + Integer.BYTES;
+  private static final long JOURNAL_SIZE = HEADER_SIZE + (long) JOURNAL_RECORDS * RECORD_SIZE;
+  private static final System.Logger LOGGER = System.getLogger(ScoreJournal.class.getName());
+  private final Path directory;
+  // both null when the scores are only kept in memory
+  private FileChannel channel;
+  private MappedByteBuffer journal;
+  private final ExecutorService writer = Executors.newSingleThreadExecutor(runnable -> {
+    Thread thread = new Thread(runnable, "breakout-score-journal");
+    thread.setDaemon(true);  // close() waits for the writes that are queued
+    return thread;
+  });
+  private final CRC32 writerChecksum = new CRC32();  // only used on the writer thread
+  private int nextRecord = 0;  // only used on the writer thread
+  // the recovered and recorded games, guarded by this
+  private final ArrayDeque<Entry> recentGames = new ArrayDeque<>();
+  private long lastSequence = 0;
+  private int bestScore = 0;
+  private long gameCount = 0;
+
+  /**
+   * Create a journal that keeps the scores in memory only, such as when the journal's directory
+   * cannot be written to. The scores are forgotten when the game closes.
+   */
+  public ScoreJournal() {
+    directory = null;
+  }
+
+  /**
+   * Open the journal in a directory, creating it if it does not exist, and recover the best score
+   * and recent games from it. If another game has the journal open, the scores saved so far are
+   * recovered, but new scores are only kept in memory.
+   *
+   * @param directory: the directory holding the journal and its snapshot
+   * @throws IOException: if the directory or the journal cannot be created, opened or read
+   */
+  public ScoreJournal(Path directory) throws IOException {
+    this.directory = directory;
+    Files.createDirectories(directory);
+    FileChannel journalChannel = FileChannel.open(directory.resolve(JOURNAL_FILE),
+        StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+    try {
+      if (tryLock(journalChannel)) {
+        readSnapshot(true);
+        openJournal(journalChannel);
+        channel = journalChannel;
+      } else {
+        LOGGER.log(WARNING, "The score journal is open in another game, so scores will not be "
+            + "saved: {0}", directory);
+        readSnapshot(false);
+        scanLockedJournal(journalChannel);
+        journalChannel.close();
+      }
+    } catch (IOException | RuntimeException e) {
+      journalChannel.close();
+      throw e;
+    }
+  }
+
+  /**
+   * Check if recorded games are saved to disk, rather than only kept in memory
+   *
+   * @return true if the journal is open and locked by this game
+   */
+  public boolean isSaved() {
+    return channel != null;
+  }
+
+  /**
+   * Record a finished game. The best score and recent games are updated right away, and the record
+   * is written to the journal on a background thread.
+   *
+   * @param score:         the game's final score
+   * @param levelsCleared: the number of levels the player cleared
+   * @param isWinner:      true if the player won the game
+   * @param isEndless:     true if the game was an endless game
+   */
+  public synchronized void recordGame(int score, int levelsCleared, boolean isWinner,
+      boolean isEndless) {
+    int flags = (isWinner ? WINNER_FLAG : 0) | (isEndless ? ENDLESS_FLAG : 0);
+    Entry entry = new Entry(lastSequence + 1, System.currentTimeMillis(), score, levelsCleared,
+        flags);
+    addGame(entry);
+    if (isSaved()) {
+      writer.execute(() -> writeRecord(entry));
+    }
+  }
+
+  /**
+   * Get the best score of every game recorded
+   *
+   * @return the best score, or 0 if no games have been recorded
+   */
+  public synchronized int getBestScore() {
+    return bestScore;
+  }
+
+  /**
+   * Get the number of games recorded
+   *
+   * @return the game count
+   */
+  public synchronized long getGameCount() {
+    return gameCount;
+  }
+
+  /**
+   * Get the last RECENT_GAMES games recorded
+   *
+   * @return the recent games, newest first
+   */
+  public synchronized List<Entry> getRecentGames() {
+    return new ArrayList<>(recentGames);
+  }
+
+  /**
+   * Wait for the queued records to be written, then close the journal. Call this when the game
+   * closes.
+   *
+   * @throws IOException: any exceptions thrown while closing the journal
+   */
+  @Override
+  public void close() throws IOException {
+    writer.shutdown();
+    try {
+      writer.awaitTermination(10, TimeUnit.SECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    if (isSaved()) {
+      channel.close();  // also releases the lock
+    }
+  }
+
+  // Called with the lock held, or from the constructor
+  private void addGame(Entry entry) {
+    lastSequence = entry.sequence;
+    bestScore = Math.max(bestScore, entry.score);
+    gameCount++;
+    recentGames.addFirst(entry);
+    if (recentGames.size() > RECENT_GAMES) {
+      recentGames.removeLast();
+    }
+  }
+
+  // Returns false if another game holds the lock
+  private static boolean tryLock(FileChannel channel) throws IOException {
+    try {
+      return channel.tryLock() != null;
+    } catch (OverlappingFileLockException e) {
+      return false;  // this program already has the journal open
+    }
+  }
+
+  private void openJournal(FileChannel journalChannel) throws IOException {
+    // mapping past the end of a new file grows it, filled with zeros
+    journal = journalChannel.map(FileChannel.MapMode.READ_WRITE, 0, JOURNAL_SIZE);
+    if (journal.getInt(0) == 0) {
+      writeHeader();
+    } else if (!hasValidHeader(journal)) {
+      Path damagedFile = directory.resolve(JOURNAL_FILE + DAMAGED_SUFFIX);
+      LOGGER.log(WARNING, "The score journal is damaged, so it was copied to {0} and started "
+          + "again", damagedFile);
+      // copied rather than moved, so that the locked file is kept
+      Files.copy(directory.resolve(JOURNAL_FILE), damagedFile,
+          StandardCopyOption.REPLACE_EXISTING);
+      clearRecords();
+      writeHeader();
+    }
+    nextRecord = scanJournal(journal);
+  }
+
+  // Recover the scores from a journal another game is writing to, without changing it
+  private void scanLockedJournal(FileChannel journalChannel) throws IOException {
+    if (journalChannel.size() >= JOURNAL_SIZE) {
+      ByteBuffer lockedJournal = journalChannel.map(FileChannel.MapMode.READ_ONLY, 0,
+          JOURNAL_SIZE);
+      if (hasValidHeader(lockedJournal)) {
+        scanJournal(lockedJournal);
+      }
+    }
+  }
+
+  private static boolean hasValidHeader(ByteBuffer buffer) {
+    return buffer.getInt(0) == MAGIC && buffer.getInt(Integer.BYTES) == VERSION
+        && buffer.getInt(2 * Integer.BYTES) == RECORD_SIZE
+        && buffer.getInt(3 * Integer.BYTES) == JOURNAL_RECORDS;
+  }
+
+  // Recover the games from the journal in one pass, and return the record to write next
+  private int scanJournal(ByteBuffer buffer) {
+    CRC32 checksum = new CRC32();
+    long previousSequence = Long.MIN_VALUE;
+    int record = 0;
+    while (record < JOURNAL_RECORDS) {
+      Entry entry = readRecord(buffer, getRecordPosition(record), checksum);
+      // a bad checksum is the end of the journal, or a record cut short by a crash, and a sequence
+      // that does not go up is a record left over from before the last compaction
+      if (entry == null || entry.sequence <= previousSequence) {
+        break;
+      }
+      if (entry.sequence > lastSequence) {  // earlier records are already in the snapshot
+        addGame(entry);
+      }
+      previousSequence = entry.sequence;
+      record++;
+    }
+    return record;
+  }
+
+  private void writeRecord(Entry entry) {
+    try {
+      if (nextRecord == JOURNAL_RECORDS) {
+        compact();
+      }
+      int position = getRecordPosition(nextRecord);
+      writeEntry(journal, position, entry, writerChecksum);
+      journal.force(position, RECORD_SIZE);
+      nextRecord++;
+    } catch (IOException e) {
+      // the game is still counted until the game closes, it just will not be remembered after
+      LOGGER.log(WARNING, "Could not write to the score journal", e);
+    }
+  }
+
+  // Write everything recorded so far to a new snapshot, then empty the journal. The snapshot
+  // replaces the old one in a single move, so a crash leaves either the old or the new snapshot,
+  // and records that are in both the snapshot and the journal are only counted once.
+  private void compact() throws IOException {
+    ByteBuffer snapshot;
+    synchronized (this) {
+      snapshot = ByteBuffer.allocate(
+          SNAPSHOT_HEADER_SIZE + recentGames.size() * RECORD_SIZE + Integer.BYTES);
+      snapshot.putInt(SNAPSHOT_MAGIC);
+      snapshot.putInt(VERSION);
+      snapshot.putLong(lastSequence);
+      snapshot.putInt(bestScore);
+      snapshot.putLong(gameCount);
+      snapshot.putInt(recentGames.size());
+      for (Entry entry : recentGames) {
+        writeEntry(snapshot, snapshot.position(), entry, writerChecksum);
+        snapshot.position(snapshot.position() + RECORD_SIZE);
+      }
+    }
+    writerChecksum.reset();
+    writerChecksum.update(snapshot.array(), 0, snapshot.position());
+    snapshot.putInt((int) writerChecksum.getValue());
+    snapshot.flip();
+    Path temporaryFile = directory.resolve(SNAPSHOT_FILE + ".tmp");
+    try (FileChannel snapshotChannel = FileChannel.open(temporaryFile,
+        StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+        StandardOpenOption.TRUNCATE_EXISTING)) {
+      while (snapshot.hasRemaining()) {
+        snapshotChannel.write(snapshot);
+      }
+      snapshotChannel.force(true);
+    }
+    Files.move(temporaryFile, directory.resolve(SNAPSHOT_FILE), StandardCopyOption.ATOMIC_MOVE,
+        StandardCopyOption.REPLACE_EXISTING);
+    clearRecords();
+    journal.force();
+    nextRecord = 0;
+  }
+
+  private void clearRecords() {
+    for (int position = HEADER_SIZE; position < journal.capacity(); position += Long.BYTES) {
+      journal.putLong(position, 0);
+    }
+  }
+
+  // A damaged snapshot is only set aside by the game that holds the journal's lock
+  private void readSnapshot(boolean canSetAside) throws IOException {
+    Path snapshotFile = directory.resolve(SNAPSHOT_FILE);
+    if (!Files.exists(snapshotFile)) {
+      return;
+    }
+    ByteBuffer snapshot = ByteBuffer.wrap(Files.readAllBytes(snapshotFile));
+    if (!isValidSnapshot(snapshot)) {
+      if (canSetAside) {
+        Path damagedFile = directory.resolve(SNAPSHOT_FILE + DAMAGED_SUFFIX);
+        LOGGER.log(WARNING, "The score journal snapshot is damaged, so it was moved to {0}",
+            damagedFile);
+        Files.move(snapshotFile, damagedFile, StandardCopyOption.REPLACE_EXISTING);
+      }
+      return;
+    }
+    CRC32 checksum = new CRC32();
+    snapshot.position(2 * Integer.BYTES);
+    long snapshotSequence = snapshot.getLong();
+    int snapshotBestScore = snapshot.getInt();
+    long snapshotGameCount = snapshot.getLong();
+    int recentCount = snapshot.getInt();
+    // the recent games are stored newest first, so add them back oldest first
+    for (int i = recentCount - 1; i >= 0; i--) {
+      Entry entry = readRecord(snapshot, SNAPSHOT_HEADER_SIZE + i * RECORD_SIZE, checksum);
+      if (entry != null) {
+        addGame(entry);
+      }
+    }
+    lastSequence = snapshotSequence;
+    bestScore = snapshotBestScore;
+    gameCount = snapshotGameCount;
+  }
+
+  private static boolean isValidSnapshot(ByteBuffer snapshot) {
+    if (snapshot.limit() < SNAPSHOT_HEADER_SIZE + Integer.BYTES
+        || snapshot.getInt(0) != SNAPSHOT_MAGIC || snapshot.getInt(Integer.BYTES) != VERSION) {
+      return false;
+    }
+    int recentCount = snapshot.getInt(SNAPSHOT_HEADER_SIZE - Integer.BYTES);
+    if (recentCount < 0 || recentCount > RECENT_GAMES
+        || snapshot.limit() != SNAPSHOT_HEADER_SIZE + recentCount * RECORD_SIZE + Integer.BYTES) {
+      return false;
+    }
+    CRC32 checksum = new CRC32();
+    checksum.update(snapshot.array(), 0, snapshot.limit() - Integer.BYTES);
+    return (int) checksum.getValue() == snapshot.getInt(snapshot.limit() - Integer.BYTES);
+  }
+
+  private void writeHeader() {
+    journal.putInt(0, MAGIC);
+    journal.putInt(Integer.BYTES, VERSION);
+    journal.putInt(2 * Integer.BYTES, RECORD_SIZE);
+    journal.putInt(3 * Integer.BYTES, JOURNAL_RECORDS);
+    journal.force();
+  }
+
+  private static int getRecordPosition(int record) {
+    return HEADER_SIZE + record * RECORD_SIZE;
+  }
+
+  // The checksum is written last, so a record is only valid once all of it has been written
+  private static void writeEntry(ByteBuffer buffer, int position, Entry entry, CRC32 checksum) {
+    buffer.putLong(position, entry.sequence);
+    buffer.putLong(position + Long.BYTES, entry.time);
+    buffer.putInt(position + 2 * Long.BYTES, entry.score);
+    buffer.putInt(position + 2 * Long.BYTES + Integer.BYTES, entry.levelsCleared);
+    buffer.putInt(position + 2 * Long.BYTES + 2 * Integer.BYTES, entry.flags);
+    checksum.reset();
+    checksum.update(buffer.slice(position, CHECKED_RECORD_SIZE));
+    buffer.putInt(position + CHECKED_RECORD_SIZE, (int) checksum.getValue());
+  }
+
+  // Returns null if the record's checksum does not match, such as for an empty or torn record
+  private static Entry readRecord(ByteBuffer buffer, int position, CRC32 checksum) {
+    checksum.reset();
+    checksum.update(buffer.slice(position, CHECKED_RECORD_SIZE));
+    if ((int) checksum.getValue() != buffer.getInt(position + CHECKED_RECORD_SIZE)) {
+      return null;
+    }
+    return new Entry(buffer.getLong(position), buffer.getLong(position + Long.BYTES),
+        buffer.getInt(position + 2 * Long.BYTES),
+        buffer.getInt(position + 2 * Long.BYTES + Integer.BYTES),
+        buffer.getInt(position + 2 * Long.BYTES + 2 * Integer.BYTES));
+  }
+
+  /**
+   * One finished game in the journal
+   */
+  public static class Entry {
+
+    private final long sequence;
+    private final long time;
+    private final int score;
+    private final int levelsCleared;
+    private final int flags;
+
+    private Entry(long sequence, long time, int score, int levelsCleared, int flags) {
+      this.sequence = sequence;
+      this.time = time;
+      this.score = score;
+      this.levelsCleared = levelsCleared;
+      this.flags = flags;
+    }
+
+    /**
+     * Get the time the game finished
+     *
+     * @return the time, in milliseconds since the epoch
+     */
+    public long getTime() {
+      return time;
+    }
+
+    /**
+     * Get the game's final score
+     *
+     * @return the score
+     */
+    public int getScore() {
+      return score;
+    }
+
+    /**
+     * Get the number of levels the player cleared in the game
+     *
+     * @return the levels cleared
+     */
+    public int getLevelsCleared() {
+      return levelsCleared;
+    }
+
+    /**
+     * Check if the player won the game
+     *
+     * @return true if the game was won
+     */
+    public boolean isWinner() {
+      return (flags & WINNER_FLAG) != 0;
+    }
+
+    /**
+     * Check if the game was an endless game
+     *
+     * @return true if the game was endless
+     */
+    public boolean isEndless() {
+      return (flags & ENDLESS_FLAG) != 0;
+    }
+
+  }
+
+}
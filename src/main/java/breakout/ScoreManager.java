@@ -29,6 +29,16 @@ public class ScoreManager {
     return score;
   }
 
+  /**
+   * Set the game score, such as when the game is rewound. The high score is not lowered.
+   *
+   * @param score: the new score
+   */
+  public void setScore(int score) {
+    this.score = score;
+    updateHighScore();
+  }
+
   /**
    * Get the current high score
    *
@@ -38,6 +48,16 @@ public class ScoreManager {
     return highScore;
   }
 
+  /**
+   * Raise the high score, such as to the best score saved by a previous run of the game. The high
+   * score is never lowered.
+   *
+   * @param highScore: the high score to raise to
+   */
+  public void setHighScore(int highScore) {
+    this.highScore = Math.max(this.highScore, highScore);
+  }
+
   /**
    * Add to the score by amount. Multiplies by the current score multiplier amount
    *
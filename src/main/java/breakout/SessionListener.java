@@ -0,0 +1,53 @@
+package breakout;
+
+/**
+ * Receives the changes made by a GameSession to the flow of the game (starting and ending games and
+ * the shooter), so that a view can show the right screen without the session depending on it. All
+ * methods do nothing by default, so a headless session can run without a listener at all.
+ *
+ * @author Owen Jennings
+ */
+public interface SessionListener {
+
+  /**
+   * Called after a new game has started and its first level has been loaded.
+   */
+  default void onGameStarted() {
+  }
+
+  /**
+   * Called after the game has ended and all the balls have been removed from play.
+   *
+   * @param isWinner: true if the player finished the last level
+   * @param message:  why the game ended
+   */
+  default void onGameEnded(boolean isWinner, String message) {
+  }
+
+  /**
+   * Called after the player has returned to the start screen.
+   */
+  default void onStartScreenShown() {
+  }
+
+  /**
+   * Called when the player is given the shooter to start their next life.
+   */
+  default void onShooterEnabled() {
+  }
+
+  /**
+   * Called after the player has used the shooter.
+   */
+  default void onShooterDisabled() {
+  }
+
+  /**
+   * Called after the shooter's aim has moved.
+   *
+   * @param angle: the new angle of the aim, where PI / 2 is straight up
+   */
+  default void onShooterAimChanged(double angle) {
+  }
+
+}
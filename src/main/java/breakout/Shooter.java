@@ -1,72 +1,59 @@
 package breakout;
 
-import static breakout.GameConfig.BALL_COLOR;
 import static breakout.GameConfig.BALL_RADIUS;
-import static breakout.GameConfig.BALL_RELEASE_DELAY;
-import static breakout.GameConfig.BALL_SPEED;
-import static breakout.GameConfig.MIDDLE_WIDTH;
-import static breakout.GameConfig.HEIGHT;
-import static breakout.GameConfig.WIDTH;
-
-import java.util.ArrayList;
-import java.util.List;
-import javafx.animation.KeyFrame;
-import javafx.animation.Timeline;
+import static breakout.GameSimulation.LAUNCH_X;
+import static breakout.GameSimulation.LAUNCH_Y;
+
 import javafx.scene.Group;
-import javafx.scene.input.KeyCode;
 import javafx.scene.paint.Color;
+import javafx.scene.shape.Circle;
 import javafx.scene.shape.Line;
-import javafx.util.Duration;
+import javafx.scene.shape.Polyline;
 
 /**
  * A class that extends Group and acts as a visualization for where the player will shoot balls on
- * the screen to start a round in the game
+ * the screen to start a round in the game. The shooter's aim and whether the player has it are part
+ * of the GameSession; this only draws them. The shooter can also preview the path its balls will
+ * take through their first bounces, which is traced again every time the aim moves.
  */
 public class Shooter extends Group {
 
-  public static final int SHOOTER_HEIGHT_OFFSET = GameConfig.BLOCK_SIZE * (Level.BOTTOM_OFFSET - 1);
-  public static final double SHOOTER_MOVEMENT_INTERVAL = Math.PI / 60;
-  private final GameManager gameManager;
+  private final GameSession session;
   private final double SHOOTER_LENGTH;
   private final Color SHOOTER_COLOR;
-  private double shooterAngle;
-  private Ball displayBall;
+  private final AimTracer aimTracer = new AimTracer();
+  private final Polyline aimPreview = new Polyline();
+  private Circle displayBall;
   private Line shooterAim;
-  private boolean isEnabled;
-  private final List<Ball> balls = new ArrayList<>();
-  private final Timeline launchBallsTimeline = new Timeline();
+  private boolean isPreviewShown = false;
 
   /**
    * Create a new shooter
    *
-   * @param gameManager:   the current game manager
+   * @param session:       the session that holds the shooter's aim
    * @param shooterLength: the length of the shooter's aim
-   * @param startingAngle: the starting angle for the shooter's aim
    * @param shooterColor:  the color of the shooter's aim and display ball
    */
-  public Shooter(GameManager gameManager, double shooterLength, double startingAngle,
-      Color shooterColor) {
-    this.gameManager = gameManager;
+  public Shooter(GameSession session, double shooterLength, Color shooterColor) {
+    this.session = session;
     SHOOTER_LENGTH = shooterLength;
-    shooterAngle = startingAngle;
     SHOOTER_COLOR = shooterColor;
-    isEnabled = false;
+    aimPreview.setStroke(SHOOTER_COLOR);
+    aimPreview.getStrokeDashArray().setAll(4.0, 6.0);
   }
 
   /**
-   * Enables the shooter, allowing it to be seen and allowing the player to shoot balls
+   * Show the shooter, when the player is given it to start their next life
    */
   public void enable() {
     initialize();
-    isEnabled = true;
   }
 
   /**
-   * Disables the shooter, removing it from the view and preventing shooting
+   * Remove the shooter from the view, after the player has used it
    */
   public void disable() {
-    this.getChildren().removeAll(displayBall, shooterAim);
-    isEnabled = false;
+    this.getChildren().removeAll(displayBall, shooterAim, aimPreview);
   }
 
   /**
@@ -75,103 +62,97 @@ public class Shooter extends Group {
    * @return true if enabled, false if disabled
    */
   public boolean isEnabled() {
-    return isEnabled;
+    return session.isShooterEnabled();
   }
 
   /**
-   * Handle all the shooter actions: shoot, move aim left and move aim right
+   * Get the current angle of the shooter's aim
    *
-   * @param code: key that is currently pressed
+   * @return the angle in radians, where PI / 2 is straight up
    */
-  public void handleShooterActions(KeyCode code) {
-    if (isEnabled) {
-      if (code == KeyCode.SPACE) {
-        gameManager.decrementLives();
-        spawnBallsAndStartLaunchTimeline();
-        gameManager.setBallsInPlay(gameManager.getGameBallCount());
-        disable();
-      }
-      moveShooterAim(code);
-    }
+  public double getAngle() {
+    return session.getShooterAngle();
   }
 
-  private void moveShooterAim(KeyCode code) {
-    if (code == KeyCode.RIGHT) {
-      setAngle(getAngle() - SHOOTER_MOVEMENT_INTERVAL);
-    }
-    if (code == KeyCode.LEFT) {
-      setAngle(getAngle() + SHOOTER_MOVEMENT_INTERVAL);
-    }
-  }
-
-  private double getAngle() {
-    return shooterAngle;
+  /**
+   * Get the length of the shooter's aim line
+   *
+   * @return the aim length
+   */
+  public double getLength() {
+    return SHOOTER_LENGTH;
   }
 
-  private void setAngle(double angle) {
-    if (angle < Math.PI / 20) {
-      shooterAngle = Math.PI / 20;
-    } else if (angle > Math.PI - Math.PI / 20) {
-      shooterAngle = Math.PI - Math.PI / 20;
-    } else {
-      shooterAngle = angle;
+  /**
+   * Show or hide the preview of the path the balls will take
+   */
+  public void togglePreview() {
+    isPreviewShown = !isPreviewShown;
+    if (!isPreviewShown) {
+      this.getChildren().remove(aimPreview);
+    } else if (isEnabled()) {
+      updatePreview();
+      this.getChildren().add(aimPreview);
     }
-    shooterAim.setEndX((double) WIDTH / 2 + SHOOTER_LENGTH * Math.cos(shooterAngle));
-    shooterAim.setEndY(
-        HEIGHT - SHOOTER_HEIGHT_OFFSET - 10 - SHOOTER_LENGTH * Math.sin(shooterAngle));
   }
 
-  private void initialize() {
-    displayBall = new Ball(gameManager, (double) WIDTH / 2, HEIGHT - SHOOTER_HEIGHT_OFFSET - 10,
-        SHOOTER_COLOR, BALL_RADIUS, 0, 0, 0);
-    shooterAim = new Line(
-        (double) WIDTH / 2,
-        HEIGHT - SHOOTER_HEIGHT_OFFSET - 10,
-        (double) WIDTH / 2 + SHOOTER_LENGTH * Math.cos(shooterAngle),
-        HEIGHT - SHOOTER_HEIGHT_OFFSET - 10 - SHOOTER_LENGTH * Math.sin(shooterAngle)
-    );
-    displayBall.setFill(SHOOTER_COLOR);
-    shooterAim.setStroke(SHOOTER_COLOR);
-    this.getChildren().addAll(displayBall, shooterAim);
+  /**
+   * Check if the preview of the balls' path is shown while the shooter is enabled
+   *
+   * @return true if the preview is shown
+   */
+  public boolean isPreviewShown() {
+    return isPreviewShown;
   }
 
-
-  private void spawnBallsAndStartLaunchTimeline() {
-    clearBallLaunchingTimeline();
-    addBallsForNextRound();
-    // Timeline to set the direction balls based on the cannon angle when shot.
-    launchBallsTimeline.setCycleCount(gameManager.getGameBallCount());
-    launchBallsTimeline.getKeyFrames().add(
-        new KeyFrame(Duration.seconds(BALL_RELEASE_DELAY), e -> setCurrentBallIntoMotion()));
-    launchBallsTimeline.play();
+  /**
+   * Get the tracer holding the preview of the balls' path for the current aim
+   *
+   * @return the aim tracer
+   */
+  public AimTracer getAimTracer() {
+    return aimTracer;
   }
 
-  private void clearBallLaunchingTimeline() {
-    // ensure removal of any previous balls and keyframes that
-    // did not fire in case shooter was stopped in the middle of ball launching.
-    balls.clear();
-    launchBallsTimeline.getKeyFrames().clear();  // clear all existing keyframes
-    launchBallsTimeline.stop();
+  /**
+   * Move the aim line to the session's current aim, and trace the preview again if it is shown
+   */
+  public void updateAim() {
+    if (shooterAim != null) {
+      shooterAim.setEndX(LAUNCH_X + SHOOTER_LENGTH * Math.cos(getAngle()));
+      shooterAim.setEndY(LAUNCH_Y - SHOOTER_LENGTH * Math.sin(getAngle()));
+    }
+    if (isPreviewShown && isEnabled()) {
+      updatePreview();
+    }
   }
 
-  private void addBallsForNextRound() {
-    balls.clear();
-    for (int i = 0; i < gameManager.getGameBallCount(); i++) {
-      Ball ball = new Ball(gameManager, MIDDLE_WIDTH, HEIGHT - SHOOTER_HEIGHT_OFFSET - 10,
-          BALL_COLOR,
-          BALL_RADIUS, BALL_SPEED, 0, 0);
-      gameManager.addGameBall(ball);
-      gameManager.addChildToGameRoot(ball);
-      balls.add(ball); // Add the ball to the list
+  private void updatePreview() {
+    GameSimulation simulation = session.getSimulation();
+    int pointCount = aimTracer.trace(simulation.getLevel(), LAUNCH_X, LAUNCH_Y, getAngle(),
+        BALL_RADIUS, simulation.getPaddle().getY());
+    Double[] points = new Double[pointCount * 2];
+    for (int i = 0; i < pointCount; i++) {
+      points[i * 2] = aimTracer.getPointX()[i];
+      points[i * 2 + 1] = aimTracer.getPointY()[i];
     }
+    aimPreview.getPoints().setAll(points);
   }
 
-  private void setCurrentBallIntoMotion() {
-    if (!balls.isEmpty()) {
-      Ball ball = balls.removeFirst();
-      double startAngle = getAngle();
-      ball.updateDirectionX(Math.cos(startAngle));
-      ball.updateDirectionY(-Math.sin(startAngle));
+  private void initialize() {
+    displayBall = new Circle(LAUNCH_X, LAUNCH_Y, BALL_RADIUS);
+    shooterAim = new Line(
+        LAUNCH_X,
+        LAUNCH_Y,
+        LAUNCH_X + SHOOTER_LENGTH * Math.cos(getAngle()),
+        LAUNCH_Y - SHOOTER_LENGTH * Math.sin(getAngle())
+    );
+    displayBall.setFill(SHOOTER_COLOR);
+    shooterAim.setStroke(SHOOTER_COLOR);
+    this.getChildren().addAll(displayBall, shooterAim);
+    if (isPreviewShown) {
+      updatePreview();
+      this.getChildren().add(aimPreview);
     }
   }
 
@@ -0,0 +1,81 @@
+package breakout;
+
+/**
+ * Receives the changes made by a GameSimulation, so that a view (such as the JavaFX scene) can
+ * update itself without the simulation depending on it. All methods do nothing by default, so a
+ * headless simulation can run without a listener at all.
+ *
+ * @author Owen Jennings
+ */
+public interface SimulationListener {
+
+  /**
+   * Called after a new level has been loaded and all of its blocks have been created.
+   */
+  default void onLevelStarted() {
+  }
+
+  /**
+   * Called after a block's health has changed.
+   *
+   * @param block: The block that was hit
+   */
+  default void onBlockHealthChanged(BlockModel block) {
+  }
+
+  /**
+   * Called after a block has been added to a level that is being played, such as when its level
+   * file is reloaded. Blocks created when a level starts are not added one by one.
+   *
+   * @param block: The block that was added
+   */
+  default void onBlockAdded(BlockModel block) {
+  }
+
+  /**
+   * Called after a block has been removed from the level.
+   *
+   * @param block: The block that was removed
+   */
+  default void onBlockRemoved(BlockModel block) {
+  }
+
+  /**
+   * Called after all the blocks in a level have dropped down by one row.
+   */
+  default void onBlocksDropped() {
+  }
+
+  /**
+   * Called after a mystery block has picked and applied a random power up.
+   *
+   * @param block:   The mystery block that was hit
+   * @param powerUp: The power up that was chosen, one of BlockType.POWER_UPS
+   */
+  default void onMysteryBlockRevealed(BlockModel block, BlockType powerUp) {
+  }
+
+  /**
+   * Called after a score multiplier power up has doubled the score multiplier. The simulation
+   * undoes it by itself once GameConfig.SCORE_MULTIPLIER_TIMEOUT seconds of game time have passed.
+   */
+  default void onScoreMultiplierStarted() {
+  }
+
+  /**
+   * Called after a new ball has been added to the game.
+   *
+   * @param ball: The ball that was added
+   */
+  default void onBallAdded(BallModel ball) {
+  }
+
+  /**
+   * Called after a ball has been removed from the game.
+   *
+   * @param ball: The ball that was removed
+   */
+  default void onBallRemoved(BallModel ball) {
+  }
+
+}
@@ -0,0 +1,77 @@
+package breakout;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.EventType;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * A Java Flight Recorder event for one fixed step of the game, from the start to the end of
+ * GameManager.step(). Record a game with -XX:StartFlightRecording and open the recording in JDK
+ * Mission Control to see which steps were slow and what was in play at the time; the PhaseEvents
+ * inside a step show where its time went. While no recording wants the event, start() returns a
+ * shared event that does nothing, so a step costs no allocation. Like PhaseEvent, the Live field
+ * tells the game being played apart from sessions stepped without a view.
+ *
+ * @author Owen Jennings
+ */
+@Name("breakout.Step")
+@Label("Game Step")
+@Category("Breakout")
+@Description("One fixed step of the game loop")
+@StackTrace(false)
+public class StepEvent extends Event {
+
+  private static final EventType TYPE = EventType.getEventType(StepEvent.class);
+  private static final StepEvent DISABLED = new StepEvent();
+
+  @Label("Tick")
+  private long tick;
+  @Label("Level")
+  private int levelNumber;
+  @Label("Balls")
+  private int ballCount;
+  @Label("Blocks")
+  private int blockCount;
+  @Label("Live")
+  @Description("True for the game being played, false for sessions stepped without a view")
+  private boolean isLive;
+
+  /**
+   * Start timing a step
+   *
+   * @return the event, which must be ended with end()
+   */
+  public static StepEvent start() {
+    if (!TYPE.isEnabled()) {
+      return DISABLED;
+    }
+    StepEvent event = new StepEvent();
+    event.begin();
+    return event;
+  }
+
+  /**
+   * Stop timing the step and commit it if a recording wants it
+   *
+   * @param session: the session that was stepped
+   */
+  public void end(GameSession session) {
+    if (this == DISABLED) {
+      return;
+    }
+    end();
+    if (shouldCommit()) {
+      tick = session.getTick();
+      levelNumber = session.getCurrentLevelNumber();
+      ballCount = session.getSimulation().getBalls().size();
+      blockCount = session.getSimulation().getLevel().getBlocks().size();
+      isLive = session.getSimulation().hasListener();
+      commit();
+    }
+  }
+
+}
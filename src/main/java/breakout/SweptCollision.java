@@ -0,0 +1,198 @@
+package breakout;
+
+/**
+ * Continuous (swept) collision tests for a moving ball. Instead of checking whether the ball
+ * overlaps something at the end of a step, these tests find the earliest time during the step at
+ * which the ball's bounding box touches a box or wall, and which face of it was hit. This keeps fast
+ * balls from clipping corners or tunneling through blocks, no matter how far they move in one step.
+ * <p>
+ * An instance records the earliest hit found since the last reset(), so it can be reused for every
+ * test in a step without allocating.
+ *
+ * @author Owen Jennings
+ */
+public class SweptCollision {
+
+  /**
+   * The face of the obstacle that the ball hit. A wall on the left of the game area is hit on its
+   * RIGHT face, and so on.
+   */
+  public enum Face {
+    LEFT, RIGHT, TOP, BOTTOM
+  }
+
+  private double time;
+  private Face face;
+  private boolean isCorner;
+
+  /**
+   * Create a new collision test with no hit recorded
+   */
+  public SweptCollision() {
+    reset();
+  }
+
+  /**
+   * Forget the currently recorded hit, before starting the tests for a new movement
+   */
+  public void reset() {
+    time = Double.POSITIVE_INFINITY;
+    face = null;
+    isCorner = false;
+  }
+
+  /**
+   * Check if any test since the last reset() found a hit
+   *
+   * @return true if a hit was recorded
+   */
+  public boolean hasHit() {
+    return face != null;
+  }
+
+  /**
+   * Get the time of impact of the earliest hit, as a fraction of the tested movement
+   *
+   * @return a time between 0 (the start of the movement) and 1 (the end of the movement)
+   */
+  public double getTime() {
+    return time;
+  }
+
+  /**
+   * Get the face of the obstacle that was hit first
+   *
+   * @return the face hit, or null if nothing was hit
+   */
+  public Face getFace() {
+    return face;
+  }
+
+  /**
+   * Check if the hit was exactly on a corner, where both a horizontal and a vertical face are
+   * touched at the same time
+   *
+   * @return true if the hit was on a corner
+   */
+  public boolean isCorner() {
+    return isCorner;
+  }
+
+  /**
+   * Check if the ball should bounce horizontally (the hit was on a left or right face, or a
+   * corner)
+   *
+   * @return true if the ball's X direction should be reversed
+   */
+  public boolean isHorizontalBounce() {
+    return isCorner || face == Face.LEFT || face == Face.RIGHT;
+  }
+
+  /**
+   * Check if the ball should bounce vertically (the hit was on a top or bottom face, or a corner)
+   *
+   * @return true if the ball's Y direction should be reversed
+   */
+  public boolean isVerticalBounce() {
+    return isCorner || face == Face.TOP || face == Face.BOTTOM;
+  }
+
+  /**
+   * Sweep a ball along a movement against a box, and record the hit if it happens earlier than the
+   * hit already recorded. Uses the slab method on the box expanded by the ball's radius, which
+   * matches the box-vs-box overlap test used by the rest of the game. A ball that already overlaps
+   * the box at the start of the movement does not count as a hit, so a ball can always move out of
+   * a box it is touching.
+   *
+   * @param x:      the ball's center x at the start of the movement
+   * @param y:      the ball's center y at the start of the movement
+   * @param dx:     the x distance the ball moves
+   * @param dy:     the y distance the ball moves
+   * @param radius: the ball's radius
+   * @param minX:   the box's left edge
+   * @param minY:   the box's top edge
+   * @param maxX:   the box's right edge
+   * @param maxY:   the box's bottom edge
+   * @return true if this box is now the earliest recorded hit
+   */
+  public boolean sweepBox(double x, double y, double dx, double dy, double radius,
+      double minX, double minY, double maxX, double maxY) {
+    double entryX;
+    double exitX;
+    if (dx == 0) {
+      if (x < minX - radius || x > maxX + radius) {
+        return false;
+      }
+      entryX = Double.NEGATIVE_INFINITY;
+      exitX = Double.POSITIVE_INFINITY;
+    } else {
+      entryX = ((dx > 0 ? minX - radius : maxX + radius) - x) / dx;
+      exitX = ((dx > 0 ? maxX + radius : minX - radius) - x) / dx;
+    }
+    double entryY;
+    double exitY;
+    if (dy == 0) {
+      if (y < minY - radius || y > maxY + radius) {
+        return false;
+      }
+      entryY = Double.NEGATIVE_INFINITY;
+      exitY = Double.POSITIVE_INFINITY;
+    } else {
+      entryY = ((dy > 0 ? minY - radius : maxY + radius) - y) / dy;
+      exitY = ((dy > 0 ? maxY + radius : minY - radius) - y) / dy;
+    }
+    double entry = Math.max(entryX, entryY);
+    double exit = Math.min(exitX, exitY);
+    if (entry > exit || entry < 0 || entry > 1 || entry >= time) {
+      return false;
+    }
+    time = entry;
+    isCorner = (entryX == entryY);
+    if (entryX >= entryY) {
+      face = dx > 0 ? Face.LEFT : Face.RIGHT;
+    } else {
+      face = dy > 0 ? Face.TOP : Face.BOTTOM;
+    }
+    return true;
+  }
+
+  /**
+   * Sweep a ball along a movement against the left, right and top walls of the game area, and
+   * record the earliest wall hit if it happens earlier than the hit already recorded. A ball that
+   * is already touching or past a wall and moving further into it is hit at time 0. The floor is
+   * not a wall, because balls that reach it are removed from the game.
+   *
+   * @param x:      the ball's center x at the start of the movement
+   * @param y:      the ball's center y at the start of the movement
+   * @param dx:     the x distance the ball moves
+   * @param dy:     the y distance the ball moves
+   * @param radius: the ball's radius
+   * @param width:  the width of the game area
+   * @return true if a wall is now the earliest recorded hit
+   */
+  public boolean sweepWalls(double x, double y, double dx, double dy, double radius,
+      double width) {
+    boolean hit = false;
+    if (dx < 0) {
+      hit |= recordWallHit((radius - x) / dx, Face.RIGHT);  // left wall
+    } else if (dx > 0) {
+      hit |= recordWallHit((width - radius - x) / dx, Face.LEFT);  // right wall
+    }
+    if (dy < 0) {
+      hit |= recordWallHit((radius - y) / dy, Face.BOTTOM);  // top wall
+    }
+    return hit;
+  }
+
+  private boolean recordWallHit(double wallTime, Face wallFace) {
+    double clampedTime = Math.max(0, wallTime);
+    if (clampedTime > 1 || clampedTime >= time) {
+      return false;
+    }
+    time = clampedTime;
+    face = wallFace;
+    isCorner = false;
+    return true;
+  }
+
+}
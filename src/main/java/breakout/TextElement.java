@@ -17,11 +17,9 @@ import javafx.scene.text.TextAlignment;
  */
 public class TextElement extends StackPane {
 
-  private static final String GAME_FONT_PATH = "/fonts/";
-  private static final Font regularFont = Font.loadFont(
-      TextElement.class.getResourceAsStream(GAME_FONT_PATH + "Regular.ttf"), 12);
-  private static final Font boldFont = Font.loadFont(
-      TextElement.class.getResourceAsStream(GAME_FONT_PATH + "Bold.ttf"), 12);
+  private static final Font regularFont =
+      GameAssets.getInstance().getFont(GameAssets.REGULAR_FONT);
+  private static final Font boldFont = GameAssets.getInstance().getFont(GameAssets.BOLD_FONT);
   public static final double WRAPPING_WIDTH = 500;
   public static final int TOP_MARGIN = 20;
   public static final int BOTTOM_MARGIN = 5;
@@ -0,0 +1,214 @@
+package breakout;
+
+/**
+ * A hashed timer wheel that runs timed effects on the simulation's clock instead of the wall clock.
+ * Time is counted in ticks, and the simulation ticks the wheel once per step, so timers pause
+ * whenever the simulation is not being stepped and speed up when it is stepped faster (such as in
+ * the batch simulator). A timer is put in the wheel slot for the tick it is due at, modulo the
+ * number of slots; each tick only looks at one slot, and ticking a wheel with no scheduled timers
+ * does nothing.
+ * <p>
+ * Timers are objects that are created once by their owner and scheduled as many times as needed,
+ * and each slot is a linked list threaded through the timers themselves, so scheduling and
+ * cancelling a timer never allocate. Does not depend on JavaFX.
+ *
+ * @author Owen Jennings
+ */
+public class TimerWheel {
+
+  public static final int DEFAULT_SLOTS = 512;  // a little over 8 seconds of steps
+  private static final int NOT_SCHEDULED = -1;
+  private static final int DUE = -2;  // taken out of its slot to fire on the current tick
+  private final Timer[] slots;
+  private final int SLOT_MASK;
+  private long tick = 0;
+  private int scheduledCount = 0;
+
+  /**
+   * Create a timer wheel with DEFAULT_SLOTS slots
+   */
+  public TimerWheel() {
+    this(DEFAULT_SLOTS);
+  }
+
+  /**
+   * Create a timer wheel. Timers can be scheduled any number of ticks ahead, but ones due more than
+   * slotCount ticks ahead are looked at (and skipped) once per turn of the wheel.
+   *
+   * @param slotCount: the number of slots in the wheel, which must be a power of two
+   */
+  public TimerWheel(int slotCount) {
+    if (slotCount <= 0 || Integer.bitCount(slotCount) != 1) {
+      throw new IllegalArgumentException("The number of slots must be a power of two");
+    }
+    slots = new Timer[slotCount];
+    SLOT_MASK = slotCount - 1;
+  }
+
+  /**
+   * Convert a duration to the number of simulation steps it lasts
+   *
+   * @param seconds: the duration, in seconds of game time
+   * @return the number of ticks, at one tick per GameConfig.SECOND_DELAY step
+   */
+  public static long secondsToTicks(double seconds) {
+    return Math.round(seconds / GameConfig.SECOND_DELAY);
+  }
+
+  /**
+   * Schedule a timer to fire after a number of ticks. A timer that is already scheduled is moved to
+   * the new time.
+   *
+   * @param timer: the timer to schedule
+   * @param delay: the number of ticks from now to fire the timer. Timers with a delay of less than
+   *               one fire on the next tick
+   */
+  public void schedule(Timer timer, long delay) {
+    cancel(timer);
+    timer.deadline = tick + Math.max(1, delay);
+    int slot = (int) (timer.deadline & SLOT_MASK);
+    timer.slot = slot;
+    timer.next = slots[slot];
+    if (timer.next != null) {
+      timer.next.previous = timer;
+    }
+    slots[slot] = timer;
+    scheduledCount++;
+  }
+
+  /**
+   * Stop a timer from firing. Does nothing if the timer is not scheduled.
+   *
+   * @param timer: the timer to cancel
+   */
+  public void cancel(Timer timer) {
+    if (timer.slot == DUE) {
+      timer.slot = NOT_SCHEDULED;  // still in this tick's due list, but will not fire
+      return;
+    }
+    if (timer.slot == NOT_SCHEDULED) {
+      return;
+    }
+    if (timer.previous != null) {
+      timer.previous.next = timer.next;
+    } else {
+      slots[timer.slot] = timer.next;
+    }
+    if (timer.next != null) {
+      timer.next.previous = timer.previous;
+    }
+    timer.previous = null;
+    timer.next = null;
+    timer.slot = NOT_SCHEDULED;
+    scheduledCount--;
+  }
+
+  /**
+   * Advance the wheel by one tick and fire every timer that is due, in the order they were
+   * scheduled. A timer may reschedule itself, or schedule or cancel other timers, while it fires;
+   * timers scheduled this way fire on a later tick.
+   */
+  public void tick() {
+    tick++;
+    if (scheduledCount == 0) {
+      return;
+    }
+    // Take the due timers out of the slot before firing any, so that firing can change the slot
+    Timer firstDue = null;
+    Timer timer = slots[(int) (tick & SLOT_MASK)];
+    while (timer != null) {
+      Timer next = timer.next;
+      if (timer.deadline <= tick) {
+        cancel(timer);
+        timer.slot = DUE;
+        timer.nextDue = firstDue;  // slots are in reverse schedule order, so this restores it
+        firstDue = timer;
+      }
+      timer = next;
+    }
+    while (firstDue != null) {
+      Timer due = firstDue;
+      firstDue = due.nextDue;
+      due.nextDue = null;
+      if (due.slot == DUE) {
+        due.slot = NOT_SCHEDULED;
+        due.action.onTimer(due);
+      }
+    }
+  }
+
+  /**
+   * Get the number of ticks until a timer fires
+   *
+   * @param timer: the timer to check
+   * @return the ticks left before the timer fires, or -1 if it is not scheduled
+   */
+  public long getRemainingTicks(Timer timer) {
+    return timer.isScheduled() ? Math.max(0, timer.deadline - tick) : -1;
+  }
+
+  /**
+   * Get the number of ticks since the wheel was created
+   *
+   * @return the current tick
+   */
+  public long getTick() {
+    return tick;
+  }
+
+  /**
+   * Get the number of timers waiting to fire
+   *
+   * @return the number of scheduled timers
+   */
+  public int getScheduledCount() {
+    return scheduledCount;
+  }
+
+  /**
+   * The code run when a timer fires
+   */
+  public interface TimerAction {
+
+    /**
+     * Run the timer's effect
+     *
+     * @param timer: the timer that fired, which can be scheduled again
+     */
+    void onTimer(Timer timer);
+  }
+
+  /**
+   * A timer that can be scheduled in a TimerWheel. Create one for each effect that can be waiting
+   * at the same time, and reuse it.
+   */
+  public static class Timer {
+
+    private final TimerAction action;
+    private Timer previous;
+    private Timer next;
+    private Timer nextDue;
+    private long deadline;
+    private int slot = NOT_SCHEDULED;
+
+    /**
+     * Create a timer that is not scheduled
+     *
+     * @param action: the code to run when the timer fires
+     */
+    public Timer(TimerAction action) {
+      this.action = action;
+    }
+
+    /**
+     * Check if the timer is waiting to fire
+     *
+     * @return true if the timer is scheduled
+     */
+    public boolean isScheduled() {
+      return slot >= 0 || slot == DUE;
+    }
+
+  }
+
+}